@@ -37,8 +37,14 @@ public class ArDoCoCli {
     private static final String CMD_NAME = "n";
     private static final String ERROR_FILE_NOT_EXISTING = "The specified file does not exist and/or could not be created: ";
     private static final String ERROR_READING_FILES = "Error in reading files and/or directories!";
-    private static final String WARNING_NO_CODE_MODEL = "Could not get code model to enroll gold standard. Using not enrolled gold standard!";
-    private static final String GOLD_STANDARD_PATH_SEPARATOR = "/";
+    /**
+     * Warning logged if a gold standard with directory entries cannot be enrolled to code files.
+     */
+    public static final String WARNING_NO_CODE_MODEL = "Could not get code model to enroll gold standard. Using not enrolled gold standard!";
+    /**
+     * Path separator of the code entries of gold standards; entries ending with it denote directories.
+     */
+    public static final String GOLD_STANDARD_PATH_SEPARATOR = "/";
     private static Options options;
 
     private ArDoCoCli() {
@@ -6,7 +6,10 @@ package edu.kit.kastel.mcse.ardoco.cli;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import edu.kit.kastel.mcse.ardoco.cli.batch.BatchCommand;
 import edu.kit.kastel.mcse.ardoco.cli.plugin.core.PluginManager;
+import edu.kit.kastel.mcse.ardoco.cli.plugin.task.EvaluationTaskPlugin;
+import edu.kit.kastel.mcse.ardoco.cli.plugin.task.HistoryTaskPlugin;
 import edu.kit.kastel.mcse.ardoco.cli.plugin.task.SadCodeTaskPlugin;
 import edu.kit.kastel.mcse.ardoco.cli.plugin.task.SadSamTaskPlugin;
 import edu.kit.kastel.mcse.ardoco.cli.plugin.task.SamCodeTaskPlugin;
@@ -29,6 +32,23 @@ public class ArDoCoCliDev {
      * @param args command line arguments
      */
     public static void main(String[] args) {
+        // Distributed batch runs
+        if (args.length > 0 && BatchCommand.isBatchCommand(args[0])) {
+            if (!BatchCommand.execute(args, ArDoCoCliDev.class, ArDoCoCliDev::createPluginManager)) {
+                System.exit(1);
+            }
+            return;
+        }
+
+        // Execute plugins based on command line arguments
+        createPluginManager().executePlugins(args);
+    }
+
+    /**
+     * Creates a plugin manager with all task plugins registered.
+     * @return the plugin manager
+     */
+    private static PluginManager createPluginManager() {
         // Create plugin manager
         PluginManager pluginManager = new PluginManager();
 
@@ -36,9 +56,8 @@ public class ArDoCoCliDev {
         pluginManager.addPlugin(new SadSamTaskPlugin());
         pluginManager.addPlugin(new SamCodeTaskPlugin());
         pluginManager.addPlugin(new SadCodeTaskPlugin());
-
-
-        // Execute plugins based on command line arguments
-        pluginManager.executePlugins(args);
+        pluginManager.addPlugin(new EvaluationTaskPlugin());
+        pluginManager.addPlugin(new HistoryTaskPlugin());
+        return pluginManager;
     }
 }
@@ -0,0 +1,81 @@
+package edu.kit.kastel.mcse.ardoco.cli.api;
+
+/* Licensed under MIT 2023. */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import edu.kit.kastel.mcse.ardoco.cli.io.FileTrees;
+import edu.kit.kastel.mcse.ardoco.cli.result.IdentifierPool;
+import edu.kit.kastel.mcse.ardoco.cli.result.LinkTable;
+import edu.kit.kastel.mcse.ardoco.core.api.output.ArDoCoResult;
+
+/**
+ * Typed in-process API for traceability link recovery, as alternative to the command line.
+ * Links are taken from the result of the ArDoCo runner and returned in memory. The runners always write their output files as well;
+ * unless the request asks for an output directory, they write to a private temporary directory that is removed afterwards.
+ */
+public final class ArDoCoApi {
+    private static final Logger logger = LoggerFactory.getLogger(ArDoCoApi.class);
+    private static final String TEMP_DIR_PREFIX = "ardoco-";
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private ArDoCoApi() {
+        throw new IllegalAccessError();
+    }
+
+    /**
+     * Recovers the trace links of a request.
+     * @param request the request
+     * @return the recovered links
+     * @throws IOException if the output directory cannot be created or the runner returns no result
+     */
+    public static TraceLinkResult recover(TraceLinkRequest request) throws IOException {
+        TraceLinkTask task = request.getTask();
+        LinkTable links = new LinkTable(new IdentifierPool(), task.getSourceColumn(), task.getTargetColumn());
+        recover(request, link -> links.add(link.source(), link.target()));
+        return new TraceLinkResult(task, links);
+    }
+
+    /**
+     * Recovers the trace links of a request and passes them to a consumer, in the order the runner reported them.
+     * @param request the request
+     * @param consumer the consumer for the links
+     * @throws IOException if the output directory cannot be created or the runner returns no result
+     */
+    public static void recover(TraceLinkRequest request, Consumer<TraceLink> consumer) throws IOException {
+        File outputDir = request.getOutputDir();
+        boolean temporary = outputDir == null;
+        if (temporary) {
+            outputDir = Files.createTempDirectory(TEMP_DIR_PREFIX).toFile();
+        } else {
+            Files.createDirectories(outputDir.toPath());
+        }
+
+        try {
+            ArDoCoResult result = request.getTask().run(request, outputDir);
+            if (result == null) {
+                throw new IOException("The runner of " + request.getTask() + " returned no result for " + request.getName());
+            }
+            for (String link : request.getTask().links(result)) {
+                int separator = link.indexOf(',');
+                if (separator < 0) {
+                    logger.warn("Skipping malformed trace link {}", link);
+                    continue;
+                }
+                consumer.accept(new TraceLink(link.substring(0, separator), link.substring(separator + 1)));
+            }
+        } finally {
+            if (temporary) {
+                FileTrees.deleteQuietly(outputDir);
+            }
+        }
+    }
+}
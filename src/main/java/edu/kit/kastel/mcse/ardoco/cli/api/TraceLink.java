@@ -0,0 +1,11 @@
+package edu.kit.kastel.mcse.ardoco.cli.api;
+
+/* Licensed under MIT 2023. */
+
+/**
+ * A single trace link, e.g. from a model element ID to a sentence number or from a model element ID to a code path.
+ * @param source the source identifier
+ * @param target the target identifier
+ */
+public record TraceLink(String source, String target) {
+}
@@ -0,0 +1,190 @@
+package edu.kit.kastel.mcse.ardoco.cli.api;
+
+/* Licensed under MIT 2023. */
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Immutable request for a traceability link recovery run of the {@link ArDoCoApi}.
+ */
+public final class TraceLinkRequest {
+    private final TraceLinkTask task;
+    private final String name;
+    private final File documentation;
+    private final File model;
+    private final File code;
+    private final SortedMap<String, String> config;
+    private final File outputDir;
+
+    private TraceLinkRequest(Builder builder) {
+        this.task = builder.task;
+        this.name = builder.name;
+        this.documentation = builder.documentation;
+        this.model = builder.model;
+        this.code = builder.code;
+        this.config = new TreeMap<>(builder.config);
+        this.outputDir = builder.outputDir;
+    }
+
+    /**
+     * Creates a builder for a request.
+     * @param task the task to perform
+     * @param name the name of the project
+     * @return the builder
+     */
+    public static Builder builder(TraceLinkTask task, String name) {
+        return new Builder(task, name);
+    }
+
+    /**
+     * Gets the task.
+     * @return the task
+     */
+    public TraceLinkTask getTask() {
+        return task;
+    }
+
+    /**
+     * Gets the project name.
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the documentation (SAD).
+     * @return the documentation, or null if not needed
+     */
+    public File getDocumentation() {
+        return documentation;
+    }
+
+    /**
+     * Gets the model (SAM).
+     * @return the model
+     */
+    public File getModel() {
+        return model;
+    }
+
+    /**
+     * Gets the code directory or code model.
+     * @return the code, or null if not needed
+     */
+    public File getCode() {
+        return code;
+    }
+
+    /**
+     * Gets the additional configuration of the runner.
+     * @return an unmodifiable view of the configuration
+     */
+    public Map<String, String> getConfig() {
+        return Collections.unmodifiableSortedMap(config);
+    }
+
+    /**
+     * Gets the directory the runner output should be kept in.
+     * @return the output directory, or null if no files should be kept
+     */
+    public File getOutputDir() {
+        return outputDir;
+    }
+
+    /**
+     * Builder for {@link TraceLinkRequest}s.
+     */
+    public static final class Builder {
+        private final TraceLinkTask task;
+        private final String name;
+        private File documentation;
+        private File model;
+        private File code;
+        private final SortedMap<String, String> config = new TreeMap<>();
+        private File outputDir;
+
+        private Builder(TraceLinkTask task, String name) {
+            this.task = Objects.requireNonNull(task, "task");
+            this.name = Objects.requireNonNull(name, "name");
+        }
+
+        /**
+         * Sets the documentation (SAD).
+         * @param documentation the documentation file
+         * @return this builder
+         */
+        public Builder documentation(File documentation) {
+            this.documentation = documentation;
+            return this;
+        }
+
+        /**
+         * Sets the model (SAM).
+         * @param model the model file
+         * @return this builder
+         */
+        public Builder model(File model) {
+            this.model = model;
+            return this;
+        }
+
+        /**
+         * Sets the code.
+         * @param code the code directory or code model file
+         * @return this builder
+         */
+        public Builder code(File code) {
+            this.code = code;
+            return this;
+        }
+
+        /**
+         * Adds an additional configuration entry for the runner.
+         * @param key the configuration key
+         * @param value the configuration value
+         * @return this builder
+         */
+        public Builder config(String key, String value) {
+            this.config.put(key, value);
+            return this;
+        }
+
+        /**
+         * Keeps the runner output in the given directory instead of a temporary one.
+         * @param outputDir the output directory
+         * @return this builder
+         */
+        public Builder outputDir(File outputDir) {
+            this.outputDir = outputDir;
+            return this;
+        }
+
+        /**
+         * Builds the request.
+         * @return the request
+         * @throws IllegalArgumentException if an input the task needs is missing
+         */
+        public TraceLinkRequest build() {
+            requireFile(model, "model");
+            if (task.needsDocumentation()) {
+                requireFile(documentation, "documentation");
+            }
+            if (task.needsCode() && (code == null || !code.exists())) {
+                throw new IllegalArgumentException("Task " + task + " needs the code, but it does not exist: " + code);
+            }
+            return new TraceLinkRequest(this);
+        }
+
+        private void requireFile(File file, String input) {
+            if (file == null || !file.isFile()) {
+                throw new IllegalArgumentException("Task " + task + " needs the " + input + ", but it does not exist: " + file);
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package edu.kit.kastel.mcse.ardoco.cli.api;
+
+/* Licensed under MIT 2023. */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import edu.kit.kastel.mcse.ardoco.cli.result.IdentifierPool;
+import edu.kit.kastel.mcse.ardoco.cli.result.LinkTable;
+
+/**
+ * Trace links recovered by the {@link ArDoCoApi}. Results are immutable and can be shared between threads.
+ */
+public final class TraceLinkResult {
+    private final TraceLinkTask task;
+    private final LinkTable links;
+
+    /**
+     * Constructor for the result.
+     * @param task the task that produced the links
+     * @param links the links; must not be modified afterwards
+     */
+    TraceLinkResult(TraceLinkTask task, LinkTable links) {
+        this.task = task;
+        this.links = links;
+    }
+
+    /**
+     * Gets the task that produced the links.
+     * @return the task
+     */
+    public TraceLinkTask getTask() {
+        return task;
+    }
+
+    /**
+     * Gets the number of links.
+     * @return the number of links
+     */
+    public int size() {
+        return links.size();
+    }
+
+    /**
+     * Checks whether a link was recovered.
+     * @param source the source identifier
+     * @param target the target identifier
+     * @return true if the link is part of the result
+     */
+    public boolean contains(String source, String target) {
+        return links.contains(source, target);
+    }
+
+    /**
+     * Passes all links to a consumer, in the order the runner reported them.
+     * @param consumer the consumer
+     */
+    public void forEach(Consumer<TraceLink> consumer) {
+        IdentifierPool pool = links.getPool();
+        for (int i = 0; i < links.size(); i++) {
+            consumer.accept(new TraceLink(pool.resolve(links.source(i)), pool.resolve(links.target(i))));
+        }
+    }
+
+    /**
+     * Gets all links as list.
+     * @return the links
+     */
+    public List<TraceLink> getLinks() {
+        List<TraceLink> result = new ArrayList<>(links.size());
+        forEach(result::add);
+        return result;
+    }
+
+    /**
+     * Gets the names of the source and target columns, e.g. {@code modelElementID} and {@code sentence}.
+     * @return the column names
+     */
+    public List<String> getColumns() {
+        return List.of(links.getSourceColumn(), links.getTargetColumn());
+    }
+}
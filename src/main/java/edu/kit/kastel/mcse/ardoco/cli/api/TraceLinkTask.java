@@ -0,0 +1,136 @@
+package edu.kit.kastel.mcse.ardoco.cli.api;
+
+/* Licensed under MIT 2023. */
+
+import java.io.File;
+import java.util.TreeMap;
+
+import edu.kit.kastel.mcse.ardoco.core.api.models.ArchitectureModelType;
+import edu.kit.kastel.mcse.ardoco.core.api.output.ArDoCoResult;
+import edu.kit.kastel.mcse.ardoco.core.common.util.TraceLinkUtilities;
+import edu.kit.kastel.mcse.ardoco.tlr.execution.ArDoCoForSadCodeTraceabilityLinkRecovery;
+import edu.kit.kastel.mcse.ardoco.tlr.execution.ArDoCoForSadSamTraceabilityLinkRecovery;
+import edu.kit.kastel.mcse.ardoco.tlr.execution.ArDoCoForSamCodeTraceabilityLinkRecovery;
+
+/**
+ * Traceability link recovery tasks available through the {@link ArDoCoApi}.
+ */
+public enum TraceLinkTask {
+    /**
+     * Architecture documentation to architecture model.
+     */
+    SAD_SAM("sadSamTlr_", "modelElementID", "sentence", true, false) {
+        @Override
+        ArDoCoResult run(TraceLinkRequest request, File outputDir) {
+            var runner = new ArDoCoForSadSamTraceabilityLinkRecovery(request.getName());
+            runner.setUp(request.getDocumentation(), request.getModel(), ArchitectureModelType.PCM, new TreeMap<>(request.getConfig()), outputDir);
+            return runner.run();
+        }
+
+        @Override
+        Iterable<String> links(ArDoCoResult result) {
+            return TraceLinkUtilities.getSadSamTraceLinksAsStringList(result.getAllTraceLinks());
+        }
+    },
+    /**
+     * Architecture model to code.
+     */
+    SAM_CODE("samCodeTlr_", "modelElementID", "codeElementID", false, true) {
+        @Override
+        ArDoCoResult run(TraceLinkRequest request, File outputDir) {
+            var runner = new ArDoCoForSamCodeTraceabilityLinkRecovery(request.getName());
+            runner.setUp(request.getModel(), ArchitectureModelType.PCM, request.getCode(), new TreeMap<>(request.getConfig()), outputDir);
+            return runner.run();
+        }
+
+        @Override
+        Iterable<String> links(ArDoCoResult result) {
+            return TraceLinkUtilities.getSamCodeTraceLinksAsStringList(result.getSamCodeTraceLinks());
+        }
+    },
+    /**
+     * Architecture documentation to code, recovered directly from the documentation and the code (ArDoCode).
+     */
+    SAD_CODE("sadCodeTlr_", "sentenceID", "codeElementID", true, true) {
+        @Override
+        ArDoCoResult run(TraceLinkRequest request, File outputDir) {
+            var runner = new ArDoCoForSadCodeTraceabilityLinkRecovery(request.getName());
+            runner.setUp(request.getDocumentation(), request.getCode(), new TreeMap<>(request.getConfig()), outputDir);
+            return runner.run();
+        }
+
+        @Override
+        Iterable<String> links(ArDoCoResult result) {
+            return TraceLinkUtilities.getSadCodeTraceLinksAsStringList(result.getSadCodeTraceLinks());
+        }
+    };
+
+    private final String resultFilePrefix;
+    private final String sourceColumn;
+    private final String targetColumn;
+    private final boolean needsDocumentation;
+    private final boolean needsCode;
+
+    TraceLinkTask(String resultFilePrefix, String sourceColumn, String targetColumn, boolean needsDocumentation, boolean needsCode) {
+        this.resultFilePrefix = resultFilePrefix;
+        this.sourceColumn = sourceColumn;
+        this.targetColumn = targetColumn;
+        this.needsDocumentation = needsDocumentation;
+        this.needsCode = needsCode;
+    }
+
+    /**
+     * Runs the ArDoCo runner of this task.
+     * @param request the request
+     * @param outputDir the directory the runner writes to
+     * @return the result of the runner
+     */
+    abstract ArDoCoResult run(TraceLinkRequest request, File outputDir);
+
+    /**
+     * Gets the trace links of a runner result in the format of the trace link files, i.e., source and target separated by a comma.
+     * @param result the result of the runner
+     * @return the links
+     */
+    abstract Iterable<String> links(ArDoCoResult result);
+
+    /**
+     * Gets the prefix of the trace link file the runner writes.
+     * @return the file prefix
+     */
+    public String getResultFilePrefix() {
+        return resultFilePrefix;
+    }
+
+    /**
+     * Gets the name of the link source column of the trace link file, e.g. {@code modelElementID}.
+     * @return the source column name
+     */
+    public String getSourceColumn() {
+        return sourceColumn;
+    }
+
+    /**
+     * Gets the name of the link target column of the trace link file, e.g. {@code sentence}.
+     * @return the target column name
+     */
+    public String getTargetColumn() {
+        return targetColumn;
+    }
+
+    /**
+     * Checks whether the task needs the documentation (SAD).
+     * @return true if the documentation is needed
+     */
+    public boolean needsDocumentation() {
+        return needsDocumentation;
+    }
+
+    /**
+     * Checks whether the task needs the code.
+     * @return true if the code is needed
+     */
+    public boolean needsCode() {
+        return needsCode;
+    }
+}
@@ -0,0 +1,162 @@
+package edu.kit.kastel.mcse.ardoco.cli.batch;
+
+/* Licensed under MIT 2023. */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import edu.kit.kastel.mcse.ardoco.cli.plugin.core.PluginManager;
+import edu.kit.kastel.mcse.ardoco.core.tests.eval.CodeProject;
+
+/**
+ * Command line entry for distributed batch runs: {@code coordinator} splits (project, task) units across workers, {@code worker} executes
+ * them. Local worker JVMs can be started by the coordinator itself.
+ */
+public final class BatchCommand {
+    private static final Logger logger = LoggerFactory.getLogger(BatchCommand.class);
+    private static final String COORDINATOR = "coordinator";
+    private static final String WORKER = "worker";
+    private static final String DEFAULT_TASKS = "sad-sam,sam-code,sad-code";
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private BatchCommand() {
+        throw new IllegalAccessError();
+    }
+
+    /**
+     * Checks whether the first argument selects a batch command.
+     * @param command the first command line argument
+     * @return true for {@code coordinator} and {@code worker}
+     */
+    public static boolean isBatchCommand(String command) {
+        return COORDINATOR.equals(command) || WORKER.equals(command);
+    }
+
+    /**
+     * Executes a batch command.
+     * @param args the command line arguments, starting with the command
+     * @param mainClass the main class to start local worker JVMs with
+     * @param pluginManagerFactory factory for the plugin manager executing units
+     * @return true if the command finished successfully
+     */
+    public static boolean execute(String[] args, Class<?> mainClass, Supplier<PluginManager> pluginManagerFactory) {
+        String command = args[0];
+        Options options = COORDINATOR.equals(command) ? coordinatorOptions() : workerOptions();
+        CommandLine cmd;
+        try {
+            cmd = new DefaultParser().parse(options, Arrays.copyOfRange(args, 1, args.length));
+        } catch (ParseException e) {
+            logger.error(e.getMessage());
+            new HelpFormatter().printHelp("java -jar ardoco-cli.jar " + command, options);
+            return false;
+        }
+
+        try {
+            if (COORDINATOR.equals(command)) {
+                return runCoordinator(cmd, mainClass);
+            }
+            String[] address = cmd.getOptionValue("connect").split(":");
+            long heartbeatMillis = TimeUnit.SECONDS.toMillis(Long.parseLong(cmd.getOptionValue("heartbeat", "10")));
+            new BatchWorker(address[0], Integer.parseInt(address[1]), pluginManagerFactory, heartbeatMillis).run();
+            return true;
+        } catch (IOException | NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            logger.error("Batch {} failed", command, e);
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static boolean runCoordinator(CommandLine cmd, Class<?> mainClass) throws IOException, InterruptedException {
+        List<WorkUnit> units = new ArrayList<>();
+        List<String> tasks = Arrays.asList(cmd.getOptionValue("tasks", DEFAULT_TASKS).split(","));
+        List<CodeProject> projects = cmd.hasOption("projects")
+                ? Arrays.stream(cmd.getOptionValue("projects").split(",")).map(String::trim).map(String::toUpperCase)
+                        .map(CodeProject::valueOf).toList()
+                : Arrays.asList(CodeProject.values());
+        for (CodeProject project : projects) {
+            for (String task : tasks) {
+                units.add(WorkUnit.of(project, task.trim().toLowerCase()));
+            }
+        }
+
+        long heartbeatSeconds = Long.parseLong(cmd.getOptionValue("heartbeat", "10"));
+        int attempts = Integer.parseInt(cmd.getOptionValue("attempts", "3"));
+        long timeoutMinutes = Long.parseLong(cmd.getOptionValue("timeout", Long.toString(TimeUnit.DAYS.toMinutes(1))));
+        int localWorkers = Integer.parseInt(cmd.getOptionValue("workers", "0"));
+        int port = Integer.parseInt(cmd.getOptionValue("port", "0"));
+        File outputDir = new File(cmd.getOptionValue("o"));
+        long heartbeatTimeoutMillis = TimeUnit.SECONDS.toMillis(heartbeatSeconds * 3);
+
+        try (BatchCoordinator coordinator = new BatchCoordinator(port, outputDir, units, attempts, heartbeatTimeoutMillis)) {
+            logger.info("Coordinator listening on port {} with {} units", coordinator.getPort(), units.size());
+            List<Process> workers = new ArrayList<>();
+            for (int i = 0; i < localWorkers; i++) {
+                workers.add(startLocalWorker(mainClass, coordinator.getPort(), heartbeatSeconds));
+            }
+            boolean success = coordinator.run(timeoutMinutes, TimeUnit.MINUTES);
+            for (Process worker : workers) {
+                if (!worker.waitFor(heartbeatSeconds * 3, TimeUnit.SECONDS)) {
+                    worker.destroy();
+                }
+            }
+            return success;
+        }
+    }
+
+    /**
+     * Starts a worker JVM on this machine with the class path of the running JVM.
+     * @param mainClass the main class, which must pass the {@code worker} command on to {@link #execute(String[], Class, Supplier)}
+     * @param port the port of the coordinator
+     * @param heartbeatSeconds the heartbeat interval in seconds
+     * @return the worker process
+     * @throws IOException if the process cannot be started
+     */
+    static Process startLocalWorker(Class<?> mainClass, int port, long heartbeatSeconds) throws IOException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        return new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), mainClass.getName(), WORKER, "-connect",
+                "localhost:" + port, "-heartbeat", Long.toString(heartbeatSeconds)).inheritIO().start();
+    }
+
+    private static Options coordinatorOptions() {
+        Options options = new Options();
+        Option opt = new Option("o", "output", true, "Path to the output directory collecting the results of all units");
+        opt.setRequired(true);
+        options.addOption(opt);
+        options.addOption(new Option("port", true, "Port to listen on for workers (default: any free port)"));
+        options.addOption(new Option("workers", true, "Number of local worker JVMs to start (default: 0)"));
+        options.addOption(new Option("projects", true, "Comma-separated code projects (default: all)"));
+        options.addOption(new Option("tasks", true, "Comma-separated tasks (default: " + DEFAULT_TASKS + ")"));
+        options.addOption(new Option("attempts", true, "Maximum attempts per unit (default: 3)"));
+        options.addOption(new Option("heartbeat", true, "Heartbeat interval of the workers in seconds (default: 10)"));
+        options.addOption(new Option("timeout", true, "Maximum duration of the batch run in minutes (default: one day)"));
+        return options;
+    }
+
+    private static Options workerOptions() {
+        Options options = new Options();
+        Option opt = new Option("connect", true, "Coordinator address as host:port");
+        opt.setRequired(true);
+        options.addOption(opt);
+        options.addOption(new Option("heartbeat", true, "Heartbeat interval in seconds (default: 10)"));
+        return options;
+    }
+}
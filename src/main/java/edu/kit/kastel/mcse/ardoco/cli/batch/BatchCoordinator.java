@@ -0,0 +1,261 @@
+package edu.kit.kastel.mcse.ardoco.cli.batch;
+
+/* Licensed under MIT 2023. */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import edu.kit.kastel.mcse.ardoco.cli.io.FileTrees;
+
+/**
+ * Coordinator of a batch run. Hands out work units to workers connecting over a socket, watches their heartbeats, retries units of
+ * failed or silent workers and collects the produced files into one output tree ({@code <output>/<project>/<task>/}). The directory of a
+ * unit is cleared before the unit is retried, so it only holds the files of a single attempt.
+ */
+public class BatchCoordinator implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(BatchCoordinator.class);
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ServerSocket serverSocket;
+    private final File outputDir;
+    private final int maxAttempts;
+    private final long heartbeatTimeoutMillis;
+
+    private final Deque<WorkUnit> pending = new ArrayDeque<>();
+    private final Map<String, Integer> attempts = new HashMap<>();
+    private final Set<String> completed = new LinkedHashSet<>();
+    private final Set<String> failed = new LinkedHashSet<>();
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private int inProgress;
+
+    /**
+     * Constructor for the coordinator.
+     * @param port the port to listen on, or 0 for any free port
+     * @param outputDir the directory to collect the results in
+     * @param units the units to execute
+     * @param maxAttempts the maximum number of attempts per unit
+     * @param heartbeatTimeoutMillis the time after which a worker without heartbeat is considered dead
+     * @throws IOException if the server socket cannot be opened
+     */
+    public BatchCoordinator(int port, File outputDir, List<WorkUnit> units, int maxAttempts, long heartbeatTimeoutMillis)
+            throws IOException {
+        this.serverSocket = new ServerSocket(port);
+        this.outputDir = outputDir;
+        this.maxAttempts = maxAttempts;
+        this.heartbeatTimeoutMillis = heartbeatTimeoutMillis;
+        this.pending.addAll(units);
+    }
+
+    /**
+     * Gets the port the coordinator listens on.
+     * @return the port
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Accepts workers until all units are completed or failed, or the timeout expires.
+     * @param timeout the maximum time to wait
+     * @param unit the unit of the timeout
+     * @return true if all units completed successfully
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean run(long timeout, TimeUnit unit) throws InterruptedException {
+        Thread acceptor = new Thread(this::acceptWorkers, "batch-coordinator");
+        acceptor.setDaemon(true);
+        acceptor.start();
+
+        long deadline = System.currentTimeMillis() + unit.toMillis(timeout);
+        synchronized (this) {
+            while (!isFinished()) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    logger.error("Batch run timed out with {} pending and {} running units", pending.size(), inProgress);
+                    break;
+                }
+                wait(remaining);
+            }
+            logger.info("Batch run finished: {} completed, {} failed", completed.size(), failed.size());
+            if (!failed.isEmpty()) {
+                logger.error("Failed units: {}", failed);
+            }
+            return pending.isEmpty() && inProgress == 0 && failed.isEmpty();
+        }
+    }
+
+    /**
+     * Gets the identifiers of the completed units.
+     * @return the completed units
+     */
+    public synchronized List<String> getCompleted() {
+        return new ArrayList<>(completed);
+    }
+
+    /**
+     * Gets the identifiers of the units that failed in all attempts.
+     * @return the failed units
+     */
+    public synchronized List<String> getFailed() {
+        return new ArrayList<>(failed);
+    }
+
+    private boolean isFinished() {
+        return pending.isEmpty() && inProgress == 0;
+    }
+
+    private void acceptWorkers() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.add(socket);
+                Thread handler = new Thread(() -> handleWorker(socket), "batch-worker-" + socket.getPort());
+                handler.setDaemon(true);
+                handler.start();
+            } catch (SocketException e) {
+                // server socket closed
+                return;
+            } catch (IOException e) {
+                logger.warn("Could not accept worker", e);
+            }
+        }
+    }
+
+    private void handleWorker(Socket socket) {
+        String worker = socket.getRemoteSocketAddress().toString();
+        logger.info("Worker {} connected", worker);
+        WorkUnit current = null;
+        try (socket;
+                DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE));
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE))) {
+            socket.setSoTimeout((int) heartbeatTimeoutMillis);
+            while (true) {
+                String message = in.readUTF();
+                if (BatchProtocol.HEARTBEAT.equals(message)) {
+                    continue;
+                }
+                if (BatchProtocol.RESULT.equals(message) && current != null) {
+                    boolean success = in.readBoolean();
+                    receiveFiles(in, current);
+                    finish(current, success, worker);
+                    current = null;
+                } else if (BatchProtocol.NEXT.equals(message)) {
+                    current = nextUnit(out);
+                    if (current != null) {
+                        logger.info("Assigned {} to worker {}", current.id(), worker);
+                    }
+                } else {
+                    throw new IOException("Unexpected message from worker: " + message);
+                }
+            }
+        } catch (IOException e) {
+            connections.remove(socket);
+            if (current != null) {
+                logger.warn("Lost worker {} while executing {}: {}", worker, current.id(), e.getMessage());
+                finish(current, false, worker);
+            } else {
+                logger.info("Worker {} disconnected", worker);
+            }
+        }
+    }
+
+    /**
+     * Assigns the next unit and sends it, or tells the worker to wait or stop.
+     * @return the assigned unit, or null
+     */
+    private WorkUnit nextUnit(DataOutputStream out) throws IOException {
+        WorkUnit unit;
+        boolean finished;
+        synchronized (this) {
+            unit = pending.poll();
+            finished = isFinished();
+            if (unit != null) {
+                inProgress++;
+                attempts.merge(unit.id(), 1, Integer::sum);
+            }
+        }
+        if (unit != null) {
+            BatchProtocol.writeUnit(out, unit);
+        } else {
+            BatchProtocol.writeMessage(out, finished ? BatchProtocol.DONE : BatchProtocol.WAIT);
+        }
+        return unit;
+    }
+
+    private synchronized void finish(WorkUnit unit, boolean success, String worker) {
+        inProgress--;
+        if (success) {
+            completed.add(unit.id());
+            logger.info("Worker {} completed {}", worker, unit.id());
+        } else if (attempts.getOrDefault(unit.id(), 0) < maxAttempts) {
+            logger.warn("Unit {} failed on worker {}. Retrying.", unit.id(), worker);
+            FileTrees.deleteQuietly(unitDirectory(unit));
+            pending.addFirst(unit);
+        } else {
+            logger.error("Unit {} failed after {} attempts", unit.id(), maxAttempts);
+            failed.add(unit.id());
+        }
+        notifyAll();
+    }
+
+    private Path unitDirectory(WorkUnit unit) {
+        return outputDir.toPath().resolve(unit.project()).resolve(unit.task()).normalize();
+    }
+
+    private void receiveFiles(DataInputStream in, WorkUnit unit) throws IOException {
+        Path unitDir = unitDirectory(unit);
+        int count = in.readInt();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        for (int i = 0; i < count; i++) {
+            String relativePath = in.readUTF();
+            long length = in.readLong();
+            Path target = unitDir.resolve(relativePath).normalize();
+            if (!target.startsWith(unitDir)) {
+                throw new IOException("Worker sent a file outside of the unit directory: " + relativePath);
+            }
+            Files.createDirectories(target.getParent());
+            try (OutputStream fileOut = Files.newOutputStream(target)) {
+                long remaining = length;
+                while (remaining > 0) {
+                    int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                    if (read < 0) {
+                        throw new IOException("Unexpected end of result file " + relativePath);
+                    }
+                    fileOut.write(buffer, 0, read);
+                    remaining -= read;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Socket connection : connections) {
+            connection.close();
+        }
+    }
+}
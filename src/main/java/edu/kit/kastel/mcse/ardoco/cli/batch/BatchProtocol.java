@@ -0,0 +1,58 @@
+package edu.kit.kastel.mcse.ardoco.cli.batch;
+
+/* Licensed under MIT 2023. */
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Messages of the socket protocol between batch coordinator and workers.
+ * <p>
+ * A worker asks for work with {@link #NEXT}. The coordinator answers with {@link #UNIT} followed by the unit, {@link #WAIT} if all
+ * remaining units are in progress elsewhere, or {@link #DONE}. While executing, the worker sends {@link #HEARTBEAT} periodically and finally
+ * {@link #RESULT} with the success flag and the produced files (relative path, length, content).
+ */
+final class BatchProtocol {
+    static final String NEXT = "NEXT";
+    static final String UNIT = "UNIT";
+    static final String WAIT = "WAIT";
+    static final String DONE = "DONE";
+    static final String HEARTBEAT = "HEARTBEAT";
+    static final String RESULT = "RESULT";
+
+    private BatchProtocol() {
+        throw new IllegalAccessError();
+    }
+
+    static void writeUnit(DataOutputStream out, WorkUnit unit) throws IOException {
+        out.writeUTF(UNIT);
+        out.writeUTF(unit.project());
+        out.writeUTF(unit.task());
+        out.writeInt(unit.arguments().size());
+        for (String argument : unit.arguments()) {
+            out.writeUTF(argument);
+        }
+        out.flush();
+    }
+
+    static WorkUnit readUnit(DataInputStream in) throws IOException {
+        String project = in.readUTF();
+        String task = in.readUTF();
+        int count = in.readInt();
+        List<String> arguments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            arguments.add(in.readUTF());
+        }
+        return new WorkUnit(project, task, arguments);
+    }
+
+    static void writeMessage(DataOutputStream out, String message) throws IOException {
+        synchronized (out) {
+            out.writeUTF(message);
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package edu.kit.kastel.mcse.ardoco.cli.batch;
+
+/* Licensed under MIT 2023. */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import edu.kit.kastel.mcse.ardoco.cli.io.FileTrees;
+import edu.kit.kastel.mcse.ardoco.cli.plugin.core.PluginManager;
+
+/**
+ * Worker of a batch run. Fetches work units from the coordinator, executes them with a fresh plugin manager in a temporary output
+ * directory while sending heartbeats, and sends the produced files back.
+ */
+public class BatchWorker {
+    private static final Logger logger = LoggerFactory.getLogger(BatchWorker.class);
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String CHECKPOINT_DIR = ".checkpoints";
+
+    private final String host;
+    private final int port;
+    private final Supplier<PluginManager> pluginManagerFactory;
+    private final long heartbeatIntervalMillis;
+
+    /**
+     * Constructor for the worker.
+     * @param host the coordinator host
+     * @param port the coordinator port
+     * @param pluginManagerFactory factory for the plugin manager executing a unit
+     * @param heartbeatIntervalMillis the interval of the heartbeats
+     */
+    public BatchWorker(String host, int port, Supplier<PluginManager> pluginManagerFactory, long heartbeatIntervalMillis) {
+        this.host = host;
+        this.port = port;
+        this.pluginManagerFactory = pluginManagerFactory;
+        this.heartbeatIntervalMillis = heartbeatIntervalMillis;
+    }
+
+    /**
+     * Executes units until the coordinator has no more work.
+     * @throws IOException if the connection to the coordinator fails
+     * @throws InterruptedException if interrupted while waiting for work
+     */
+    public void run() throws IOException, InterruptedException {
+        try (Socket socket = new Socket(host, port);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE));
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE))) {
+            while (true) {
+                BatchProtocol.writeMessage(out, BatchProtocol.NEXT);
+                String reply = in.readUTF();
+                if (BatchProtocol.DONE.equals(reply)) {
+                    logger.info("No more work. Worker stops.");
+                    return;
+                } else if (BatchProtocol.WAIT.equals(reply)) {
+                    Thread.sleep(heartbeatIntervalMillis);
+                } else if (BatchProtocol.UNIT.equals(reply)) {
+                    execute(BatchProtocol.readUnit(in), out);
+                } else {
+                    throw new IOException("Unexpected message from coordinator: " + reply);
+                }
+            }
+        }
+    }
+
+    private void execute(WorkUnit unit, DataOutputStream out) throws IOException {
+        logger.info("Executing {}", unit.id());
+        Path unitOutput = Files.createTempDirectory("ardoco-batch-");
+        ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "batch-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeat.scheduleAtFixedRate(() -> {
+            try {
+                BatchProtocol.writeMessage(out, BatchProtocol.HEARTBEAT);
+            } catch (IOException e) {
+                logger.warn("Could not send heartbeat", e);
+            }
+        }, 0, heartbeatIntervalMillis, TimeUnit.MILLISECONDS);
+
+        boolean success;
+        try {
+            success = pluginManagerFactory.get().executePlugins(unit.arguments(unitOutput.toFile()));
+        } catch (RuntimeException e) {
+            logger.error("Unit {} failed", unit.id(), e);
+            success = false;
+        } finally {
+            heartbeat.shutdownNow();
+        }
+
+        try {
+            sendResult(unitOutput, success, out);
+        } finally {
+            FileTrees.delete(unitOutput);
+        }
+    }
+
+    private static void sendResult(Path unitOutput, boolean success, DataOutputStream out) throws IOException {
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(unitOutput)) {
+            files = paths.filter(Files::isRegularFile).filter(path -> !unitOutput.relativize(path).startsWith(CHECKPOINT_DIR)).toList();
+        }
+        synchronized (out) {
+            out.writeUTF(BatchProtocol.RESULT);
+            out.writeBoolean(success);
+            out.writeInt(files.size());
+            for (Path file : files) {
+                out.writeUTF(unitOutput.relativize(file).toString().replace('\\', '/'));
+                out.writeLong(Files.size(file));
+                Files.copy(file, out);
+            }
+            out.flush();
+        }
+    }
+}
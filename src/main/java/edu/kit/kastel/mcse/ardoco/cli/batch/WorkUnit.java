@@ -0,0 +1,82 @@
+package edu.kit.kastel.mcse.ardoco.cli.batch;
+
+/* Licensed under MIT 2023. */
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.kit.kastel.mcse.ardoco.core.tests.eval.CodeProject;
+import edu.kit.kastel.mcse.ardoco.core.tests.eval.Project;
+
+/**
+ * A (project, task) unit of a batch run, executed by a worker through the plugin manager.
+ * @param project the project name, used as output sub-directory
+ * @param task the task name, used as output sub-directory
+ * @param arguments the plugin manager arguments without the output directory
+ */
+public record WorkUnit(String project, String task, List<String> arguments) {
+
+    /**
+     * Constructor for a work unit.
+     * @param project the project name
+     * @param task the task name
+     * @param arguments the plugin manager arguments without the output directory
+     */
+    public WorkUnit {
+        arguments = List.copyOf(arguments);
+    }
+
+    /**
+     * Gets the identifier of this unit.
+     * @return the identifier
+     */
+    public String id() {
+        return project + "/" + task;
+    }
+
+    /**
+     * Gets the plugin manager arguments of this unit, writing to an output directory.
+     * @param outputDir the output directory
+     * @return the arguments
+     */
+    public String[] arguments(File outputDir) {
+        List<String> result = new ArrayList<>(arguments);
+        result.add("-o");
+        result.add(outputDir.getPath());
+        return result.toArray(String[]::new);
+    }
+
+    /**
+     * Creates the unit that runs a task on one of the benchmark code projects.
+     * @param codeProject the code project
+     * @param task the task name, one of sad-sam, sam-code and sad-code
+     * @return the work unit
+     */
+    public static WorkUnit of(CodeProject codeProject, String task) {
+        Project project = codeProject.getCodeProject();
+        return new WorkUnit(codeProject.name(), task,
+                taskArguments(task, project.name(), project.getTextFile(), project.getModelFile(), codeProject.getCodeLocation()));
+    }
+
+    /**
+     * Builds the plugin manager arguments that run a task on a project.
+     * @param task the task name, one of sad-sam, sam-code and sad-code
+     * @param name the project name
+     * @param documentation the documentation (SAD)
+     * @param model the model (SAM)
+     * @param code the code directory, code model or archive
+     * @return the arguments without the output directory
+     * @throws IllegalArgumentException if the task is not supported
+     */
+    public static List<String> taskArguments(String task, String name, File documentation, File model, String code) {
+        String sad = documentation.getAbsolutePath();
+        String sam = model.getAbsolutePath();
+        return switch (task) {
+        case "sad-sam" -> List.of("-t", task, "-n", name, "-SadSam-d", sad, "-SadSam-m", sam);
+        case "sam-code" -> List.of("-t", task, "-n", name, "-SamCode-m", sam, "-SamCode-c", code);
+        case "sad-code" -> List.of("-t", task, "-n", name, "-sdc-d", sad, "-sdc-m", sam, "-sdc-c", code);
+        default -> throw new IllegalArgumentException("Unsupported task: " + task);
+        };
+    }
+}
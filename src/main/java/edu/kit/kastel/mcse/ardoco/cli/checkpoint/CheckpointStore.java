@@ -0,0 +1,206 @@
+package edu.kit.kastel.mcse.ardoco.cli.checkpoint;
+
+/* Licensed under MIT 2023. */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import edu.kit.kastel.mcse.ardoco.cli.io.FileTrees;
+
+/**
+ * Stage-level checkpoints of a task run.
+ * Each completed stage stores copies of the files it produced in the checkpoint directory, together with the fingerprint of the run's
+ * inputs. A resumed run with matching fingerprint restores completed stages instead of executing them again.
+ */
+public class CheckpointStore {
+    private static final Logger logger = LoggerFactory.getLogger(CheckpointStore.class);
+    private static final String CHECKPOINT_DIR = ".checkpoints";
+    private static final String MANIFEST = "manifest.properties";
+    private static final String KEY_FINGERPRINT = "fingerprint";
+    private static final String KEY_STAGES = "stages";
+    private static final String KEY_FILES_SUFFIX = ".files";
+    private static final String LIST_SEPARATOR = ",";
+
+    private static final CheckpointStore DISABLED = new CheckpointStore(null, null, new Properties());
+
+    private final File directory;
+    private final String fingerprint;
+    private final Properties manifest;
+
+    private CheckpointStore(File directory, String fingerprint, Properties manifest) {
+        this.directory = directory;
+        this.fingerprint = fingerprint;
+        this.manifest = manifest;
+    }
+
+    /**
+     * Gets a store that never has completed stages and does not write checkpoints.
+     * @return the disabled store
+     */
+    public static CheckpointStore disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Opens the checkpoint store of a task run.
+     * When resuming, the existing checkpoints are kept if they were created for the same input fingerprint; otherwise they are discarded.
+     * @param outputDir the output directory of the run
+     * @param task the task name
+     * @param name the project name
+     * @param fingerprint the fingerprint of the inputs and settings of the run
+     * @param resume whether existing checkpoints should be used
+     * @return the checkpoint store
+     * @throws IOException if the checkpoint directory cannot be accessed
+     */
+    public static CheckpointStore open(File outputDir, String task, String name, String fingerprint, boolean resume) throws IOException {
+        File directory = new File(new File(outputDir, CHECKPOINT_DIR), task + "_" + name);
+        Properties manifest = new Properties();
+        File manifestFile = new File(directory, MANIFEST);
+        if (resume && manifestFile.isFile()) {
+            try (InputStream in = Files.newInputStream(manifestFile.toPath())) {
+                manifest.load(in);
+            }
+            if (!fingerprint.equals(manifest.getProperty(KEY_FINGERPRINT))) {
+                logger.warn("Inputs of {} for {} changed since the last checkpoint. Starting from scratch.", task, name);
+                manifest.clear();
+            }
+        } else if (resume) {
+            logger.info("No checkpoint found for {} of {}. Starting from scratch.", task, name);
+        }
+
+        CheckpointStore store = new CheckpointStore(directory, fingerprint, manifest);
+        if (manifest.isEmpty()) {
+            store.clear();
+        }
+        return store;
+    }
+
+    /**
+     * Checks whether this store writes checkpoints.
+     * @return true if checkpoints are written
+     */
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    /**
+     * Gets the completed stages in completion order.
+     * @return the completed stages
+     */
+    public List<String> getCompletedStages() {
+        String stages = manifest.getProperty(KEY_STAGES, "");
+        return stages.isEmpty() ? List.of() : Arrays.asList(stages.split(LIST_SEPARATOR));
+    }
+
+    /**
+     * Checks whether a stage was completed.
+     * @param stage the stage
+     * @return true if the stage was completed in a previous run with the same inputs
+     */
+    public boolean isCompleted(String stage) {
+        return getCompletedStages().contains(stage);
+    }
+
+    /**
+     * Copies the files of a completed stage back into the output directory.
+     * @param stage the stage
+     * @param outputDir the output directory
+     * @return true if all files of the stage were restored
+     */
+    public boolean restore(String stage, File outputDir) {
+        if (!isCompleted(stage)) {
+            return false;
+        }
+        try {
+            for (String fileName : getFiles(stage)) {
+                Files.copy(new File(stageDirectory(stage), fileName).toPath(), new File(outputDir, fileName).toPath(),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+            return true;
+        } catch (IOException e) {
+            logger.warn("Could not restore checkpoint of stage {}", stage, e);
+            return false;
+        }
+    }
+
+    /**
+     * Gets the directory holding the files of a stage, e.g. to read them without restoring.
+     * @param stage the stage
+     * @return the stage directory
+     */
+    public File stageDirectory(String stage) {
+        return new File(directory, stage.replaceAll("[^A-Za-z0-9_-]", "_"));
+    }
+
+    /**
+     * Records a stage as completed, storing copies of the files it produced. Files that do not exist are skipped.
+     * @param stage the stage
+     * @param files the files produced by the stage
+     */
+    public void complete(String stage, List<File> files) {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            File stageDirectory = stageDirectory(stage);
+            Files.createDirectories(stageDirectory.toPath());
+            List<String> fileNames = new ArrayList<>();
+            for (File file : files) {
+                if (file.isFile()) {
+                    Files.copy(file.toPath(), new File(stageDirectory, file.getName()).toPath(), StandardCopyOption.REPLACE_EXISTING);
+                    fileNames.add(file.getName());
+                }
+            }
+
+            List<String> stages = new ArrayList<>(getCompletedStages());
+            if (!stages.contains(stage)) {
+                stages.add(stage);
+            }
+            manifest.setProperty(KEY_FINGERPRINT, fingerprint);
+            manifest.setProperty(KEY_STAGES, String.join(LIST_SEPARATOR, stages));
+            manifest.setProperty(stage + KEY_FILES_SUFFIX, String.join(LIST_SEPARATOR, fileNames));
+            writeManifest();
+            logger.info("Checkpoint written for stage {}", stage);
+        } catch (IOException e) {
+            logger.warn("Could not write checkpoint of stage {}", stage, e);
+        }
+    }
+
+    private List<String> getFiles(String stage) {
+        String files = manifest.getProperty(stage + KEY_FILES_SUFFIX, "");
+        return files.isEmpty() ? List.of() : Arrays.asList(files.split(LIST_SEPARATOR));
+    }
+
+    private void writeManifest() throws IOException {
+        File manifestFile = new File(directory, MANIFEST);
+        File tempFile = new File(directory, MANIFEST + ".tmp");
+        try (OutputStream out = Files.newOutputStream(tempFile.toPath())) {
+            manifest.store(out, "ArDoCo checkpoint");
+        }
+        Files.move(tempFile.toPath(), manifestFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void clear() throws IOException {
+        manifest.clear();
+        if (directory.exists()) {
+            File[] files = directory.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    FileTrees.delete(file.toPath());
+                }
+            }
+        }
+        Files.createDirectories(directory.toPath());
+    }
+}
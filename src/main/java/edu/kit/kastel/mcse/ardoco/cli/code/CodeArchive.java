@@ -0,0 +1,278 @@
+package edu.kit.kastel.mcse.ardoco.cli.code;
+
+/* Licensed under MIT 2023. */
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import edu.kit.kastel.mcse.ardoco.cli.io.FileTrees;
+import edu.kit.kastel.mcse.ardoco.cli.io.Fingerprints;
+import edu.kit.kastel.mcse.ardoco.cli.plugin.core.ItemProgress;
+
+/**
+ * A code tree given as source archive instead of a directory.
+ * Zip and jar archives are opened as zip {@link FileSystem}, so the code tree can be listed, indexed and pruned without extracting it,
+ * and only the files handed to the code model extraction are inflated (see
+ * {@link PrunedCodeTree#of(Path, java.util.Collection, int, ItemProgress)}). Tar archives, optionally gzip-compressed, have no random
+ * access and are streamed once into a temporary directory, which is deleted on {@link #close()}. Code that is not pruned is
+ * {@linkplain #extract(File, File, int, ItemProgress) extracted} once into a cache instead. Only regular files are extracted; entries
+ * with absolute paths or paths leaving the archive are skipped.
+ */
+public final class CodeArchive implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(CodeArchive.class);
+    private static final String[] ZIP_EXTENSIONS = { ".zip", ".jar" };
+    private static final String[] TAR_EXTENSIONS = { ".tar", ".tar.gz", ".tgz" };
+    /**
+     * Maximum size of the extracted tar entries that wait for being written.
+     */
+    private static final int MAX_PENDING_BYTES = 64 * 1024 * 1024;
+
+    private final File archive;
+    private final FileSystem fileSystem;
+    private final Path root;
+
+    private CodeArchive(File archive, FileSystem fileSystem, Path root) {
+        this.archive = archive;
+        this.fileSystem = fileSystem;
+        this.root = root;
+    }
+
+    /**
+     * Checks whether a file is a supported source archive, judged by its extension.
+     * @param file the file
+     * @return true for zip, jar, tar, tar.gz and tgz files
+     */
+    public static boolean isArchive(File file) {
+        return file.isFile() && (hasExtension(file, ZIP_EXTENSIONS) || hasExtension(file, TAR_EXTENSIONS));
+    }
+
+    /**
+     * Opens a source archive.
+     * @param archive the archive file
+     * @param parallelism the number of threads writing extracted tar entries, 1 to write them sequentially
+     * @return the opened archive
+     * @throws IOException if the archive cannot be read
+     * @throws IllegalArgumentException if the file is no supported archive
+     */
+    public static CodeArchive open(File archive, int parallelism) throws IOException {
+        if (hasExtension(archive, ZIP_EXTENSIONS)) {
+            FileSystem fileSystem = FileSystems.newFileSystem(archive.toPath());
+            logger.info("Reading code from archive {}", archive);
+            return new CodeArchive(archive, fileSystem, fileSystem.getPath("/"));
+        }
+        if (!hasExtension(archive, TAR_EXTENSIONS)) {
+            throw new IllegalArgumentException("Not a supported code archive: " + archive);
+        }
+        Path directory = Files.createTempDirectory("ardoco-archive-");
+        try {
+            extractTar(archive, directory, parallelism);
+        } catch (IOException | RuntimeException e) {
+            FileTrees.deleteQuietly(directory);
+            throw e;
+        }
+        return new CodeArchive(archive, null, directory);
+    }
+
+    /**
+     * Extracts a source archive into a cache directory, keyed by the fingerprint of the archive, so that later runs on the same
+     * archive reuse the extracted code tree instead of extracting it again. The tree is extracted into a temporary directory next to
+     * its final location and moved there once it is complete.
+     * @param archive the archive file
+     * @param cacheDir the cache directory
+     * @param parallelism the number of threads writing extracted files
+     * @param progress receives the number of extracted files of zip and jar archives
+     * @return the directory of the extracted code tree, which is kept after the run
+     * @throws IOException if the archive cannot be read or extracted
+     * @throws IllegalArgumentException if the file is no supported archive
+     */
+    public static File extract(File archive, File cacheDir, int parallelism, ItemProgress progress) throws IOException {
+        boolean zip = hasExtension(archive, ZIP_EXTENSIONS);
+        if (!zip && !hasExtension(archive, TAR_EXTENSIONS)) {
+            throw new IllegalArgumentException("Not a supported code archive: " + archive);
+        }
+        Path target = cacheDir.toPath().resolve(Fingerprints.of(List.of(archive)));
+        if (Files.isDirectory(target)) {
+            logger.info("Reusing code extracted from archive {}", archive);
+            return target.toFile();
+        }
+        Files.createDirectories(cacheDir.toPath());
+        Path directory = Files.createTempDirectory(cacheDir.toPath(), "extracting-");
+        try {
+            if (zip) {
+                try (CodeArchive opened = open(archive, parallelism)) {
+                    List<String> files = IdentifierIndex.listFiles(opened.getRoot());
+                    PrunedCodeTree.copy(opened.getRoot(), directory, files, parallelism, progress);
+                    logger.info("Extracted {} files from archive {}", files.size(), archive);
+                }
+            } else {
+                extractTar(archive, directory, parallelism);
+            }
+            Files.move(directory, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            FileTrees.deleteQuietly(directory);
+            if (Files.isDirectory(target)) {
+                // extracted by a concurrent run
+                return target.toFile();
+            }
+            throw e;
+        }
+        return target.toFile();
+    }
+
+    private static void extractTar(File archive, Path directory, int parallelism) throws IOException {
+        try (InputStream in = tarStream(archive)) {
+            int files = extractTar(new TarReader(in), directory, parallelism);
+            logger.info("Extracted {} files from archive {}", files, archive);
+        }
+    }
+
+    private static InputStream tarStream(File archive) throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(archive.toPath()));
+        try {
+            return archive.getName().toLowerCase(Locale.ROOT).endsWith(".tar") ? in : new GZIPInputStream(in, 64 * 1024);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Extracts the regular files of a tar stream. The stream is decompressed and read sequentially, while the entries are written on
+     * a fork-join pool, holding at most {@value #MAX_PENDING_BYTES} bytes of unwritten content.
+     */
+    private static int extractTar(TarReader reader, Path directory, int parallelism) throws IOException {
+        ForkJoinPool workers = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        Semaphore pendingBytes = new Semaphore(MAX_PENDING_BYTES);
+        AtomicReference<IOException> failure = new AtomicReference<>();
+        int files = 0;
+        try {
+            for (TarReader.Entry entry = reader.next(); entry != null; entry = reader.next()) {
+                if (!entry.regularFile()) {
+                    continue;
+                }
+                Path target = resolve(directory, entry.path());
+                if (target == null) {
+                    logger.warn("Skipping archive entry {} outside of the code tree", entry.path());
+                    continue;
+                }
+                byte[] content = reader.readContent();
+                long lastModified = entry.lastModified();
+                files++;
+                if (workers == null) {
+                    write(target, content, lastModified);
+                    continue;
+                }
+                int permits = Math.min(content.length, MAX_PENDING_BYTES);
+                pendingBytes.acquireUninterruptibly(permits);
+                workers.execute(() -> {
+                    try {
+                        write(target, content, lastModified);
+                    } catch (IOException e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        pendingBytes.release(permits);
+                    }
+                });
+                if (failure.get() != null) {
+                    break;
+                }
+            }
+        } finally {
+            if (workers != null) {
+                workers.shutdown();
+                awaitTermination(workers);
+            }
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        return files;
+    }
+
+    private static void awaitTermination(ForkJoinPool workers) throws IOException {
+        try {
+            while (!workers.awaitTermination(1, TimeUnit.MINUTES)) {
+                logger.debug("Waiting for extracted archive entries to be written");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while extracting archive", e);
+        }
+    }
+
+    private static void write(Path target, byte[] content, long lastModified) throws IOException {
+        Files.createDirectories(target.getParent());
+        Files.write(target, content);
+        // keeps the identifier index cache key stable across extractions
+        Files.setLastModifiedTime(target, FileTime.fromMillis(lastModified));
+    }
+
+    /**
+     * Resolves an archive path in a directory.
+     * @param directory the directory
+     * @param path the archive path, using {@code /} as separator
+     * @return the resolved path, or null if the path is absolute or leaves the directory
+     */
+    static Path resolve(Path directory, String path) {
+        if (path.isEmpty() || path.startsWith("/") || path.contains("\\")) {
+            return null;
+        }
+        Path target = directory.resolve(path).normalize();
+        return target.startsWith(directory) && !target.equals(directory) ? target : null;
+    }
+
+    private static boolean hasExtension(File file, String[] extensions) {
+        String name = file.getName().toLowerCase(Locale.ROOT);
+        for (String extension : extensions) {
+            if (name.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the root of the code tree. For zip and jar archives, the root is part of the zip file system and can only be read with
+     * {@link Files}; it stays valid until the archive is closed.
+     * @return the root directory
+     */
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * Checks whether the code tree is part of the default file system, i.e., can be passed on as {@link File}.
+     * @return true if the archive was extracted to a directory
+     */
+    public boolean isExtracted() {
+        return fileSystem == null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (fileSystem != null) {
+            fileSystem.close();
+        } else {
+            FileTrees.delete(root);
+        }
+        logger.debug("Closed code archive {}", archive);
+    }
+}
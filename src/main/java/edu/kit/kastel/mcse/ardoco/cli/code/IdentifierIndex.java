@@ -0,0 +1,309 @@
+package edu.kit.kastel.mcse.ardoco.cli.code;
+
+/* Licensed under MIT 2023. */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import edu.kit.kastel.mcse.ardoco.cli.io.Fingerprints;
+import edu.kit.kastel.mcse.ardoco.cli.io.MappedInput;
+import edu.kit.kastel.mcse.ardoco.cli.plugin.core.ItemProgress;
+import edu.kit.kastel.mcse.ardoco.cli.result.IdentifierPool;
+
+/**
+ * Inverted index from identifier tokens to the files of a code tree.
+ * A file is indexed with the tokens of its relative path and of the types it declares. The index is persisted in a binary file and
+ * cached, keyed by the paths, sizes and modification times of the code files.
+ */
+public final class IdentifierIndex {
+    private static final Logger logger = LoggerFactory.getLogger(IdentifierIndex.class);
+    private static final int MAGIC = 0x41444949;
+    private static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long MAX_SCANNED_FILE_SIZE = 4L * 1024 * 1024;
+    private static final Pattern TYPE_DECLARATION = Pattern.compile("\\b(?:class|interface|enum|record|struct)\\s+([A-Za-z_]\\w*)");
+    private static final Set<String> SOURCE_EXTENSIONS = Set.of("java", "kt", "scala", "groovy", "cs", "c", "cc", "cpp", "h", "hpp", "py",
+            "js", "ts", "go", "swift");
+
+    private final IdentifierPool files;
+    private final IdentifierPool tokens;
+    private int[][] postings;
+    private int[] postingSizes;
+
+    private IdentifierIndex(IdentifierPool files, IdentifierPool tokens, int[][] postings, int[] postingSizes) {
+        this.files = files;
+        this.tokens = tokens;
+        this.postings = postings;
+        this.postingSizes = postingSizes;
+    }
+
+    /**
+     * Gets the index of a code tree from the cache, building and caching it if necessary.
+     * @param codeDir the code directory
+     * @param cacheDir the cache directory
+     * @return the index
+     * @throws IOException if the code tree cannot be read
+     */
+    public static IdentifierIndex open(File codeDir, File cacheDir) throws IOException {
+        return open(codeDir.toPath(), cacheDir, ItemProgress.NONE);
+    }
+
+    /**
+     * Gets the index of a code tree from the cache, building and caching it if necessary. The tree may also be the root of a
+     * {@link CodeArchive}, which is indexed without extracting it.
+     * @param root the root of the code tree
+     * @param cacheDir the cache directory
+     * @param progress receives the number of indexed files if the index is built
+     * @return the index
+     * @throws IOException if the code tree cannot be read
+     */
+    public static IdentifierIndex open(Path root, File cacheDir, ItemProgress progress) throws IOException {
+        List<String> paths = listFiles(root);
+        StringBuilder listing = new StringBuilder();
+        for (String path : paths) {
+            Path file = root.resolve(path);
+            listing.append(path).append('\t').append(Files.size(file)).append('\t').append(Files.getLastModifiedTime(file).toMillis())
+                    .append('\n');
+        }
+        File cached = new File(cacheDir, "index_" + Fingerprints.of(listing.toString()) + ".bin");
+        if (cached.isFile()) {
+            try {
+                IdentifierIndex index = load(cached);
+                logger.info("Using cached identifier index {}", cached);
+                return index;
+            } catch (IOException e) {
+                logger.warn("Could not read cached identifier index {}. Rebuilding it.", cached, e);
+            }
+        }
+
+        IdentifierIndex index = build(root, paths, progress);
+        try {
+            Files.createDirectories(cacheDir.toPath());
+            index.save(cached);
+        } catch (IOException e) {
+            logger.warn("Could not cache identifier index in {}", cacheDir, e);
+        }
+        return index;
+    }
+
+    /**
+     * Builds the index of a code tree.
+     * @param codeDir the code directory
+     * @return the index
+     * @throws IOException if the code tree cannot be read
+     */
+    public static IdentifierIndex build(File codeDir) throws IOException {
+        return build(codeDir.toPath());
+    }
+
+    /**
+     * Builds the index of a code tree.
+     * @param root the root of the code tree, e.g. of a {@link CodeArchive}
+     * @return the index
+     * @throws IOException if the code tree cannot be read
+     */
+    public static IdentifierIndex build(Path root) throws IOException {
+        return build(root, listFiles(root), ItemProgress.NONE);
+    }
+
+    private static IdentifierIndex build(Path root, List<String> paths, ItemProgress progress) throws IOException {
+        IdentifierIndex index = new IdentifierIndex(new IdentifierPool(), new IdentifierPool(), new int[1024][], new int[1024]);
+        for (String path : paths) {
+            int file = index.files.intern(path);
+            int dot = path.lastIndexOf('.');
+            String withoutExtension = dot > path.lastIndexOf('/') ? path.substring(0, dot) : path;
+            for (String token : IdentifierTokens.split(withoutExtension)) {
+                index.addPosting(token, file);
+            }
+            String extension = dot > path.lastIndexOf('/') ? path.substring(dot + 1).toLowerCase(Locale.ROOT) : "";
+            Path source = root.resolve(path);
+            if (SOURCE_EXTENSIONS.contains(extension) && Files.size(source) <= MAX_SCANNED_FILE_SIZE) {
+                index.addDeclaredTypes(source, file);
+            }
+            progress.processed(file + 1L, paths.size());
+        }
+        logger.info("Indexed {} code files with {} distinct tokens", index.fileCount(), index.tokenCount());
+        return index;
+    }
+
+    private void addDeclaredTypes(Path source, int file) {
+        try {
+            Matcher matcher = TYPE_DECLARATION.matcher(MappedInput.readText(source));
+            while (matcher.find()) {
+                for (String token : IdentifierTokens.split(matcher.group(1))) {
+                    addPosting(token, file);
+                }
+            }
+        } catch (IOException e) {
+            logger.debug("Could not scan {} for type declarations", source, e);
+        }
+    }
+
+    private void addPosting(String token, int file) {
+        int handle = tokens.intern(token);
+        if (handle == postings.length) {
+            postings = Arrays.copyOf(postings, handle * 2);
+            postingSizes = Arrays.copyOf(postingSizes, handle * 2);
+        }
+        int[] posting = postings[handle];
+        int size = postingSizes[handle];
+        // files are added in order, so a duplicate can only be the last entry
+        if (posting != null && size > 0 && posting[size - 1] == file) {
+            return;
+        }
+        if (posting == null) {
+            posting = new int[4];
+        } else if (size == posting.length) {
+            posting = Arrays.copyOf(posting, size * 2);
+        }
+        posting[size] = file;
+        postings[handle] = posting;
+        postingSizes[handle] = size + 1;
+    }
+
+    /**
+     * Gets the files containing a token.
+     * @param token the lower case token
+     * @return the file handles in ascending order, empty if the token is unknown
+     */
+    public int[] filesOf(String token) {
+        int handle = tokens.handleOf(token);
+        if (handle < 0) {
+            return new int[0];
+        }
+        return Arrays.copyOf(postings[handle], postingSizes[handle]);
+    }
+
+    /**
+     * Gets the number of indexed files.
+     * @return the number of files
+     */
+    public int fileCount() {
+        return files.size();
+    }
+
+    /**
+     * Resolves a file handle to the path of the file relative to the code directory, using {@code /} as separator.
+     * @param file the file handle
+     * @return the relative path
+     */
+    public String file(int file) {
+        return files.resolve(file);
+    }
+
+    /**
+     * Gets the number of distinct tokens.
+     * @return the number of tokens
+     */
+    public int tokenCount() {
+        return tokens.size();
+    }
+
+    /**
+     * Resolves a token handle.
+     * @param token the token handle, between 0 and {@link #tokenCount()}
+     * @return the token
+     */
+    public String token(int token) {
+        return tokens.resolve(token);
+    }
+
+    /**
+     * Writes the index to a file. The file is replaced atomically, so concurrent readers see either the old or the new index.
+     * @param target the target file
+     * @throws IOException if the file cannot be written
+     */
+    public void save(File target) throws IOException {
+        File tempFile = File.createTempFile("index_", ".tmp", target.getAbsoluteFile().getParentFile());
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile.toPath()), BUFFER_SIZE))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(files.size());
+            for (int i = 0; i < files.size(); i++) {
+                out.writeUTF(files.resolve(i));
+            }
+            out.writeInt(tokens.size());
+            for (int i = 0; i < tokens.size(); i++) {
+                out.writeUTF(tokens.resolve(i));
+                out.writeInt(postingSizes[i]);
+                for (int j = 0; j < postingSizes[i]; j++) {
+                    out.writeInt(postings[i][j]);
+                }
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(tempFile.toPath());
+            throw e;
+        }
+        Files.move(tempFile.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads an index written by {@link #save(File)}.
+     * @param source the index file
+     * @return the index
+     * @throws IOException if the file cannot be read or is no index
+     */
+    public static IdentifierIndex load(File source) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(source.toPath()), BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not an identifier index: " + source);
+            }
+            IdentifierPool files = new IdentifierPool();
+            int fileCount = in.readInt();
+            for (int i = 0; i < fileCount; i++) {
+                files.intern(in.readUTF());
+            }
+            IdentifierPool tokens = new IdentifierPool();
+            int tokenCount = in.readInt();
+            int[][] postings = new int[Math.max(1, tokenCount)][];
+            int[] postingSizes = new int[Math.max(1, tokenCount)];
+            for (int i = 0; i < tokenCount; i++) {
+                tokens.intern(in.readUTF());
+                int size = in.readInt();
+                postings[i] = new int[size];
+                for (int j = 0; j < size; j++) {
+                    postings[i][j] = in.readInt();
+                }
+                postingSizes[i] = size;
+            }
+            return new IdentifierIndex(files, tokens, postings, postingSizes);
+        }
+    }
+
+    /**
+     * Lists the regular files of a code tree.
+     * @param root the root of the code tree
+     * @return the sorted paths relative to the root, using {@code /} as separator
+     * @throws IOException if the code tree cannot be read
+     */
+    static List<String> listFiles(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            List<String> files = new ArrayList<>(paths.filter(Files::isRegularFile)
+                    .map(file -> root.relativize(file).toString().replace(File.separatorChar, '/'))
+                    .toList());
+            files.sort(null);
+            return files;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package edu.kit.kastel.mcse.ardoco.cli.code;
+
+/* Licensed under MIT 2023. */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits identifiers and names into lower case tokens at camel case, snake case, digit and punctuation borders,
+ * e.g. {@code MediaAccessHTTPServer} into {@code media, access, http, server}.
+ */
+public final class IdentifierTokens {
+    private static final int MIN_TOKEN_LENGTH = 2;
+    private static final Set<String> STOP_TOKENS = Set.of("java", "src", "main", "org", "com", "edu", "impl", "the", "of", "and");
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private IdentifierTokens() {
+        throw new IllegalAccessError();
+    }
+
+    /**
+     * Splits an identifier into tokens.
+     * @param identifier the identifier, a name or a path
+     * @return the tokens in order of occurrence, possibly with duplicates
+     */
+    public static List<String> split(CharSequence identifier) {
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i < identifier.length(); i++) {
+            char c = identifier.charAt(i);
+            if (!Character.isLetterOrDigit(c)) {
+                add(tokens, identifier, start, i);
+                start = -1;
+                continue;
+            }
+            if (start >= 0 && isBorder(identifier, i)) {
+                add(tokens, identifier, start, i);
+                start = i;
+            } else if (start < 0) {
+                start = i;
+            }
+        }
+        add(tokens, identifier, start, identifier.length());
+        return tokens;
+    }
+
+    private static boolean isBorder(CharSequence identifier, int i) {
+        char previous = identifier.charAt(i - 1);
+        char current = identifier.charAt(i);
+        if (Character.isDigit(previous) != Character.isDigit(current)) {
+            return true;
+        }
+        if (!Character.isUpperCase(current)) {
+            return false;
+        }
+        // fooBar, and the last capital of an acronym as in HTTPServer
+        return Character.isLowerCase(previous)
+                || Character.isUpperCase(previous) && i + 1 < identifier.length() && Character.isLowerCase(identifier.charAt(i + 1));
+    }
+
+    private static void add(List<String> tokens, CharSequence identifier, int start, int end) {
+        if (start < 0 || end - start < MIN_TOKEN_LENGTH || Character.isDigit(identifier.charAt(start))) {
+            return;
+        }
+        String token = identifier.subSequence(start, end).toString().toLowerCase(Locale.ROOT);
+        if (!STOP_TOKENS.contains(token)) {
+            tokens.add(token);
+        }
+    }
+}
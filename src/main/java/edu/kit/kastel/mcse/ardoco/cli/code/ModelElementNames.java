@@ -0,0 +1,88 @@
+package edu.kit.kastel.mcse.ardoco.cli.code;
+
+/* Licensed under MIT 2023. */
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import edu.kit.kastel.mcse.ardoco.cli.io.MappedInput;
+
+/**
+ * Reads the names of the elements of an architecture model and their synonyms, the terms used to select candidate code files.
+ */
+public final class ModelElementNames {
+    private static final Pattern ENTITY_NAME = Pattern.compile("\\bentityName=\"([^\"]*)\"");
+    private static final Map<String, String> XML_ENTITIES = Map.of("&lt;", "<", "&gt;", ">", "&quot;", "\"", "&apos;", "'");
+    private static final char SYNONYM_ASSIGNMENT = '=';
+    private static final String SYNONYM_SEPARATOR = ",";
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private ModelElementNames() {
+        throw new IllegalAccessError();
+    }
+
+    /**
+     * Reads the element names of a PCM model.
+     * @param model the model file (e.g. {@code .repository})
+     * @return the distinct names in order of occurrence
+     * @throws IOException if the model cannot be read
+     */
+    public static List<String> read(File model) throws IOException {
+        Set<String> names = new LinkedHashSet<>();
+        Matcher matcher = ENTITY_NAME.matcher(MappedInput.readText(model));
+        while (matcher.find()) {
+            String name = decode(matcher.group(1)).trim();
+            if (!name.isEmpty()) {
+                names.add(name);
+            }
+        }
+        return new ArrayList<>(names);
+    }
+
+    /**
+     * Reads a synonym file with lines of the form {@code name=synonym1,synonym2}. Names are matched case-insensitively.
+     * @param synonyms the synonym file
+     * @param names the names to add the synonyms of
+     * @return the names followed by the synonyms of the contained names
+     * @throws IOException if the file cannot be read
+     */
+    public static List<String> withSynonyms(File synonyms, List<String> names) throws IOException {
+        Set<String> lowerCaseNames = new LinkedHashSet<>();
+        for (String name : names) {
+            lowerCaseNames.add(name.toLowerCase(Locale.ROOT));
+        }
+        Set<String> result = new LinkedHashSet<>(names);
+        MappedInput.forEachLine(synonyms, line -> {
+            int assignment = line.indexOf(SYNONYM_ASSIGNMENT);
+            if (line.isBlank() || line.startsWith("#") || assignment < 0) {
+                return;
+            }
+            if (lowerCaseNames.contains(line.substring(0, assignment).trim().toLowerCase(Locale.ROOT))) {
+                for (String synonym : line.substring(assignment + 1).split(SYNONYM_SEPARATOR)) {
+                    if (!synonym.isBlank()) {
+                        result.add(synonym.trim());
+                    }
+                }
+            }
+        });
+        return new ArrayList<>(result);
+    }
+
+    private static String decode(String value) {
+        String decoded = value;
+        for (Map.Entry<String, String> entity : XML_ENTITIES.entrySet()) {
+            decoded = decoded.replace(entity.getKey(), entity.getValue());
+        }
+        return decoded.replace("&amp;", "&");
+    }
+}
@@ -0,0 +1,339 @@
+package edu.kit.kastel.mcse.ardoco.cli.code;
+
+/* Licensed under MIT 2023. */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import edu.kit.kastel.mcse.ardoco.cli.io.FileTrees;
+import edu.kit.kastel.mcse.ardoco.cli.plugin.core.ItemProgress;
+import edu.kit.kastel.mcse.ardoco.cli.profiling.CleanupEvent;
+
+/**
+ * A code tree reduced to the files that share identifier tokens with model element names.
+ * Only these files are handed to the code model extraction, so the remaining files are never parsed. The pruned tree links to the
+ * original files instead of copying them where the file system allows it, and is deleted on {@link #close()}. Files of a
+ * {@link CodeArchive} are copied out of the archive in parallel.
+ */
+public class PrunedCodeTree implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(PrunedCodeTree.class);
+    /**
+     * Number of archive entries a parallel task copies without splitting.
+     */
+    private static final int COPY_GRAIN = 32;
+    /**
+     * Ways of placing a file into the pruned tree, in order of preference.
+     */
+    static final List<Linker> LINKERS = List.of(Files::createLink, Files::createSymbolicLink,
+            (target, source) -> Files.copy(source, target));
+
+    private final File directory;
+    private final boolean temporary;
+    private CodeArchive archive;
+
+    private PrunedCodeTree(File directory, boolean temporary) {
+        this.directory = directory;
+        this.temporary = temporary;
+    }
+
+    /**
+     * Wraps a code directory without pruning it.
+     * @param codeDir the code directory
+     * @return the unpruned tree, which is not deleted on close
+     */
+    public static PrunedCodeTree unpruned(File codeDir) {
+        return new PrunedCodeTree(codeDir, false);
+    }
+
+    /**
+     * Wraps a code tree without pruning it. A tree outside the default file system, i.e., in a zip archive, is copied completely to
+     * a temporary directory.
+     * @param root the root of the code tree
+     * @param parallelism the number of threads copying archive entries
+     * @param progress receives the number of copied files
+     * @return the unpruned tree
+     * @throws IOException if the tree cannot be copied
+     */
+    public static PrunedCodeTree unpruned(Path root, int parallelism, ItemProgress progress) throws IOException {
+        if (isDefaultFileSystem(root)) {
+            return unpruned(root.toFile());
+        }
+        return of(root, IdentifierIndex.listFiles(root), parallelism, progress);
+    }
+
+    /**
+     * Creates a pruned copy of a code tree in a temporary directory.
+     * If no file matches the names, the original tree is used.
+     * @param codeDir the code directory
+     * @param index the identifier index of the code directory
+     * @param names the model element names and their synonyms
+     * @return the pruned tree
+     * @throws IOException if the pruned tree cannot be created
+     */
+    public static PrunedCodeTree create(File codeDir, IdentifierIndex index, Collection<String> names) throws IOException {
+        return create(codeDir.toPath(), index, names, 1, ItemProgress.NONE);
+    }
+
+    /**
+     * Creates a pruned copy of a code tree, which may also be the root of a {@link CodeArchive}, in a temporary directory.
+     * If no file matches the names, the complete tree is used.
+     * @param root the root of the code tree
+     * @param index the identifier index of the code tree
+     * @param names the model element names and their synonyms
+     * @param parallelism the number of threads copying archive entries
+     * @param progress receives the number of linked or copied files
+     * @return the pruned tree
+     * @throws IOException if the pruned tree cannot be created
+     */
+    public static PrunedCodeTree create(Path root, IdentifierIndex index, Collection<String> names, int parallelism, ItemProgress progress)
+            throws IOException {
+        BitSet selected = selectFiles(index, names);
+        if (selected.isEmpty()) {
+            logger.warn("No code file shares a name token with the model. Using the complete code tree.");
+            return unpruned(root, parallelism, progress);
+        }
+
+        List<String> paths = new ArrayList<>(selected.cardinality());
+        for (int file = selected.nextSetBit(0); file >= 0; file = selected.nextSetBit(file + 1)) {
+            paths.add(index.file(file));
+        }
+        PrunedCodeTree tree = of(root, paths, parallelism, progress);
+        logger.info("Pruned code tree to {} of {} files", selected.cardinality(), index.fileCount());
+        return tree;
+    }
+
+    /**
+     * Creates a copy of a code tree in a temporary directory that only contains the given files.
+     * @param codeDir the code directory
+     * @param paths the paths of the files relative to the code directory, using {@code /} as separator
+     * @return the pruned tree
+     * @throws IOException if the pruned tree cannot be created
+     */
+    public static PrunedCodeTree of(File codeDir, Collection<String> paths) throws IOException {
+        return of(codeDir.toPath(), paths, 1, ItemProgress.NONE);
+    }
+
+    /**
+     * Creates a copy of a code tree in a temporary directory that only contains the given files. Files in the default file system
+     * are linked, files of a zip archive are copied on a fork-join pool with the given parallelism.
+     * @param root the root of the code tree
+     * @param paths the paths of the files relative to the root, using {@code /} as separator
+     * @param parallelism the number of threads copying archive entries
+     * @param progress receives the number of linked or copied files
+     * @return the pruned tree
+     * @throws IOException if the pruned tree cannot be created
+     */
+    public static PrunedCodeTree of(Path root, Collection<String> paths, int parallelism, ItemProgress progress) throws IOException {
+        Path directory = Files.createTempDirectory("ardoco-code-");
+        PrunedCodeTree tree = new PrunedCodeTree(directory.toFile(), true);
+        try {
+            if (isDefaultFileSystem(root)) {
+                long linked = 0;
+                for (String path : paths) {
+                    link(root.resolve(path).toAbsolutePath(), directory.resolve(path), LINKERS);
+                    progress.processed(++linked, paths.size());
+                }
+            } else {
+                copy(root, directory, paths, parallelism, progress);
+            }
+        } catch (IOException e) {
+            tree.close();
+            throw e;
+        }
+        return tree;
+    }
+
+    /**
+     * Copies files of a code tree to a directory on a fork-join pool with the given parallelism.
+     * @param root the root of the code tree
+     * @param directory the target directory
+     * @param paths the paths of the files relative to the root, using {@code /} as separator
+     * @param parallelism the number of threads copying files
+     * @param progress receives the number of copied files
+     * @throws IOException if a file cannot be copied
+     */
+    static void copy(Path root, Path directory, Collection<String> paths, int parallelism, ItemProgress progress) throws IOException {
+        CopyTask copies = new CopyTask(root, directory, List.copyOf(paths), 0, paths.size(), new Counter(progress, paths.size()));
+        try {
+            if (parallelism > 1 && paths.size() > COPY_GRAIN) {
+                ForkJoinPool workers = new ForkJoinPool(parallelism);
+                try {
+                    workers.invoke(copies);
+                } finally {
+                    workers.shutdown();
+                }
+            } else {
+                copies.compute();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Copies the archive entries of a range of paths, inflating them in parallel.
+     */
+    private static final class CopyTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Path root;
+        private final transient Path directory;
+        private final transient List<String> paths;
+        private final int from;
+        private final int to;
+        private final transient Counter copied;
+
+        private CopyTask(Path root, Path directory, List<String> paths, int from, int to, Counter copied) {
+            this.root = root;
+            this.directory = directory;
+            this.paths = paths;
+            this.from = from;
+            this.to = to;
+            this.copied = copied;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > COPY_GRAIN && inForkJoinPool()) {
+                int split = (from + to) >>> 1;
+                invokeAll(new CopyTask(root, directory, paths, from, split, copied),
+                        new CopyTask(root, directory, paths, split, to, copied));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                String path = paths.get(i);
+                Path target = CodeArchive.resolve(directory, path);
+                try {
+                    if (target == null) {
+                        throw new IOException("Archive entry outside of the code tree: " + path);
+                    }
+                    Files.createDirectories(target.getParent());
+                    Files.copy(root.resolve(path), target);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                copied.increment();
+            }
+        }
+    }
+
+    /**
+     * Counts the files copied by parallel tasks and reports the count.
+     */
+    private static final class Counter {
+        private final ItemProgress progress;
+        private final long total;
+        private final AtomicLong count = new AtomicLong();
+
+        private Counter(ItemProgress progress, long total) {
+            this.progress = progress;
+            this.total = total;
+        }
+
+        private void increment() {
+            progress.processed(count.incrementAndGet(), total);
+        }
+    }
+
+    /**
+     * Selects the files that contain at least one token of the names.
+     * @param index the identifier index
+     * @param names the names
+     * @return the handles of the selected files
+     */
+    public static BitSet selectFiles(IdentifierIndex index, Collection<String> names) {
+        BitSet selected = new BitSet(index.fileCount());
+        for (String name : names) {
+            for (String token : IdentifierTokens.split(name)) {
+                for (int file : index.filesOf(token)) {
+                    selected.set(file);
+                }
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Places a file of the code tree into the pruned tree.
+     */
+    @FunctionalInterface
+    interface Linker {
+        void link(Path target, Path source) throws IOException;
+    }
+
+    /**
+     * Places a file into the pruned tree with the first linker that succeeds, e.g., falling back to a symbolic link if the file system
+     * does not support hard links, and to a copy if it supports neither.
+     * @param source the file of the code tree
+     * @param target the path in the pruned tree
+     * @param linkers the linkers in order of preference
+     * @throws IOException if no linker succeeds
+     */
+    static void link(Path source, Path target, List<Linker> linkers) throws IOException {
+        Files.createDirectories(target.getParent());
+        IOException failure = new IOException("Could not link " + source + " to " + target);
+        for (Linker linker : linkers) {
+            try {
+                linker.link(target, source);
+                return;
+            } catch (IOException | UnsupportedOperationException e) {
+                failure.addSuppressed(e);
+            }
+        }
+        throw failure;
+    }
+
+    /**
+     * Gets the directory to pass to the code model extraction.
+     * @return the directory
+     */
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Closes the archive the tree was created from together with the tree.
+     * @param source the archive
+     * @return this tree
+     */
+    public PrunedCodeTree closing(CodeArchive source) {
+        this.archive = source;
+        return this;
+    }
+
+    @Override
+    public void close() {
+        if (temporary) {
+            CleanupEvent event = new CleanupEvent();
+            event.directory = directory.getPath();
+            event.begin();
+            FileTrees.deleteQuietly(directory);
+            event.commit();
+        }
+        if (archive != null) {
+            try {
+                archive.close();
+            } catch (IOException e) {
+                logger.warn("Could not close code archive", e);
+            }
+        }
+    }
+
+    private static boolean isDefaultFileSystem(Path path) {
+        return path.getFileSystem() == FileSystems.getDefault();
+    }
+}
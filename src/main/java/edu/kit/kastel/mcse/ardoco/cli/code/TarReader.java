@@ -0,0 +1,211 @@
+package edu.kit.kastel.mcse.ardoco.cli.code;
+
+/* Licensed under MIT 2023. */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streaming reader for tar archives in the ustar, GNU and pax formats.
+ * Only the information needed to materialize source files is decoded: the path, the size, the modification time and whether the
+ * entry is a regular file. Long names are taken from GNU long name entries and pax {@code path} records.
+ */
+final class TarReader {
+    private static final int BLOCK_SIZE = 512;
+    private static final int MAX_NAME_SIZE = 64 * 1024;
+    private static final byte TYPE_REGULAR = '0';
+    private static final byte TYPE_REGULAR_OLD = 0;
+    private static final byte TYPE_CONTIGUOUS = '7';
+    private static final byte TYPE_GNU_LONG_NAME = 'L';
+    private static final byte TYPE_PAX_HEADER = 'x';
+
+    private final InputStream in;
+    private final byte[] header = new byte[BLOCK_SIZE];
+    private long remaining;
+    private long padding;
+
+    /**
+     * An entry of the archive.
+     * @param path the path of the entry, using {@code /} as separator
+     * @param size the size of the entry content
+     * @param lastModified the modification time in milliseconds since the epoch
+     * @param regularFile whether the entry is a regular file
+     */
+    record Entry(String path, long size, long lastModified, boolean regularFile) {
+    }
+
+    /**
+     * Creates a reader.
+     * @param in the uncompressed archive stream
+     */
+    TarReader(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Skips the rest of the current entry and reads the header of the next one.
+     * @return the next entry, or null at the end of the archive
+     * @throws IOException if the archive cannot be read or is malformed
+     */
+    Entry next() throws IOException {
+        String longName = null;
+        while (true) {
+            skip(remaining + padding);
+            remaining = 0;
+            padding = 0;
+            if (!readBlock()) {
+                return null;
+            }
+            long size = number(124, 12);
+            remaining = size;
+            padding = (BLOCK_SIZE - size % BLOCK_SIZE) % BLOCK_SIZE;
+            byte type = header[156];
+            if (type == TYPE_GNU_LONG_NAME) {
+                longName = string(readContent(size), 0, (int) size);
+            } else if (type == TYPE_PAX_HEADER) {
+                String paxPath = paxPath(readContent(size));
+                longName = paxPath != null ? paxPath : longName;
+            } else {
+                String path = longName != null ? longName : name();
+                boolean regularFile = type == TYPE_REGULAR || type == TYPE_REGULAR_OLD || type == TYPE_CONTIGUOUS;
+                return new Entry(path, size, number(136, 12) * 1000, regularFile);
+            }
+        }
+    }
+
+    /**
+     * Reads the content of the current entry.
+     * @return the content
+     * @throws IOException if the archive cannot be read or the entry is too large
+     */
+    byte[] readContent() throws IOException {
+        if (remaining > Integer.MAX_VALUE - 8) {
+            throw new IOException("Tar entry is too large: " + remaining + " bytes");
+        }
+        byte[] content = in.readNBytes((int) remaining);
+        if (content.length < remaining) {
+            throw new IOException("Unexpected end of tar archive");
+        }
+        remaining = 0;
+        return content;
+    }
+
+    private byte[] readContent(long size) throws IOException {
+        if (size > MAX_NAME_SIZE) {
+            throw new IOException("Tar header entry is too large: " + size + " bytes");
+        }
+        return readContent();
+    }
+
+    /**
+     * Reads the next header block.
+     * @return false at the end of the archive, marked by a zero block or the end of the stream
+     */
+    private boolean readBlock() throws IOException {
+        int read = in.readNBytes(header, 0, BLOCK_SIZE);
+        if (read == 0) {
+            return false;
+        }
+        if (read < BLOCK_SIZE) {
+            throw new IOException("Unexpected end of tar archive");
+        }
+        for (byte b : header) {
+            if (b != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void skip(long bytes) throws IOException {
+        long left = bytes;
+        while (left > 0) {
+            long skipped = in.skip(left);
+            if (skipped <= 0) {
+                if (in.read() < 0) {
+                    throw new IOException("Unexpected end of tar archive");
+                }
+                skipped = 1;
+            }
+            left -= skipped;
+        }
+    }
+
+    private String name() {
+        String name = string(header, 0, 100);
+        // ustar splits long paths into a prefix and a name
+        if ("ustar".equals(string(header, 257, 5))) {
+            String prefix = string(header, 345, 155);
+            if (!prefix.isEmpty()) {
+                return prefix + "/" + name;
+            }
+        }
+        return name;
+    }
+
+    /**
+     * Parses a numeric header field, either octal text or, if the high bit of the first byte is set, big-endian base-256.
+     */
+    private long number(int offset, int length) throws IOException {
+        if ((header[offset] & 0x80) != 0) {
+            long value = header[offset] & 0x7f;
+            for (int i = 1; i < length; i++) {
+                value = value << 8 | header[offset + i] & 0xff;
+            }
+            return value;
+        }
+        long value = 0;
+        for (int i = offset; i < offset + length; i++) {
+            byte b = header[i];
+            if (b == 0 || b == ' ') {
+                if (value != 0) {
+                    break;
+                }
+                continue;
+            }
+            if (b < '0' || b > '7') {
+                throw new IOException("Malformed tar header");
+            }
+            value = value * 8 + b - '0';
+        }
+        return value;
+    }
+
+    /**
+     * Gets the {@code path} record of a pax extended header, whose records have the form {@code <length> <key>=<value>\n}.
+     */
+    private static String paxPath(byte[] records) throws IOException {
+        String path = null;
+        int position = 0;
+        while (position < records.length) {
+            int space = position;
+            while (space < records.length && records[space] != ' ') {
+                space++;
+            }
+            int length;
+            try {
+                length = Integer.parseInt(new String(records, position, space - position, StandardCharsets.US_ASCII));
+            } catch (NumberFormatException e) {
+                throw new IOException("Malformed pax header", e);
+            }
+            if (length <= space - position || position + length > records.length) {
+                throw new IOException("Malformed pax header");
+            }
+            String record = new String(records, space + 1, position + length - space - 2, StandardCharsets.UTF_8);
+            if (record.startsWith("path=")) {
+                path = record.substring("path=".length());
+            }
+            position += length;
+        }
+        return path;
+    }
+
+    private static String string(byte[] bytes, int offset, int length) {
+        int end = offset;
+        while (end < offset + length && bytes[end] != 0) {
+            end++;
+        }
+        return new String(bytes, offset, end - offset, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,48 @@
+package edu.kit.kastel.mcse.ardoco.cli.eval;
+
+/* Licensed under MIT 2023. */
+
+/**
+ * Result of comparing recovered trace links with a gold standard.
+ * @param truePositives links found in both sets
+ * @param falsePositives recovered links missing in the gold standard
+ * @param falseNegatives gold standard links that were not recovered
+ */
+public record EvaluationResult(long truePositives, long falsePositives, long falseNegatives) {
+
+    /**
+     * Gets the precision.
+     * @return the precision, or 0 if no links were recovered
+     */
+    public double precision() {
+        return ratio(truePositives, truePositives + falsePositives);
+    }
+
+    /**
+     * Gets the recall.
+     * @return the recall, or 0 if the gold standard is empty
+     */
+    public double recall() {
+        return ratio(truePositives, truePositives + falseNegatives);
+    }
+
+    /**
+     * Gets the F1 score, the harmonic mean of precision and recall.
+     * @return the F1 score
+     */
+    public double f1() {
+        double precision = precision();
+        double recall = recall();
+        return precision + recall == 0 ? 0 : 2 * precision * recall / (precision + recall);
+    }
+
+    private static double ratio(long numerator, long denominator) {
+        return denominator == 0 ? 0 : (double) numerator / denominator;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("precision=%.4f, recall=%.4f, F1=%.4f (TP=%d, FP=%d, FN=%d)", precision(), recall(), f1(), truePositives, falsePositives,
+                falseNegatives);
+    }
+}
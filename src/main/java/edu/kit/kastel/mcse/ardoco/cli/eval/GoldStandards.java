@@ -0,0 +1,179 @@
+package edu.kit.kastel.mcse.ardoco.cli.eval;
+
+/* Licensed under MIT 2023. */
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import edu.kit.kastel.mcse.ardoco.cli.ArDoCoCli;
+import edu.kit.kastel.mcse.ardoco.cli.io.Fingerprints;
+import edu.kit.kastel.mcse.ardoco.cli.io.MappedInput;
+
+/**
+ * Prepares gold standards for the evaluation: selects the link columns and enrolls directory entries to the code files they contain.
+ * Prepared gold standards are cached, keyed by the fingerprints of the gold standard and of the code model (the code file tree).
+ */
+public final class GoldStandards {
+    private static final Logger logger = LoggerFactory.getLogger(GoldStandards.class);
+    private static final String SEPARATOR = ",";
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private GoldStandards() {
+        throw new IllegalAccessError();
+    }
+
+    /**
+     * Prepares a gold standard as two-column link file, reusing a cached one if available.
+     * @param goldStandard the gold standard CSV file with header
+     * @param sourceColumn the name of the source column, or null for the first column
+     * @param targetColumn the name of the target column, or null for the second column
+     * @param code the code directory used to enroll directory entries, or null to use the gold standard as is
+     * @param cacheDir the cache directory
+     * @return the prepared gold standard
+     * @throws IOException if the gold standard cannot be read or lacks the columns
+     */
+    public static File prepare(File goldStandard, String sourceColumn, String targetColumn, File code, File cacheDir) throws IOException {
+        List<String> codeFiles = code != null && code.isDirectory() ? listCodeFiles(code) : null;
+        String codeFingerprint = codeFiles == null ? "none" : Fingerprints.of(String.join("\n", codeFiles));
+        String key = Fingerprints.of(Fingerprints.of(List.of(goldStandard)) + "\n" + sourceColumn + "\n" + targetColumn + "\n"
+                + codeFingerprint);
+
+        File cached = new File(cacheDir, "gold_" + key + ".csv");
+        if (cached.isFile()) {
+            logger.info("Using cached gold standard {}", cached);
+            return cached;
+        }
+
+        Files.createDirectories(cacheDir.toPath());
+        File tempFile = File.createTempFile("gold_", ".tmp", cacheDir);
+        try (BufferedWriter writer = Files.newBufferedWriter(tempFile.toPath(), StandardCharsets.UTF_8)) {
+            GoldStandardWriter goldStandardWriter = new GoldStandardWriter(writer, sourceColumn, targetColumn, codeFiles, goldStandard);
+            MappedInput.forEachLine(goldStandard, goldStandardWriter::accept);
+            if (goldStandardWriter.columns == null) {
+                throw new IOException("Empty gold standard: " + goldStandard);
+            }
+        } catch (UncheckedIOException e) {
+            Files.deleteIfExists(tempFile.toPath());
+            throw e.getCause();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile.toPath());
+            throw e;
+        }
+        Files.move(tempFile.toPath(), cached.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return cached;
+    }
+
+    private static int columnIndex(String[] header, String column, int defaultIndex, File goldStandard) throws IOException {
+        if (column == null) {
+            if (header.length <= defaultIndex) {
+                throw new IOException("Gold standard has less than two columns: " + goldStandard);
+            }
+            return defaultIndex;
+        }
+        for (int i = 0; i < header.length; i++) {
+            if (header[i].trim().equals(column)) {
+                return i;
+            }
+        }
+        throw new IOException("Gold standard " + goldStandard + " has no column " + column);
+    }
+
+    private static void writeLink(BufferedWriter writer, String source, String target) throws IOException {
+        writer.write(source);
+        writer.write(SEPARATOR);
+        writer.write(target);
+        writer.newLine();
+    }
+
+    private static List<String> listCodeFiles(File code) throws IOException {
+        Path root = code.toPath();
+        try (Stream<Path> files = Files.walk(root)) {
+            List<String> paths = new ArrayList<>(files.filter(Files::isRegularFile)
+                    .map(file -> root.relativize(file).toString().replace(File.separator, ArDoCoCli.GOLD_STANDARD_PATH_SEPARATOR))
+                    .toList());
+            Collections.sort(paths);
+            return paths;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Writes the selected columns of the gold standard lines, enrolling directory entries.
+     */
+    private static final class GoldStandardWriter {
+        private final BufferedWriter writer;
+        private final String sourceColumn;
+        private final String targetColumn;
+        private final List<String> codeFiles;
+        private final File goldStandard;
+        private int[] columns;
+        private boolean warned;
+
+        private GoldStandardWriter(BufferedWriter writer, String sourceColumn, String targetColumn, List<String> codeFiles,
+                File goldStandard) {
+            this.writer = writer;
+            this.sourceColumn = sourceColumn;
+            this.targetColumn = targetColumn;
+            this.codeFiles = codeFiles;
+            this.goldStandard = goldStandard;
+        }
+
+        private void accept(String line) {
+            try {
+                String[] fields = line.split(SEPARATOR, -1);
+                if (columns == null) {
+                    columns = new int[] { columnIndex(fields, sourceColumn, 0, goldStandard),
+                            columnIndex(fields, targetColumn, 1, goldStandard) };
+                    writeLink(writer, fields[columns[0]].trim(), fields[columns[1]].trim());
+                    return;
+                }
+                if (line.isBlank() || fields.length <= Math.max(columns[0], columns[1])) {
+                    return;
+                }
+                String source = fields[columns[0]].trim();
+                String target = fields[columns[1]].trim();
+                if (!target.endsWith(ArDoCoCli.GOLD_STANDARD_PATH_SEPARATOR)) {
+                    writeLink(writer, source, target);
+                } else if (codeFiles != null) {
+                    for (String codeFile : filesBelow(codeFiles, target)) {
+                        writeLink(writer, source, codeFile);
+                    }
+                } else {
+                    if (!warned) {
+                        logger.warn(ArDoCoCli.WARNING_NO_CODE_MODEL);
+                        warned = true;
+                    }
+                    writeLink(writer, source, target);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static List<String> filesBelow(List<String> sortedFiles, String directory) {
+        int index = Collections.binarySearch(sortedFiles, directory);
+        int start = index < 0 ? -index - 1 : index;
+        List<String> result = new ArrayList<>();
+        for (int i = start; i < sortedFiles.size() && sortedFiles.get(i).startsWith(directory); i++) {
+            result.add(sortedFiles.get(i));
+        }
+        return result;
+    }
+}
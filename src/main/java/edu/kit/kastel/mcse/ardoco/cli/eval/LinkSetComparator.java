@@ -0,0 +1,200 @@
+package edu.kit.kastel.mcse.ardoco.cli.eval;
+
+/* Licensed under MIT 2023. */
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import edu.kit.kastel.mcse.ardoco.cli.io.FileTrees;
+import edu.kit.kastel.mcse.ardoco.cli.io.MappedInput;
+import edu.kit.kastel.mcse.ardoco.cli.result.IdentifierPool;
+import edu.kit.kastel.mcse.ardoco.cli.result.LinkTable;
+import edu.kit.kastel.mcse.ardoco.cli.result.TraceLinkFiles;
+
+/**
+ * Compares two trace link files (two columns with header) as sets.
+ * Small files are compared with a hash join over interned links; files too large for the heap are sorted externally in runs and
+ * compared with a sort-merge join.
+ */
+public final class LinkSetComparator {
+    private static final char SEPARATOR = ',';
+    private static final char KEY_SEPARATOR = '\t';
+    private static final int RUN_SIZE = 1_000_000;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private LinkSetComparator() {
+        throw new IllegalAccessError();
+    }
+
+    /**
+     * Compares two link files, choosing the join strategy by the file sizes and the available heap.
+     * @param result the recovered links
+     * @param goldStandard the gold standard links
+     * @return the evaluation result
+     * @throws IOException if a file cannot be read
+     */
+    public static EvaluationResult compare(File result, File goldStandard) throws IOException {
+        long inMemoryLimit = Runtime.getRuntime().maxMemory() / 8;
+        if (result.length() + goldStandard.length() <= inMemoryLimit) {
+            return compareInMemory(result, goldStandard);
+        }
+        return compareExternal(result, goldStandard, Files.createTempDirectory("ardoco-eval-"));
+    }
+
+    /**
+     * Compares two link files with a hash join.
+     * @param result the recovered links
+     * @param goldStandard the gold standard links
+     * @return the evaluation result
+     * @throws IOException if a file cannot be read
+     */
+    public static EvaluationResult compareInMemory(File result, File goldStandard) throws IOException {
+        IdentifierPool pool = new IdentifierPool();
+        LinkTable resultLinks = TraceLinkFiles.read(result, pool);
+        LinkTable goldLinks = TraceLinkFiles.read(goldStandard, pool);
+
+        long truePositives = 0;
+        for (int i = 0; i < goldLinks.size(); i++) {
+            if (resultLinks.contains(goldLinks.source(i), goldLinks.target(i))) {
+                truePositives++;
+            }
+        }
+        return new EvaluationResult(truePositives, resultLinks.size() - truePositives, goldLinks.size() - truePositives);
+    }
+
+    /**
+     * Compares two link files with an external sort-merge join. Only one run of links is held in memory at a time.
+     * @param result the recovered links
+     * @param goldStandard the gold standard links
+     * @param workDir directory for the sorted runs; it is deleted afterwards
+     * @return the evaluation result
+     * @throws IOException if a file cannot be read or the runs cannot be written
+     */
+    public static EvaluationResult compareExternal(File result, File goldStandard, Path workDir) throws IOException {
+        try {
+            List<Path> resultRuns = writeSortedRuns(result, workDir, "result");
+            List<Path> goldRuns = writeSortedRuns(goldStandard, workDir, "gold");
+            try (MergedRuns resultKeys = new MergedRuns(resultRuns); MergedRuns goldKeys = new MergedRuns(goldRuns)) {
+                long truePositives = 0;
+                long falsePositives = 0;
+                long falseNegatives = 0;
+                String resultKey = resultKeys.next();
+                String goldKey = goldKeys.next();
+                while (resultKey != null || goldKey != null) {
+                    int comparison = resultKey == null ? 1 : goldKey == null ? -1 : resultKey.compareTo(goldKey);
+                    if (comparison == 0) {
+                        truePositives++;
+                        resultKey = resultKeys.next();
+                        goldKey = goldKeys.next();
+                    } else if (comparison < 0) {
+                        falsePositives++;
+                        resultKey = resultKeys.next();
+                    } else {
+                        falseNegatives++;
+                        goldKey = goldKeys.next();
+                    }
+                }
+                return new EvaluationResult(truePositives, falsePositives, falseNegatives);
+            }
+        } finally {
+            FileTrees.deleteQuietly(workDir);
+        }
+    }
+
+    private static List<Path> writeSortedRuns(File links, Path workDir, String prefix) throws IOException {
+        List<Path> runs = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        MappedInput.forEachRecord(links, line -> {
+            int separator = line.indexOf(SEPARATOR);
+            if (separator < 0) {
+                return;
+            }
+            keys.add(line.substring(0, separator) + KEY_SEPARATOR + line.substring(separator + 1));
+            if (keys.size() >= RUN_SIZE) {
+                runs.add(writeRun(keys, workDir, prefix + runs.size()));
+            }
+        });
+        if (!keys.isEmpty() || runs.isEmpty()) {
+            runs.add(writeRun(keys, workDir, prefix + runs.size()));
+        }
+        return runs;
+    }
+
+    private static Path writeRun(List<String> keys, Path workDir, String name) throws IOException {
+        Collections.sort(keys);
+        Path run = workDir.resolve(name + ".run");
+        try (BufferedWriter writer = Files.newBufferedWriter(run, StandardCharsets.UTF_8)) {
+            String previous = null;
+            for (String key : keys) {
+                if (!key.equals(previous)) {
+                    writer.write(key);
+                    writer.newLine();
+                }
+                previous = key;
+            }
+        }
+        keys.clear();
+        return run;
+    }
+
+    /**
+     * K-way merge of sorted runs that yields each distinct key once, in order.
+     */
+    private static final class MergedRuns implements AutoCloseable {
+        private final List<BufferedReader> readers = new ArrayList<>();
+        private final PriorityQueue<RunHead> heads = new PriorityQueue<>();
+        private String previous;
+
+        private MergedRuns(List<Path> runs) throws IOException {
+            for (Path run : runs) {
+                BufferedReader reader = Files.newBufferedReader(run, StandardCharsets.UTF_8);
+                readers.add(reader);
+                String first = reader.readLine();
+                if (first != null) {
+                    heads.add(new RunHead(first, reader));
+                }
+            }
+        }
+
+        private String next() throws IOException {
+            while (!heads.isEmpty()) {
+                RunHead head = heads.poll();
+                String key = head.key;
+                String following = head.reader.readLine();
+                if (following != null) {
+                    heads.add(new RunHead(following, head.reader));
+                }
+                if (!key.equals(previous)) {
+                    previous = key;
+                    return key;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (BufferedReader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    private record RunHead(String key, BufferedReader reader) implements Comparable<RunHead> {
+        @Override
+        public int compareTo(RunHead other) {
+            return key.compareTo(other.key);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package edu.kit.kastel.mcse.ardoco.cli.history;
+
+/* Licensed under MIT 2023. */
+
+import java.util.List;
+
+import edu.kit.kastel.mcse.ardoco.cli.api.TraceLink;
+
+/**
+ * Links added and removed between two runs.
+ * @param from the earlier run
+ * @param to the later run
+ * @param added the links of the later run that are not part of the earlier run
+ * @param removed the links of the earlier run that are not part of the later run
+ */
+public record HistoryDiff(HistoryRun from, HistoryRun to, List<TraceLink> added, List<TraceLink> removed) {
+}
@@ -0,0 +1,18 @@
+package edu.kit.kastel.mcse.ardoco.cli.history;
+
+/* Licensed under MIT 2023. */
+
+/**
+ * A run recorded in the {@link HistoryStore}.
+ * @param index the position of the run in the store
+ * @param id the label of the run, e.g. a commit hash
+ * @param timestamp the time the run was recorded, in milliseconds since the epoch
+ * @param task the task that recovered the links
+ * @param project the project name
+ * @param sourceColumn the name of the source column of the links
+ * @param targetColumn the name of the target column of the links
+ * @param linkCount the number of links of the run
+ */
+public record HistoryRun(int index, String id, long timestamp, String task, String project, String sourceColumn, String targetColumn,
+        int linkCount) {
+}
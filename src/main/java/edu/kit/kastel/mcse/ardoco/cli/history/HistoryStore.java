@@ -0,0 +1,453 @@
+package edu.kit.kastel.mcse.ardoco.cli.history;
+
+/* Licensed under MIT 2023. */
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.kit.kastel.mcse.ardoco.cli.api.TraceLink;
+import edu.kit.kastel.mcse.ardoco.cli.io.MappedInput;
+import edu.kit.kastel.mcse.ardoco.cli.result.IdentifierPool;
+import edu.kit.kastel.mcse.ardoco.cli.result.LinkTable;
+
+/**
+ * Local store of the trace links of many runs.
+ * Identifiers are kept once in a dictionary with a column of their offsets, each distinct link once in two int columns (source and
+ * target handle), and each run as a bitset over the link positions. All files are append-only; a run becomes visible when its line is
+ * appended to the run registry, so readers never see partially recorded runs. Queries map the dictionary and the columns into memory
+ * and only decode the identifiers of the links they return; appends look up the identifiers and links of the new run in the mapped
+ * files and only write what the store does not contain yet.
+ */
+public class HistoryStore {
+    private static final String IDENTIFIERS_FILE = "identifiers.dat";
+    private static final String OFFSETS_FILE = "identifiers.idx";
+    private static final String SOURCES_FILE = "sources.col";
+    private static final String TARGETS_FILE = "targets.col";
+    private static final String RUNS_FILE = "runs.tsv";
+    private static final String BITS_DIR = "runs";
+    private static final String LOCK_FILE = ".lock";
+    private static final char FIELD_SEPARATOR = '\t';
+    private static final int RUN_FIELDS = 8;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final File directory;
+
+    /**
+     * Constructor for a store in the given directory. The directory is created on the first append.
+     * @param directory the store directory
+     */
+    public HistoryStore(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Records the links of a run.
+     * @param runId the label of the run, e.g. a commit hash; unique per task and project
+     * @param task the task that recovered the links
+     * @param project the project name
+     * @param links the links of the run
+     * @return the recorded run
+     * @throws IOException if the store cannot be written or already contains the run
+     */
+    public HistoryRun append(String runId, String task, String project, LinkTable links) throws IOException {
+        String id = sanitize(runId);
+        String taskName = sanitize(task);
+        String projectName = sanitize(project);
+        Files.createDirectories(new File(directory, BITS_DIR).toPath());
+        try (FileChannel lockChannel = FileChannel.open(new File(directory, LOCK_FILE).toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE)) {
+            // released when the channel is closed
+            lockChannel.lock();
+            dropIncompleteAppend();
+            List<HistoryRun> runs = readRuns();
+            if (find(runs, id, taskName, projectName) != null) {
+                throw new IOException("History already contains run " + runId + " of " + task + " for " + project);
+            }
+
+            // stored identifiers and links are looked up in the mapped files, only those of the new run are held in memory
+            Columns columns = mapColumns();
+            IdentifierPool runPool = links.getPool();
+            int[] handles = columns.handlesOf(runPool);
+            List<String> newIdentifiers = new ArrayList<>();
+            for (int i = 0; i < links.size(); i++) {
+                for (int runHandle : new int[] { links.source(i), links.target(i) }) {
+                    if (handles[runHandle] < 0) {
+                        handles[runHandle] = columns.offsets.limit() + newIdentifiers.size();
+                        newIdentifiers.add(runPool.resolve(runHandle));
+                    }
+                }
+            }
+            // pairs of store handles, the pool of the table is not used
+            LinkTable runLinks = new LinkTable(new IdentifierPool(), links.getSourceColumn(), links.getTargetColumn());
+            for (int i = 0; i < links.size(); i++) {
+                runLinks.add(handles[links.source(i)], handles[links.target(i)]);
+            }
+            int[] positions = columns.positionsOf(runLinks);
+
+            // dictionary before offsets before columns before run, so every visible reference is complete
+            try (DataOutputStream out = appendStream(IDENTIFIERS_FILE)) {
+                for (String identifier : newIdentifiers) {
+                    out.writeUTF(identifier);
+                }
+            }
+            long offset = columns.identifiers.limit();
+            try (DataOutputStream offsets = appendStream(OFFSETS_FILE)) {
+                for (String identifier : newIdentifiers) {
+                    offsets.writeLong(offset);
+                    offset += 2 + modifiedUtf8Length(identifier);
+                }
+            }
+            BitSet bits = new BitSet();
+            int nextPosition = columns.linkCount;
+            try (DataOutputStream sources = appendStream(SOURCES_FILE); DataOutputStream targets = appendStream(TARGETS_FILE)) {
+                for (int i = 0; i < runLinks.size(); i++) {
+                    if (positions[i] < 0) {
+                        positions[i] = nextPosition++;
+                        sources.writeInt(runLinks.source(i));
+                        targets.writeInt(runLinks.target(i));
+                    }
+                    bits.set(positions[i]);
+                }
+            }
+            int index = runs.isEmpty() ? 0 : runs.get(runs.size() - 1).index() + 1;
+            File bitsFile = bitsFile(index);
+            File tempFile = new File(bitsFile.getPath() + ".tmp");
+            Files.write(tempFile.toPath(), bits.toByteArray());
+            Files.move(tempFile.toPath(), bitsFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            HistoryRun run = new HistoryRun(index, id, System.currentTimeMillis(), taskName, projectName, sanitize(links.getSourceColumn()),
+                    sanitize(links.getTargetColumn()), bits.cardinality());
+            Files.writeString(new File(directory, RUNS_FILE).toPath(), format(run), StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND);
+            return run;
+        }
+    }
+
+    /**
+     * Gets all recorded runs in recording order.
+     * @return the runs
+     * @throws IOException if the store cannot be read
+     */
+    public List<HistoryRun> getRuns() throws IOException {
+        return readRuns();
+    }
+
+    /**
+     * Gets the links added and removed between two runs of a task and project.
+     * @param task the task
+     * @param project the project
+     * @param runA the earlier run
+     * @param runB the later run
+     * @return the difference
+     * @throws IOException if the store cannot be read or lacks one of the runs
+     */
+    public HistoryDiff diff(String task, String project, String runA, String runB) throws IOException {
+        List<HistoryRun> runs = readRuns();
+        HistoryRun first = require(runs, runA, task, project);
+        HistoryRun second = require(runs, runB, task, project);
+        BitSet before = readBits(first);
+        BitSet after = readBits(second);
+
+        BitSet added = (BitSet) after.clone();
+        added.andNot(before);
+        BitSet removed = (BitSet) before.clone();
+        removed.andNot(after);
+        Columns columns = mapColumns();
+        return new HistoryDiff(first, second, columns.resolve(added), columns.resolve(removed));
+    }
+
+    /**
+     * Gets the links of an element in each run that contains links of it.
+     * @param element the source or target identifier of the element
+     * @return the links of the element per run, in recording order
+     * @throws IOException if the store cannot be read
+     */
+    public Map<HistoryRun, List<TraceLink>> elementHistory(String element) throws IOException {
+        // the runs are read before the columns, so the columns cover all links of the runs
+        List<HistoryRun> runs = readRuns();
+        Columns columns = mapColumns();
+        Map<HistoryRun, List<TraceLink>> history = new LinkedHashMap<>();
+        int handle = columns.handleOf(element);
+        if (handle < 0) {
+            return history;
+        }
+        BitSet elementLinks = new BitSet();
+        for (int i = 0; i < columns.linkCount; i++) {
+            if (columns.sources.get(i) == handle || columns.targets.get(i) == handle) {
+                elementLinks.set(i);
+            }
+        }
+        for (HistoryRun run : runs) {
+            BitSet runLinks = readBits(run);
+            runLinks.and(elementLinks);
+            if (!runLinks.isEmpty()) {
+                history.put(run, columns.resolve(runLinks));
+            }
+        }
+        return history;
+    }
+
+    /**
+     * Drops the incomplete tail of an interrupted append, so the next append continues after the last complete entries.
+     */
+    private void dropIncompleteAppend() throws IOException {
+        File identifiersFile = new File(directory, IDENTIFIERS_FILE);
+        File offsetsFile = new File(directory, OFFSETS_FILE);
+        int identifiers = identifiersFile.isFile() ? (int) (offsetsFile.length() / Long.BYTES) : 0;
+        long identifierBytes = 0;
+        if (identifiers > 0) {
+            try (RandomAccessFile dictionary = new RandomAccessFile(identifiersFile, "r");
+                    RandomAccessFile offsets = new RandomAccessFile(offsetsFile, "r")) {
+                // entries are appended in order, so the entries before the last complete one are complete as well
+                long end = -1;
+                while (identifiers > 0 && end < 0) {
+                    offsets.seek((long) (identifiers - 1) * Long.BYTES);
+                    end = entryEnd(dictionary, offsets.readLong());
+                    if (end < 0) {
+                        identifiers--;
+                    }
+                }
+                identifierBytes = Math.max(end, 0);
+            }
+        }
+        File sourcesFile = new File(directory, SOURCES_FILE);
+        File targetsFile = new File(directory, TARGETS_FILE);
+        long linkCount = Math.min(sourcesFile.length(), targetsFile.length()) / Integer.BYTES;
+        truncate(identifiersFile, identifierBytes);
+        truncate(offsetsFile, (long) identifiers * Long.BYTES);
+        truncate(sourcesFile, linkCount * Integer.BYTES);
+        truncate(targetsFile, linkCount * Integer.BYTES);
+        truncateToLastLine(new File(directory, RUNS_FILE));
+    }
+
+    /**
+     * Gets the end of a dictionary entry.
+     * @return the offset after the entry, or -1 if the entry is incomplete
+     */
+    private static long entryEnd(RandomAccessFile dictionary, long offset) throws IOException {
+        if (offset < 0 || offset + 2 > dictionary.length()) {
+            return -1;
+        }
+        dictionary.seek(offset);
+        long end = offset + 2 + dictionary.readUnsignedShort();
+        return end <= dictionary.length() ? end : -1;
+    }
+
+    /**
+     * Length of a string in the modified UTF-8 encoding of {@link DataOutputStream#writeUTF(String)}.
+     */
+    private static int modifiedUtf8Length(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x0001 && c <= 0x007F) {
+                length += 1;
+            } else if (c > 0x07FF) {
+                length += 3;
+            } else {
+                length += 2;
+            }
+        }
+        return length;
+    }
+
+    private Columns mapColumns() throws IOException {
+        ByteBuffer identifiers = map(new File(directory, IDENTIFIERS_FILE));
+        LongBuffer offsets = map(new File(directory, OFFSETS_FILE)).asLongBuffer();
+        IntBuffer sources = map(new File(directory, SOURCES_FILE)).asIntBuffer();
+        IntBuffer targets = map(new File(directory, TARGETS_FILE)).asIntBuffer();
+        return new Columns(identifiers, offsets, sources, targets, Math.min(sources.limit(), targets.limit()));
+    }
+
+    /**
+     * Maps a file of the store read-only, or returns an empty buffer if it does not exist.
+     */
+    private static ByteBuffer map(File file) throws IOException {
+        if (!file.isFile()) {
+            return ByteBuffer.allocate(0);
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("History file too large to map: " + file);
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    private List<HistoryRun> readRuns() throws IOException {
+        List<HistoryRun> runs = new ArrayList<>();
+        File file = new File(directory, RUNS_FILE);
+        if (!file.isFile()) {
+            return runs;
+        }
+        MappedInput.forEachLine(file, line -> {
+            String[] fields = line.split(String.valueOf(FIELD_SEPARATOR), -1);
+            if (fields.length == RUN_FIELDS) {
+                runs.add(new HistoryRun(Integer.parseInt(fields[0]), fields[1], Long.parseLong(fields[2]), fields[3], fields[4], fields[5],
+                        fields[6], Integer.parseInt(fields[7])));
+            }
+        });
+        return runs;
+    }
+
+    private BitSet readBits(HistoryRun run) throws IOException {
+        return BitSet.valueOf(Files.readAllBytes(bitsFile(run.index()).toPath()));
+    }
+
+    private File bitsFile(int index) {
+        return new File(new File(directory, BITS_DIR), index + ".bits");
+    }
+
+    private DataOutputStream appendStream(String fileName) throws IOException {
+        Path file = new File(directory, fileName).toPath();
+        return new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND), BUFFER_SIZE));
+    }
+
+    private static void truncate(File file, long length) throws IOException {
+        if (file.isFile() && file.length() > length) {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(length);
+            }
+        }
+    }
+
+    private static void truncateToLastLine(File file) throws IOException {
+        if (file.isFile()) {
+            byte[] content = Files.readAllBytes(file.toPath());
+            int length = content.length;
+            while (length > 0 && content[length - 1] != '\n') {
+                length--;
+            }
+            truncate(file, length);
+        }
+    }
+
+    private static String format(HistoryRun run) {
+        return String.join(String.valueOf(FIELD_SEPARATOR), Integer.toString(run.index()), run.id(), Long.toString(run.timestamp()),
+                run.task(), run.project(), run.sourceColumn(), run.targetColumn(), Integer.toString(run.linkCount())) + "\n";
+    }
+
+    private static String sanitize(String value) {
+        return value.replace(FIELD_SEPARATOR, ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+
+    private static HistoryRun find(List<HistoryRun> runs, String runId, String task, String project) {
+        for (HistoryRun run : runs) {
+            if (run.id().equals(runId) && run.task().equals(task) && run.project().equals(project)) {
+                return run;
+            }
+        }
+        return null;
+    }
+
+    private static HistoryRun require(List<HistoryRun> runs, String runId, String task, String project) throws IOException {
+        HistoryRun run = find(runs, runId, task, project);
+        if (run == null) {
+            throw new IOException("History contains no run " + runId + " of " + task + " for " + project);
+        }
+        return run;
+    }
+
+    /**
+     * Mapped dictionary and link columns of a query.
+     */
+    private record Columns(ByteBuffer identifiers, LongBuffer offsets, IntBuffer sources, IntBuffer targets, int linkCount) {
+        /**
+         * Finds the handle of an identifier by comparing its encoding with the dictionary entries, without decoding them.
+         * @return the handle, or -1 if the dictionary does not contain the identifier
+         */
+        private int handleOf(String identifier) throws IOException {
+            ByteBuffer encoded = ByteBuffer.wrap(encode(identifier));
+            for (int handle = 0; handle < offsets.limit(); handle++) {
+                int offset = (int) offsets.get(handle);
+                if (offset + encoded.limit() <= identifiers.limit() && identifiers.slice(offset, encoded.limit()).equals(encoded)) {
+                    return handle;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Finds the handles of all identifiers of a pool with a single pass over the dictionary.
+         * @return the handles indexed by the handles of the pool, -1 for identifiers the dictionary does not contain
+         */
+        private int[] handlesOf(IdentifierPool pool) throws IOException {
+            Map<ByteBuffer, Integer> wanted = new HashMap<>();
+            for (int handle = 0; handle < pool.size(); handle++) {
+                wanted.put(ByteBuffer.wrap(encode(pool.resolve(handle))), handle);
+            }
+            int[] handles = new int[pool.size()];
+            Arrays.fill(handles, -1);
+            for (int handle = 0; handle < offsets.limit() && !wanted.isEmpty(); handle++) {
+                int offset = (int) offsets.get(handle);
+                Integer poolHandle = wanted.remove(identifiers.slice(offset, 2 + Short.toUnsignedInt(identifiers.getShort(offset))));
+                if (poolHandle != null) {
+                    handles[poolHandle] = handle;
+                }
+            }
+            return handles;
+        }
+
+        /**
+         * Finds the positions of the links of a table with a single pass over the columns.
+         * @return the positions indexed by the positions in the table, -1 for links the columns do not contain
+         */
+        private int[] positionsOf(LinkTable links) {
+            int[] positions = new int[links.size()];
+            Arrays.fill(positions, -1);
+            for (int i = 0; i < linkCount; i++) {
+                int index = links.indexOf(sources.get(i), targets.get(i));
+                if (index >= 0) {
+                    positions[index] = i;
+                }
+            }
+            return positions;
+        }
+
+        private String identifier(int handle) throws IOException {
+            int offset = (int) offsets.get(handle);
+            byte[] entry = new byte[2 + Short.toUnsignedInt(identifiers.getShort(offset))];
+            identifiers.get(offset, entry);
+            return new DataInputStream(new ByteArrayInputStream(entry)).readUTF();
+        }
+
+        private List<TraceLink> resolve(BitSet linkPositions) throws IOException {
+            List<TraceLink> result = new ArrayList<>(linkPositions.cardinality());
+            for (int i = linkPositions.nextSetBit(0); i >= 0; i = linkPositions.nextSetBit(i + 1)) {
+                result.add(new TraceLink(identifier(sources.get(i)), identifier(targets.get(i))));
+            }
+            return result;
+        }
+
+        private static byte[] encode(String identifier) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeUTF(identifier);
+            }
+            return bytes.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package edu.kit.kastel.mcse.ardoco.cli.io;
+
+/* Licensed under MIT 2023. */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Deletes directory trees. Symbolic links are deleted themselves and never followed, so deleting a tree of links (e.g., a pruned
+ * code tree) leaves the link targets untouched.
+ */
+public final class FileTrees {
+    private static final Logger logger = LoggerFactory.getLogger(FileTrees.class);
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private FileTrees() {
+        throw new IllegalAccessError();
+    }
+
+    /**
+     * Deletes a file or directory tree. Does nothing if the path does not exist.
+     * @param root the file or directory to delete
+     * @throws IOException if a file or directory cannot be deleted
+     */
+    public static void delete(Path root) throws IOException {
+        if (!Files.exists(root, LinkOption.NOFOLLOW_LINKS)) {
+            return;
+        }
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                Files.deleteIfExists(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) throws IOException {
+                if (e instanceof NoSuchFileException) {
+                    return FileVisitResult.CONTINUE;
+                }
+                throw e;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path directory, IOException e) throws IOException {
+                if (e != null) {
+                    throw e;
+                }
+                Files.deleteIfExists(directory);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Deletes a temporary file or directory tree, logging a warning instead of failing if it cannot be deleted completely.
+     * @param root the file or directory to delete, may be null
+     * @return true if the tree is gone
+     */
+    public static boolean deleteQuietly(Path root) {
+        if (root == null) {
+            return true;
+        }
+        try {
+            delete(root);
+            return true;
+        } catch (IOException e) {
+            logger.warn("Could not delete {}", root, e);
+            return false;
+        }
+    }
+
+    /**
+     * Deletes a temporary file or directory tree, logging a warning instead of failing if it cannot be deleted completely.
+     * @param root the file or directory to delete, may be null
+     * @return true if the tree is gone
+     */
+    public static boolean deleteQuietly(File root) {
+        return deleteQuietly(root == null ? null : root.toPath());
+    }
+}
@@ -0,0 +1,80 @@
+package edu.kit.kastel.mcse.ardoco.cli.io;
+
+/* Licensed under MIT 2023. */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Computes content fingerprints (SHA-256) of input files and directory trees.
+ */
+public final class Fingerprints {
+    private static final String ALGORITHM = "SHA-256";
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private Fingerprints() {
+        throw new IllegalAccessError();
+    }
+
+    /**
+     * Computes the fingerprint of the given inputs. Directories are hashed recursively in path order, including the relative file
+     * names, so renaming or moving a file changes the fingerprint. Null inputs are skipped.
+     * @param inputs the input files and directories
+     * @return the fingerprint as hex string
+     * @throws IOException if an input cannot be read
+     */
+    public static String of(List<File> inputs) throws IOException {
+        MessageDigest digest = newDigest();
+        for (File input : inputs) {
+            if (input == null) {
+                continue;
+            }
+            Path root = input.toPath();
+            if (Files.isDirectory(root)) {
+                try (Stream<Path> files = Files.walk(root)) {
+                    for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile).sorted()::iterator) {
+                        update(digest, root.relativize(file).toString().replace(File.separatorChar, '/'), file.toFile());
+                    }
+                }
+            } else {
+                update(digest, input.getName(), input);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Computes the fingerprint of a string, e.g. to combine fingerprints with settings.
+     * @param value the string
+     * @return the fingerprint as hex string
+     */
+    public static String of(String value) {
+        return HexFormat.of().formatHex(newDigest().digest(value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static void update(MessageDigest digest, String name, File file) throws IOException {
+        digest.update(name.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(Long.toString(file.length()).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        MappedInput.forEachRegion(file, digest::update);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+    }
+}
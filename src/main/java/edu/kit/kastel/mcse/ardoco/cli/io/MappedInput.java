@@ -0,0 +1,247 @@
+package edu.kit.kastel.mcse.ardoco.cli.io;
+
+/* Licensed under MIT 2023. */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads input files through memory-mapped {@link FileChannel}s.
+ * The file content is decoded straight from the mapped pages, without copying the whole file onto the heap first.
+ */
+public final class MappedInput {
+    private static final int MAX_REGION_SIZE = Integer.MAX_VALUE;
+    private static final byte NEW_LINE = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private MappedInput() {
+        throw new IllegalAccessError();
+    }
+
+    /**
+     * Visitor for the mapped regions of a file.
+     */
+    @FunctionalInterface
+    public interface RegionVisitor {
+        /**
+         * Visits the next region of the file.
+         * @param region the read-only mapped region
+         * @throws IOException if processing the region fails
+         */
+        void visit(ByteBuffer region) throws IOException;
+    }
+
+    /**
+     * Visitor for the lines of a text file.
+     */
+    @FunctionalInterface
+    public interface LineVisitor {
+        /**
+         * Visits the next line of the file.
+         * @param line the line without line terminator
+         * @throws IOException if processing the line fails, e.g., because it is malformed
+         */
+        void visit(String line) throws IOException;
+    }
+
+    /**
+     * Reads a UTF-8 text file.
+     * @param file the file
+     * @return the decoded content
+     * @throws IOException if the file cannot be read or is larger than 2 GB
+     */
+    public static CharBuffer readText(File file) throws IOException {
+        return readText(file.toPath());
+    }
+
+    /**
+     * Reads a UTF-8 text file. Files outside the default file system, such as entries of a zip archive, cannot be mapped and are
+     * read onto the heap instead.
+     * @param file the file
+     * @return the decoded content
+     * @throws IOException if the file cannot be read or is larger than 2 GB
+     */
+    public static CharBuffer readText(Path file) throws IOException {
+        if (file.getFileSystem() != FileSystems.getDefault()) {
+            try {
+                return decoder().decode(ByteBuffer.wrap(Files.readAllBytes(file)));
+            } catch (CharacterCodingException e) {
+                throw new IOException("Could not decode " + file, e);
+            }
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > MAX_REGION_SIZE) {
+                throw new IOException("File is too large to be decoded at once: " + file);
+            }
+            MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return decoder().decode(bytes);
+        } catch (CharacterCodingException e) {
+            throw new IOException("Could not decode " + file, e);
+        }
+    }
+
+    /**
+     * Visits all mapped regions of a file in order. Regions are at most 2 GB large.
+     * @param file the file
+     * @param visitor the visitor
+     * @throws IOException if the file cannot be read
+     */
+    public static void forEachRegion(File file, RegionVisitor visitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += MAX_REGION_SIZE) {
+                long regionSize = Math.min(MAX_REGION_SIZE, size - position);
+                visitor.visit(channel.map(FileChannel.MapMode.READ_ONLY, position, regionSize));
+            }
+        }
+    }
+
+    /**
+     * Reads a UTF-8 text file line by line. Line terminators are not part of the lines.
+     * @param file the file
+     * @param visitor visitor for the lines
+     * @throws IOException if the file cannot be read, is not valid UTF-8 or the visitor fails
+     */
+    public static void forEachLine(File file, LineVisitor visitor) throws IOException {
+        LineSplitter splitter = new LineSplitter(file, visitor);
+        forEachRegion(file, splitter::accept);
+        splitter.finish();
+    }
+
+    /**
+     * Reads a UTF-8 text file with a header line, e.g., a CSV file, line by line, skipping the header and blank lines.
+     * @param file the file
+     * @param records visitor for the lines after the header
+     * @throws IOException if the file cannot be read or the visitor fails
+     */
+    public static void forEachRecord(File file, LineVisitor records) throws IOException {
+        forEachRecord(file, header -> {
+        }, records);
+    }
+
+    /**
+     * Reads a UTF-8 text file with a header line, e.g., a CSV file, line by line. The header is passed to its own visitor before any
+     * record; blank lines are skipped.
+     * @param file the file
+     * @param header visitor for the header line, not called for an empty file
+     * @param records visitor for the lines after the header
+     * @return true if the file has a header line
+     * @throws IOException if the file cannot be read or a visitor fails
+     */
+    public static boolean forEachRecord(File file, LineVisitor header, LineVisitor records) throws IOException {
+        RecordSplitter splitter = new RecordSplitter(header, records);
+        forEachLine(file, splitter);
+        return splitter.headerRead;
+    }
+
+    private static CharsetDecoder decoder() {
+        return StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+    }
+
+    /**
+     * Splits mapped regions into lines, carrying lines that cross region boundaries.
+     */
+    private static final class LineSplitter {
+        private final File file;
+        private final LineVisitor visitor;
+        private final CharsetDecoder decoder = decoder();
+        private byte[] scratch = new byte[256];
+        private int pending;
+        private long lineNumber;
+
+        private LineSplitter(File file, LineVisitor visitor) {
+            this.file = file;
+            this.visitor = visitor;
+        }
+
+        private void accept(ByteBuffer region) throws IOException {
+            int start = 0;
+            int limit = region.limit();
+            for (int i = 0; i < limit; i++) {
+                if (region.get(i) == NEW_LINE) {
+                    append(region, start, i);
+                    emit();
+                    start = i + 1;
+                }
+            }
+            append(region, start, limit);
+        }
+
+        private void append(ByteBuffer region, int from, int to) {
+            int length = to - from;
+            if (pending + length > scratch.length) {
+                scratch = Arrays.copyOf(scratch, Math.max(scratch.length * 2, pending + length));
+            }
+            region.get(from, scratch, pending, length);
+            pending += length;
+        }
+
+        private void emit() throws IOException {
+            int length = pending;
+            if (length > 0 && scratch[length - 1] == CARRIAGE_RETURN) {
+                length--;
+            }
+            lineNumber++;
+            String line;
+            try {
+                line = decoder.reset().decode(ByteBuffer.wrap(scratch, 0, length)).toString();
+            } catch (CharacterCodingException e) {
+                throw new IOException("Could not decode line " + lineNumber + " of " + file, e);
+            }
+            pending = 0;
+            visitor.visit(line);
+        }
+
+        private void finish() throws IOException {
+            if (pending > 0) {
+                emit();
+            }
+        }
+    }
+
+    /**
+     * Passes the first non-blank line to the header visitor and all following non-blank lines to the record visitor.
+     */
+    private static final class RecordSplitter implements LineVisitor {
+        private final LineVisitor header;
+        private final LineVisitor records;
+        private boolean headerRead;
+
+        private RecordSplitter(LineVisitor header, LineVisitor records) {
+            this.header = header;
+            this.records = records;
+        }
+
+        @Override
+        public void visit(String line) throws IOException {
+            if (line.isBlank()) {
+                return;
+            }
+            if (headerRead) {
+                records.visit(line);
+            } else {
+                headerRead = true;
+                header.visit(line);
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package edu.kit.kastel.mcse.ardoco.cli.plugin.core;
+
+/* Licensed under MIT 2023. */
+
+import java.util.List;
+
+/**
+ * Progress listener that forwards all events to several listeners.
+ */
+public class CompositeProgressListener implements ProgressListener {
+    private final List<ProgressListener> listeners;
+
+    /**
+     * Constructor for the composite listener.
+     * @param listeners the listeners to forward the events to
+     */
+    public CompositeProgressListener(List<ProgressListener> listeners) {
+        this.listeners = List.copyOf(listeners);
+    }
+
+    @Override
+    public void stageStarted(String task, String stage) {
+        for (ProgressListener listener : listeners) {
+            listener.stageStarted(task, stage);
+        }
+    }
+
+    @Override
+    public void stageFinished(String task, String stage) {
+        for (ProgressListener listener : listeners) {
+            listener.stageFinished(task, stage);
+        }
+    }
+
+    @Override
+    public void itemsProcessed(String task, long processed, long total) {
+        for (ProgressListener listener : listeners) {
+            listener.itemsProcessed(task, processed, total);
+        }
+    }
+}
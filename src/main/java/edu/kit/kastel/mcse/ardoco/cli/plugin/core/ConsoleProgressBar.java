@@ -0,0 +1,118 @@
+package edu.kit.kastel.mcse.ardoco.cli.plugin.core;
+
+/* Licensed under MIT 2023. */
+
+import java.io.Closeable;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Progress listener that renders a live progress bar with throughput and ETA on the console.
+ * Events only update the state; after {@link #start()}, rendering happens every {@value #RENDER_INTERVAL_MILLIS} ms on a background
+ * thread.
+ */
+public class ConsoleProgressBar implements ProgressListener, Closeable {
+    private static final long RENDER_INTERVAL_MILLIS = 500;
+    private static final int BAR_WIDTH = 30;
+
+    private final PrintStream out;
+    private final long startNanos;
+    private final ScheduledExecutorService renderer;
+
+    private volatile String task = "";
+    private volatile String stage = "";
+    private volatile long processed;
+    private volatile long total = -1;
+    private int lastLineLength;
+
+    /**
+     * Constructor for the progress bar.
+     * @param out the stream to render the progress bar to
+     */
+    public ConsoleProgressBar(PrintStream out) {
+        this.out = out;
+        this.startNanos = System.nanoTime();
+        this.renderer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "progress-bar");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts rendering the progress bar periodically.
+     */
+    public void start() {
+        renderer.scheduleAtFixedRate(this::render, RENDER_INTERVAL_MILLIS, RENDER_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stageStarted(String task, String stage) {
+        this.task = task;
+        this.stage = stage;
+    }
+
+    @Override
+    public void stageFinished(String task, String stage) {
+        // the next stage or item update replaces the label
+    }
+
+    @Override
+    public void itemsProcessed(String task, long processed, long total) {
+        this.processed = processed;
+        this.total = total;
+    }
+
+    /**
+     * Renders the current state, overwriting the previous line.
+     */
+    synchronized void render() {
+        String line = formatLine(System.nanoTime() - startNanos);
+        StringBuilder builder = new StringBuilder("\r").append(line);
+        for (int i = line.length(); i < lastLineLength; i++) {
+            builder.append(' ');
+        }
+        lastLineLength = line.length();
+        out.print(builder);
+        out.flush();
+    }
+
+    String formatLine(long elapsedNanos) {
+        long done = processed;
+        long all = total;
+        double seconds = elapsedNanos / 1e9;
+        double throughput = seconds > 0 ? done / seconds : 0;
+
+        StringBuilder line = new StringBuilder();
+        int filled = all > 0 ? (int) Math.min(BAR_WIDTH, done * BAR_WIDTH / all) : 0;
+        line.append('[').append("#".repeat(filled)).append("-".repeat(BAR_WIDTH - filled)).append("] ");
+        line.append(done);
+        if (all >= 0) {
+            line.append('/').append(all);
+        }
+        line.append(' ').append(task);
+        if (!stage.isEmpty()) {
+            line.append(": ").append(stage);
+        }
+        line.append(String.format(Locale.ROOT, " | %.2f items/s | elapsed %s", throughput, format(Duration.ofNanos(elapsedNanos))));
+        if (all > 0 && done > 0 && done < all) {
+            line.append(" | ETA ").append(format(Duration.ofMillis((long) ((all - done) / throughput * 1000))));
+        }
+        return line.toString();
+    }
+
+    private static String format(Duration duration) {
+        return String.format(Locale.ROOT, "%02d:%02d:%02d", duration.toHours(), duration.toMinutesPart(), duration.toSecondsPart());
+    }
+
+    @Override
+    public void close() {
+        renderer.shutdownNow();
+        render();
+        out.println();
+    }
+}
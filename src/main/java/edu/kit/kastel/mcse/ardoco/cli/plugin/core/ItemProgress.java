@@ -0,0 +1,24 @@
+package edu.kit.kastel.mcse.ardoco.cli.plugin.core;
+
+/* Licensed under MIT 2023. */
+
+/**
+ * Receives the progress of an operation that processes one item after the other, e.g., indexing or copying the files of a code tree.
+ * Implementations must be thread-safe, as items may be processed in parallel.
+ */
+@FunctionalInterface
+public interface ItemProgress {
+    /**
+     * Progress that ignores all updates.
+     */
+    ItemProgress NONE = (processed, total) -> {
+        // ignore
+    };
+
+    /**
+     * Called when items have been processed.
+     * @param processed the number of processed items
+     * @param total the total number of items, or -1 if unknown
+     */
+    void processed(long processed, long total);
+}
@@ -0,0 +1,87 @@
+package edu.kit.kastel.mcse.ardoco.cli.plugin.core;
+
+/* Licensed under MIT 2023. */
+
+import java.io.Closeable;
+import java.io.PrintStream;
+
+/**
+ * Progress listener that writes one JSON object per event (JSON Lines), e.g. for an external orchestrator.
+ * Item updates are throttled to at most one every {@value #ITEM_INTERVAL_MILLIS} ms, except for the final one.
+ */
+public class JsonProgressWriter implements ProgressListener, Closeable {
+    private static final long ITEM_INTERVAL_MILLIS = 200;
+
+    private final PrintStream out;
+    private final boolean closeStream;
+    private long lastItemNanos;
+
+    /**
+     * Constructor for the JSON progress writer.
+     * @param out the stream to write the events to
+     * @param closeStream whether the stream should be closed together with this writer
+     */
+    public JsonProgressWriter(PrintStream out, boolean closeStream) {
+        this.out = out;
+        this.closeStream = closeStream;
+        this.lastItemNanos = System.nanoTime() - ITEM_INTERVAL_MILLIS * 1_000_000;
+    }
+
+    @Override
+    public void stageStarted(String task, String stage) {
+        write("stage-started", task, ",\"stage\":" + quote(stage));
+    }
+
+    @Override
+    public void stageFinished(String task, String stage) {
+        write("stage-finished", task, ",\"stage\":" + quote(stage));
+    }
+
+    @Override
+    public void itemsProcessed(String task, long processed, long total) {
+        long now = System.nanoTime();
+        synchronized (this) {
+            if (processed != total && now - lastItemNanos < ITEM_INTERVAL_MILLIS * 1_000_000) {
+                return;
+            }
+            lastItemNanos = now;
+        }
+        write("items-processed", task, ",\"processed\":" + processed + ",\"total\":" + total);
+    }
+
+    private synchronized void write(String event, String task, String fields) {
+        out.println("{\"timestamp\":" + System.currentTimeMillis() + ",\"event\":" + quote(event) + ",\"task\":" + quote(task) + fields + "}");
+        out.flush();
+    }
+
+    static String quote(String value) {
+        StringBuilder builder = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+            case '"' -> builder.append("\\\"");
+            case '\\' -> builder.append("\\\\");
+            case '\n' -> builder.append("\\n");
+            case '\r' -> builder.append("\\r");
+            case '\t' -> builder.append("\\t");
+            default -> {
+                if (c < 0x20) {
+                    builder.append(String.format("\\u%04x", (int) c));
+                } else {
+                    builder.append(c);
+                }
+            }
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closeStream) {
+            out.close();
+        } else {
+            out.flush();
+        }
+    }
+}
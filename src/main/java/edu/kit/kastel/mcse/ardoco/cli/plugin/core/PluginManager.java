@@ -2,12 +2,25 @@ package edu.kit.kastel.mcse.ardoco.cli.plugin.core;
 
 /* Licensed under MIT 2023. */
 
+import java.io.Closeable;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
@@ -19,15 +32,31 @@ import org.apache.commons.cli.ParseException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import edu.kit.kastel.mcse.ardoco.cli.history.HistoryRun;
+import edu.kit.kastel.mcse.ardoco.cli.history.HistoryStore;
+import edu.kit.kastel.mcse.ardoco.cli.profiling.CleanupEvent;
+import edu.kit.kastel.mcse.ardoco.cli.profiling.Profiler;
+import edu.kit.kastel.mcse.ardoco.cli.result.IdentifierPool;
+import edu.kit.kastel.mcse.ardoco.cli.result.LinkTable;
+
 /**
  * Manager for task plugins.
  */
 public class PluginManager {
     private static final Logger logger = LoggerFactory.getLogger(PluginManager.class);
+    static final String RUN_TASK = "run";
+    /**
+     * Time a cancelled plugin gets to stop before it is left running in the background.
+     */
+    private static final long CANCEL_GRACE_MILLIS = 2000;
 
     private final List<TaskPlugin> plugins;
     private final Options options;
     private final Map<String, TaskPlugin> taskNameToPlugin;
+    /**
+     * Plugins whose worker thread is still running, including workers that ignored a cancellation.
+     */
+    private final Set<TaskPlugin> runningPlugins = ConcurrentHashMap.newKeySet();
 
     /**
      * Constructor for the plugin manager.
@@ -56,9 +85,7 @@ public class PluginManager {
             taskNameToPlugin.put(plugin.getTaskName().toLowerCase(), plugin);
 
             // Add plugin's options to global options
-            for (Option option : plugin.getAllOptions()) {
-                options.addOption(option);
-            }
+            addPluginOptions(plugin);
 
             logger.info("Loaded plugin: {}", plugin.getTaskName());
         }
@@ -73,8 +100,19 @@ public class PluginManager {
         taskNameToPlugin.put(plugin.getTaskName().toLowerCase(), plugin);
 
         // Add plugin's options to global options
+        addPluginOptions(plugin);
+    }
+
+    /**
+     * Adds the options of a plugin to the global options.
+     * The options are added as optional, as the required ones are only checked for the selected plugins.
+     * @param plugin the plugin
+     */
+    private void addPluginOptions(TaskPlugin plugin) {
         for (Option option : plugin.getAllOptions()) {
-            options.addOption(option);
+            Option globalOption = (Option) option.clone();
+            globalOption.setRequired(false);
+            options.addOption(globalOption);
         }
     }
 
@@ -107,32 +145,99 @@ public class PluginManager {
         opt.setType(String.class);
         opt.setRequired(false);
         options.addOption(opt);
+
+        // Progress reporting
+        opt = new Option("p", "progress", false, "Show a live progress bar with throughput and ETA");
+        opt.setRequired(false);
+        options.addOption(opt);
+
+        // Checkpoints
+        opt = new Option("cp", "checkpoint", false,
+                "Write a checkpoint to the output directory after each completed stage (a direct SAD-CODE recovery is a single stage, "
+                        + "a transitive one checkpoints its SAD-SAM and SAM-CODE links separately)");
+        opt.setRequired(false);
+        options.addOption(opt);
+
+        opt = new Option("r", "resume", false, "Resume from the last completed stage if the inputs did not change (implies checkpoint)");
+        opt.setRequired(false);
+        options.addOption(opt);
+
+        // Timeouts
+        opt = new Option("to", "task-timeout", true, "Maximum execution time of each task in seconds");
+        opt.setType(String.class);
+        opt.setRequired(false);
+        options.addOption(opt);
+
+        opt = new Option("gto", "global-timeout", true, "Maximum execution time of all tasks together in seconds");
+        opt.setType(String.class);
+        opt.setRequired(false);
+        options.addOption(opt);
+
+        opt = new Option("pj", "progress-json", true, "Write progress events as JSON lines to the given file (- for stdout)");
+        opt.setType(String.class);
+        opt.setRequired(false);
+        options.addOption(opt);
+
+        // Profiling
+        opt = new Option("prof", "profile", false,
+                "Record the run with Java Flight Recorder and write the recording and a summary to the output directory");
+        opt.setRequired(false);
+        options.addOption(opt);
+
+        // Candidate pruning
+        opt = new Option("pc", "prune-code", false,
+                "Only pass code files sharing name tokens with model elements to the code model extraction");
+        opt.setRequired(false);
+        options.addOption(opt);
+
+        opt = new Option("syn", "synonyms", true, "Synonym file (lines of name=synonym1,synonym2) used when pruning code");
+        opt.setType(String.class);
+        opt.setRequired(false);
+        options.addOption(opt);
+
+        // Parallelism
+        opt = new Option("th", "threads", true, "Number of worker threads for reading code archives (default: 1)");
+        opt.setType(String.class);
+        opt.setRequired(false);
+        options.addOption(opt);
+
+        // Trace link history
+        opt = new Option("hist", "history", true, "History directory the trace links of each task are recorded in");
+        opt.setType(String.class);
+        opt.setRequired(false);
+        options.addOption(opt);
+
+        opt = new Option("hrun", "history-run", true, "Label of the run in the history (default: start time of the run)");
+        opt.setType(String.class);
+        opt.setRequired(false);
+        options.addOption(opt);
     }
 
     /**
      * Executes the appropriate plugins based on command line.
      * @param args command line arguments
+     * @return true if all requested tasks were executed without failure
      */
-    public void executePlugins(String[] args) {
+    public boolean executePlugins(String[] args) {
         CommandLine cmd;
         try {
             cmd = parseCommandLine(args);
         } catch (IllegalArgumentException | ParseException e) {
             logger.error(e.getMessage());
             printUsage();
-            return;
+            return false;
         }
 
         // Show help and exit if requested
         if (cmd.hasOption("h")) {
             printUsage();
-            return;
+            return true;
         }
 
         // Check if output directory is specified
         if (!cmd.hasOption("o")) {
             logger.error("No output directory specified.");
-            return;
+            return false;
         }
 
         File outputDir = new File(cmd.getOptionValue("o"));
@@ -140,38 +245,325 @@ public class PluginManager {
             outputDir.mkdirs();
         }
 
+        Profiler profiler = null;
+        if (cmd.hasOption("prof")) {
+            try {
+                profiler = Profiler.start();
+            } catch (IOException | IllegalStateException e) {
+                logger.warn("Could not start profiling. Continuing without profile.", e);
+            }
+        }
+
         // Execute based on task
-        if (cmd.hasOption("t")) {
-            String task = cmd.getOptionValue("t").toLowerCase();
-
-            if ("all".equals(task)) {
-                // Run all plugins
-                for (TaskPlugin plugin : plugins) {
-                    if (plugin.validateParameters(cmd)) {
-                        plugin.execute(cmd, outputDir);
-                    } else {
-                        logger.error("Cannot execute plugin {} due to missing parameters", plugin.getTaskName());
-                    }
-                }
-            } else if (taskNameToPlugin.containsKey(task)) {
-                // Run specific plugin
-                TaskPlugin plugin = taskNameToPlugin.get(task);
-                if (plugin.validateParameters(cmd)) {
-                    plugin.execute(cmd, outputDir);
+        boolean success = false;
+        try {
+            if (cmd.hasOption("t")) {
+                String task = cmd.getOptionValue("t").toLowerCase();
+
+                List<TaskPlugin> selectedPlugins;
+                if ("all".equals(task)) {
+                    // Run all plugins
+                    selectedPlugins = plugins.stream().filter(TaskPlugin::isPartOfAll).toList();
+                } else if (taskNameToPlugin.containsKey(task)) {
+                    // Run specific plugin
+                    selectedPlugins = List.of(taskNameToPlugin.get(task));
                 } else {
-                    logger.error("Cannot execute plugin {} due to missing parameters", plugin.getTaskName());
+                    logger.error("Invalid task provided: {}", task);
+                    printUsage();
+                    selectedPlugins = List.of();
                 }
+                success = executePlugins(cmd, selectedPlugins, outputDir);
             } else {
-                logger.error("Invalid task provided: {}", task);
+                logger.error("No task specified. Use the task parameter to specify which task to perform.");
                 printUsage();
             }
-        } else {
-            logger.error("No task specified. Use the task parameter to specify which task to perform.");
-            printUsage();
+        } finally {
+            // Cleanup after execution, unless a plugin that did not stop may still write to the output directory
+            if (runningPlugins.isEmpty()) {
+                cleanup(outputDir);
+            } else {
+                logger.warn("Skipping the cleanup of {}, as a cancelled plugin is still running", outputDir);
+            }
+            if (profiler != null) {
+                stopProfiler(profiler, outputDir);
+            }
+        }
+        return success;
+    }
+
+    /**
+     * Executes the given plugins one after another, reporting the progress to the configured listeners.
+     * @param cmd the command line
+     * @param selectedPlugins the plugins to execute
+     * @param outputDir the output directory
+     * @return true if all plugins were executed without failure
+     */
+    private boolean executePlugins(CommandLine cmd, List<TaskPlugin> selectedPlugins, File outputDir) {
+        if (selectedPlugins.isEmpty()) {
+            return false;
+        }
+
+        long taskTimeoutMillis;
+        long globalTimeoutMillis;
+        try {
+            taskTimeoutMillis = parseTimeoutMillis(cmd, "to");
+            globalTimeoutMillis = parseTimeoutMillis(cmd, "gto");
+        } catch (IllegalArgumentException e) {
+            logger.error(e.getMessage());
+            return false;
+        }
+        long deadline = globalTimeoutMillis > 0 ? System.currentTimeMillis() + globalTimeoutMillis : Long.MAX_VALUE;
+
+        List<ProgressListener> listeners = createProgressListeners(cmd);
+        StageTracker stageTracker = new StageTracker();
+        List<ProgressListener> allListeners = new ArrayList<>(listeners);
+        allListeners.add(stageTracker);
+        if (cmd.hasOption("prof")) {
+            allListeners.add(new ProfilingListener());
+        }
+        ProgressListener progress = new CompositeProgressListener(allListeners);
+
+        String historyRun = cmd.getOptionValue("hrun", Instant.now().toString());
+        boolean success = true;
+        try {
+            int executed = 0;
+            progress.itemsProcessed(RUN_TASK, executed, selectedPlugins.size());
+            for (TaskPlugin plugin : selectedPlugins) {
+                long remainingMillis = deadline - System.currentTimeMillis();
+                if (Thread.currentThread().isInterrupted()) {
+                    logger.error("Execution was cancelled. Skipping plugin {}", plugin.getTaskName());
+                    success = false;
+                } else if (!runningPlugins.isEmpty()) {
+                    logger.error("A cancelled plugin is still writing to the output directory. Skipping plugin {}", plugin.getTaskName());
+                    success = false;
+                } else if (remainingMillis <= 0) {
+                    logger.error("Global timeout reached. Skipping plugin {}", plugin.getTaskName());
+                    success = false;
+                } else if (plugin.validateParameters(cmd)) {
+                    long timeoutMillis = taskTimeoutMillis > 0 ? Math.min(taskTimeoutMillis, remainingMillis) : remainingMillis;
+                    // file systems with coarse timestamps store the modification time in whole seconds
+                    long startMillis = System.currentTimeMillis() / 1000 * 1000;
+                    boolean completed = executePlugin(plugin, cmd, outputDir, timeoutMillis, progress, stageTracker);
+                    if (completed && cmd.hasOption("hist")) {
+                        recordHistory(plugin, cmd, outputDir, historyRun, startMillis);
+                    }
+                    success &= completed;
+                } else {
+                    logger.error("Cannot execute plugin {} due to missing or conflicting parameters", plugin.getTaskName());
+                    success = false;
+                }
+                progress.itemsProcessed(RUN_TASK, ++executed, selectedPlugins.size());
+            }
+        } finally {
+            for (ProgressListener listener : listeners) {
+                closeQuietly(listener);
+            }
+        }
+        return success;
+    }
+
+    /**
+     * Executes a single plugin on a worker thread and waits for it at most the given time.
+     * A plugin that exceeds the time, or whose caller is interrupted, is cancelled and interrupted, and counts as failed; results it
+     * has written so far are kept. If it does not stop within {@value #CANCEL_GRACE_MILLIS} ms, it is left running in the
+     * background and neither it nor the output directory are used again until it ends.
+     * @param plugin the plugin
+     * @param cmd the command line
+     * @param outputDir the output directory
+     * @param timeoutMillis the maximum execution time
+     * @param progress the progress listener
+     * @param stageTracker the tracker of the current stages
+     * @return true if the plugin completed in time, without exception and without reporting a failure
+     */
+    private boolean executePlugin(TaskPlugin plugin, CommandLine cmd, File outputDir, long timeoutMillis, ProgressListener progress,
+            StageTracker stageTracker) {
+        String taskName = plugin.getTaskName();
+        if (!runningPlugins.add(plugin)) {
+            logger.error("Plugin {} is still running a cancelled execution and cannot be started again", taskName);
+            return false;
+        }
+        plugin.resetCancellation();
+        plugin.setProgressListener(progress);
+        FutureTask<Boolean> execution = new FutureTask<>(() -> {
+            progress.stageStarted(taskName, RUN_TASK);
+            try {
+                return plugin.run(cmd, outputDir);
+            } finally {
+                progress.stageFinished(taskName, RUN_TASK);
+            }
+        });
+        Thread worker = new Thread(() -> {
+            try {
+                execution.run();
+            } finally {
+                runningPlugins.remove(plugin);
+            }
+        }, "task-plugin-" + taskName);
+        worker.setDaemon(true);
+        worker.start();
+
+        try {
+            if (!execution.get(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                logger.error("Plugin {} failed in stage '{}'", taskName, stageTracker.getStage(taskName));
+                return false;
+            }
+            return true;
+        } catch (TimeoutException e) {
+            logger.error("Plugin {} timed out after {} s in stage '{}'. Results written so far are kept.", taskName, timeoutMillis / 1000,
+                    stageTracker.getStage(taskName));
+            stop(plugin, execution, worker);
+            return false;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof TaskCancelledException) {
+                logger.warn(e.getCause().getMessage());
+            } else {
+                logger.error("Plugin {} failed in stage '{}'", taskName, stageTracker.getStage(taskName), e.getCause());
+            }
+            return false;
+        } catch (InterruptedException e) {
+            logger.error("Plugin {} was cancelled in stage '{}'", taskName, stageTracker.getStage(taskName));
+            // the interrupt is cleared while waiting for the plugin to stop and restored for the caller afterwards
+            stop(plugin, execution, worker);
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Cancels a running plugin and waits for its worker thread to end.
+     * @param plugin the plugin
+     * @param execution the execution of the plugin
+     * @param worker the worker thread
+     */
+    private static void stop(TaskPlugin plugin, Future<?> execution, Thread worker) {
+        plugin.cancel();
+        execution.cancel(true);
+        try {
+            worker.join(CANCEL_GRACE_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (worker.isAlive()) {
+            logger.error("Plugin {} did not stop after cancellation and keeps running in the background. Its output is incomplete.",
+                    plugin.getTaskName());
+        }
+    }
+
+    /**
+     * Records the trace links a plugin wrote in the history directory. Plugins without trace links, or whose result file was not
+     * written since the plugin started, e.g., the result of an earlier run that the plugin failed to replace, are not recorded.
+     * @param plugin the plugin
+     * @param cmd the command line
+     * @param outputDir the output directory
+     * @param runId the label of the run
+     * @param startMillis the time the plugin started
+     */
+    private void recordHistory(TaskPlugin plugin, CommandLine cmd, File outputDir, String runId, long startMillis) {
+        String name = cmd.getOptionValue("n");
+        File resultFile = name == null ? null : plugin.getResultFile(outputDir, name);
+        if (resultFile == null || !resultFile.isFile()) {
+            return;
+        }
+        if (resultFile.lastModified() < startMillis) {
+            logger.warn("{} did not write {} in this run. Not recording it in the history.", plugin.getTaskName(), resultFile.getName());
+            return;
+        }
+        LinkTable links = plugin.readResult(outputDir, name, new IdentifierPool());
+        if (links == null) {
+            return;
+        }
+        try {
+            HistoryRun run = new HistoryStore(new File(cmd.getOptionValue("hist"))).append(runId, plugin.getTaskName(), name, links);
+            logger.info("Recorded {} trace links of {} as run {} in the history", run.linkCount(), plugin.getTaskName(), run.id());
+        } catch (IOException e) {
+            logger.warn("Could not record trace links of {} in the history", plugin.getTaskName(), e);
+        }
+    }
+
+    /**
+     * Parses a timeout option given in seconds.
+     * @param cmd the command line
+     * @param option the option
+     * @return the timeout in milliseconds, or 0 if no timeout is set
+     */
+    private static long parseTimeoutMillis(CommandLine cmd, String option) {
+        if (!cmd.hasOption(option)) {
+            return 0;
+        }
+        String value = cmd.getOptionValue(option);
+        try {
+            long seconds = Long.parseLong(value);
+            if (seconds <= 0) {
+                throw new IllegalArgumentException("Timeout must be positive: " + value);
+            }
+            return TimeUnit.SECONDS.toMillis(seconds);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid timeout: " + value, e);
+        }
+    }
+
+    /**
+     * Creates the progress listeners requested on the command line.
+     * @param cmd the command line
+     * @return the progress listeners, empty if no progress reporting was requested
+     */
+    private List<ProgressListener> createProgressListeners(CommandLine cmd) {
+        List<ProgressListener> listeners = new ArrayList<>();
+        if (cmd.hasOption("p")) {
+            ConsoleProgressBar progressBar = new ConsoleProgressBar(System.err);
+            progressBar.start();
+            listeners.add(progressBar);
+        }
+        if (cmd.hasOption("pj")) {
+            String target = cmd.getOptionValue("pj");
+            if ("-".equals(target)) {
+                listeners.add(new JsonProgressWriter(System.out, false));
+            } else {
+                try {
+                    PrintStream stream = new PrintStream(new FileOutputStream(target, true), true, StandardCharsets.UTF_8);
+                    listeners.add(new JsonProgressWriter(stream, true));
+                } catch (IOException e) {
+                    logger.warn("Cannot write progress events to {}", target, e);
+                }
+            }
+        }
+        return listeners;
+    }
+
+    private static void closeQuietly(Object resource) {
+        if (resource instanceof Closeable closeable) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                logger.warn("Error closing {}", resource, e);
+            }
+        }
+    }
+
+    /**
+     * Progress listener that remembers the current stage of each task.
+     */
+    private static final class StageTracker implements ProgressListener {
+        private final Map<String, String> currentStages = new ConcurrentHashMap<>();
+
+        @Override
+        public void stageStarted(String task, String stage) {
+            currentStages.put(task, stage);
+        }
+
+        @Override
+        public void stageFinished(String task, String stage) {
+            // keep the last stage for reporting
         }
 
-        // Cleanup after execution
-        cleanup(outputDir);
+        @Override
+        public void itemsProcessed(String task, long processed, long total) {
+            // not tracked
+        }
+
+        private String getStage(String task) {
+            return currentStages.getOrDefault(task, "not started");
+        }
     }
 
     /**
@@ -202,11 +594,28 @@ public class PluginManager {
         }
     }
 
+    /**
+     * Stops the profiler and writes the profile into the output directory. Failures are only logged, so they do not replace the
+     * outcome or the failure of the run.
+     * @param profiler the profiler
+     * @param outputDir the output directory
+     */
+    private void stopProfiler(Profiler profiler, File outputDir) {
+        try {
+            profiler.stop(outputDir);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not write profile", e);
+        }
+    }
+
     /**
      * Cleans up temporary files.
      * @param outputDir the output directory
      */
     private void cleanup(File outputDir) {
+        CleanupEvent event = new CleanupEvent();
+        event.directory = outputDir.getPath();
+        event.begin();
         // Delete temporary files
         final String[] patternsToDelete = {
             "inconsistencyDetection_.*\\.txt",
@@ -225,5 +634,6 @@ public class PluginManager {
                 }
             }
         }
+        event.commit();
     }
 }
\ No newline at end of file
@@ -0,0 +1,58 @@
+package edu.kit.kastel.mcse.ardoco.cli.plugin.core;
+
+/* Licensed under MIT 2023. */
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import edu.kit.kastel.mcse.ardoco.cli.profiling.InputLoadingEvent;
+import edu.kit.kastel.mcse.ardoco.cli.profiling.PluginExecutionEvent;
+import edu.kit.kastel.mcse.ardoco.cli.profiling.StageEvent;
+
+import jdk.jfr.Event;
+
+/**
+ * Progress listener that turns the stages of the plugins into JFR events: the whole execution of a plugin, the loading of its inputs
+ * and all other stages.
+ */
+class ProfilingListener implements ProgressListener {
+    private final Map<String, Event> openEvents = new ConcurrentHashMap<>();
+
+    @Override
+    public void stageStarted(String task, String stage) {
+        Event event;
+        if (PluginManager.RUN_TASK.equals(stage)) {
+            PluginExecutionEvent pluginEvent = new PluginExecutionEvent();
+            pluginEvent.task = task;
+            event = pluginEvent;
+        } else if (TaskPlugin.STAGE_LOADING_INPUTS.equals(stage)) {
+            InputLoadingEvent inputEvent = new InputLoadingEvent();
+            inputEvent.task = task;
+            event = inputEvent;
+        } else {
+            StageEvent stageEvent = new StageEvent();
+            stageEvent.task = task;
+            stageEvent.stage = stage;
+            event = stageEvent;
+        }
+        event.begin();
+        openEvents.put(key(task, stage), event);
+    }
+
+    @Override
+    public void stageFinished(String task, String stage) {
+        Event event = openEvents.remove(key(task, stage));
+        if (event != null) {
+            event.commit();
+        }
+    }
+
+    @Override
+    public void itemsProcessed(String task, long processed, long total) {
+        // not recorded
+    }
+
+    private static String key(String task, String stage) {
+        return task + '\0' + stage;
+    }
+}
@@ -0,0 +1,51 @@
+package edu.kit.kastel.mcse.ardoco.cli.plugin.core;
+
+/* Licensed under MIT 2023. */
+
+/**
+ * Listener for progress events of task plugins and the plugin manager.
+ * Implementations must be thread-safe and cheap, as events may be reported from hot loops.
+ */
+public interface ProgressListener {
+    /**
+     * Listener that ignores all events.
+     */
+    ProgressListener NO_OP = new ProgressListener() {
+        @Override
+        public void stageStarted(String task, String stage) {
+            // ignore
+        }
+
+        @Override
+        public void stageFinished(String task, String stage) {
+            // ignore
+        }
+
+        @Override
+        public void itemsProcessed(String task, long processed, long total) {
+            // ignore
+        }
+    };
+
+    /**
+     * Called when a stage of a task starts.
+     * @param task the task name
+     * @param stage the stage name
+     */
+    void stageStarted(String task, String stage);
+
+    /**
+     * Called when a stage of a task finishes.
+     * @param task the task name
+     * @param stage the stage name
+     */
+    void stageFinished(String task, String stage);
+
+    /**
+     * Called when items of a task have been processed.
+     * @param task the task name
+     * @param processed the number of processed items
+     * @param total the total number of items, or -1 if unknown
+     */
+    void itemsProcessed(String task, long processed, long total);
+}
@@ -0,0 +1,19 @@
+package edu.kit.kastel.mcse.ardoco.cli.plugin.core;
+
+/* Licensed under MIT 2023. */
+
+/**
+ * Thrown by a task plugin that stops because its execution was cancelled, e.g. after a timeout.
+ */
+public class TaskCancelledException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructor for the exception.
+     * @param task the cancelled task
+     * @param stage the stage in which the task noticed the cancellation
+     */
+    public TaskCancelledException(String task, String stage) {
+        super("Task " + task + " was cancelled before stage " + stage);
+    }
+}
@@ -4,14 +4,29 @@ package edu.kit.kastel.mcse.ardoco.cli.plugin.core;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.Option;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import edu.kit.kastel.mcse.ardoco.cli.checkpoint.CheckpointStore;
+import edu.kit.kastel.mcse.ardoco.cli.code.CodeArchive;
+import edu.kit.kastel.mcse.ardoco.cli.code.IdentifierIndex;
+import edu.kit.kastel.mcse.ardoco.cli.code.ModelElementNames;
+import edu.kit.kastel.mcse.ardoco.cli.code.PrunedCodeTree;
+import edu.kit.kastel.mcse.ardoco.cli.io.Fingerprints;
+import edu.kit.kastel.mcse.ardoco.cli.result.IdentifierPool;
+import edu.kit.kastel.mcse.ardoco.cli.result.LinkTable;
+import edu.kit.kastel.mcse.ardoco.cli.result.TraceLinkFiles;
+
 /**
  * Abstract base class for task plugins.
  */
@@ -19,6 +34,19 @@ public abstract class TaskPlugin {
     protected static final Logger logger = LoggerFactory.getLogger(TaskPlugin.class);
     protected static final String ERROR_FILE_NOT_EXISTING = "The specified file does not exist and/or could not be created: ";
     protected static final String ERROR_READING_FILES = "Error in reading files and/or directories!";
+    protected static final String STAGE_LOADING_INPUTS = "loading inputs";
+    protected static final String STAGE_LINK_RECOVERY = "link recovery";
+    protected static final String STAGE_PRUNING_CODE = "pruning code";
+    protected static final String STAGE_OPENING_ARCHIVE = "opening code archive";
+    private static final String INDEX_CACHE_DIR = ".ardoco-cache/index";
+    private static final String CODE_CACHE_DIR = ".ardoco-cache/code";
+
+    private ProgressListener progressListener = ProgressListener.NO_OP;
+    private volatile boolean cancelled;
+    /**
+     * Stages started but not yet finished by the current execution, the innermost first.
+     */
+    private final Deque<String> openStages = new ArrayDeque<>();
 
     /**
      * Gets the prefix for this plugin's options.
@@ -40,11 +68,109 @@ public abstract class TaskPlugin {
 
 
     /**
-     * Executes the plugin task.
+     * Executes the plugin task. Failures the task can handle, e.g., missing inputs, are logged and reported by the return value.
+     * @param cmd the command line
+     * @param outputDir the output directory
+     * @return true if the task completed, false if it failed
+     */
+    public abstract boolean execute(CommandLine cmd, File outputDir);
+
+    /**
+     * Executes the plugin task and finishes the stages the execution left open, e.g., by returning early on an error or by throwing.
      * @param cmd the command line
      * @param outputDir the output directory
+     * @return true if the task completed, false if it failed
+     */
+    final boolean run(CommandLine cmd, File outputDir) {
+        try {
+            return execute(cmd, outputDir);
+        } finally {
+            while (!openStages.isEmpty()) {
+                finishStage(openStages.peek());
+            }
+        }
+    }
+
+    /**
+     * Sets the listener that receives the progress events of this plugin.
+     * @param progressListener the listener
+     */
+    public void setProgressListener(ProgressListener progressListener) {
+        this.progressListener = progressListener == null ? ProgressListener.NO_OP : progressListener;
+    }
+
+    /**
+     * Requests cooperative cancellation of a running execution.
+     * The plugin stops at the next stage boundary or cancellation check.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Checks whether cancellation of the current execution was requested.
+     * @return true if the execution was cancelled or the executing thread was interrupted
+     */
+    public boolean isCancelled() {
+        return cancelled || Thread.currentThread().isInterrupted();
+    }
+
+    /**
+     * Resets the cancellation state before a new execution.
+     */
+    void resetCancellation() {
+        cancelled = false;
+    }
+
+    /**
+     * Stops the execution if cancellation was requested.
+     * @param stage the stage that would be executed next
+     * @throws TaskCancelledException if the execution was cancelled
+     */
+    protected void checkCancelled(String stage) {
+        if (isCancelled()) {
+            throw new TaskCancelledException(getTaskName(), stage);
+        }
+    }
+
+    /**
+     * Reports that a stage of this task has started. Stops the execution if it was cancelled.
+     * @param stage the stage name
+     * @throws TaskCancelledException if the execution was cancelled
      */
-    public abstract void execute(CommandLine cmd, File outputDir);
+    protected void startStage(String stage) {
+        checkCancelled(stage);
+        openStages.push(stage);
+        progressListener.stageStarted(getTaskName(), stage);
+    }
+
+    /**
+     * Reports that a stage of this task has finished. Stages that are not open are ignored. Stages left open when the execution ends
+     * are finished by {@link #run(CommandLine, File)}.
+     * @param stage the stage name
+     */
+    protected void finishStage(String stage) {
+        if (openStages.removeFirstOccurrence(stage)) {
+            progressListener.stageFinished(getTaskName(), stage);
+        }
+    }
+
+    /**
+     * Reports the number of processed items of this task.
+     * @param processed the number of processed items
+     * @param total the total number of items, or -1 if unknown
+     */
+    protected void reportItems(long processed, long total) {
+        progressListener.itemsProcessed(getTaskName(), processed, total);
+    }
+
+    /**
+     * Checks whether this plugin runs as part of the task ALL.
+     * @return true if the plugin is a traceability link recovery task
+     */
+    public boolean isPartOfAll() {
+        return true;
+    }
 
     /**
      * Checks if this plugin handles the given task.
@@ -56,9 +182,9 @@ public abstract class TaskPlugin {
     }
 
     /**
-     * Validates that all required parameters are present.
+     * Validates the parameters. By default, checks that all required parameters are present; plugins may reject conflicting options.
      * @param cmd the command line
-     * @return true if all required parameters are present
+     * @return true if the parameters are valid
      */
     public boolean validateParameters(CommandLine cmd) {
         for (Option option : getRequiredOptions()) {
@@ -111,6 +237,247 @@ public abstract class TaskPlugin {
         return file;
     }
 
+    /**
+     * Checks whether checkpointing or resuming was requested.
+     * @param cmd the command line
+     * @return true if completed stages are checkpointed
+     */
+    private static boolean isCheckpointing(CommandLine cmd) {
+        return cmd.hasOption("cp") || cmd.hasOption("r");
+    }
+
+    /**
+     * Opens the checkpoint store for a run of this task if checkpointing or resuming was requested.
+     * @param cmd the command line
+     * @param outputDir the output directory
+     * @param name the project name
+     * @param inputs the input files and directories whose content must match when resuming
+     * @return the checkpoint store, or a disabled store; the options selecting the code handed to the runners are part of the fingerprint
+     */
+    protected CheckpointStore openCheckpoint(CommandLine cmd, File outputDir, String name, List<File> inputs) {
+        if (!isCheckpointing(cmd)) {
+            return CheckpointStore.disabled();
+        }
+        try {
+            String fingerprint = Fingerprints.of(getTaskName() + "\n" + name + "\n" + Fingerprints.of(inputs) + "\n" + codeOptions(cmd));
+            return CheckpointStore.open(outputDir, getTaskName(), name, fingerprint, cmd.hasOption("r"));
+        } catch (IOException e) {
+            logger.warn("Could not open checkpoint for {}. Continuing without checkpoints.", getTaskName(), e);
+            return CheckpointStore.disabled();
+        }
+    }
+
+    private String codeOptions(CommandLine cmd) throws IOException {
+        File synonyms = cmd.hasOption("syn") ? new File(cmd.getOptionValue("syn")) : null;
+        return "prune-code=" + cmd.hasOption("pc") + "\nsynonyms=" + (synonyms == null ? "" : Fingerprints.of(List.of(synonyms)));
+    }
+
+    /**
+     * Body of a stage run through {@link #runStage(CheckpointStore, String, File, List, StageBody)}.
+     */
+    @FunctionalInterface
+    protected interface StageBody {
+        /**
+         * Runs the stage.
+         * @throws IOException if the stage fails
+         */
+        void run() throws IOException;
+    }
+
+    /**
+     * Runs a stage, or restores its files from the checkpoint if it was completed before. The stage only counts as completed, and is
+     * only checkpointed, if its body returns normally and wrote all products during this run; a product left over from an earlier
+     * run does not count.
+     * @param checkpoint the checkpoint store
+     * @param stage the stage name
+     * @param outputDir the output directory
+     * @param products the files the stage writes
+     * @param body the stage itself
+     * @return true if the stage was completed or restored
+     */
+    protected boolean runStage(CheckpointStore checkpoint, String stage, File outputDir, List<File> products, StageBody body) {
+        startStage(stage);
+        try {
+            if (checkpoint.isCompleted(stage) && checkpoint.restore(stage, outputDir)) {
+                logger.info("Stage {} of {} restored from checkpoint.", stage, getTaskName());
+                return true;
+            }
+            // file systems with coarse timestamps store the modification time in whole seconds
+            long start = System.currentTimeMillis() / 1000 * 1000;
+            try {
+                body.run();
+            } catch (IOException e) {
+                logger.error("Stage {} of {} failed", stage, getTaskName(), e);
+                return false;
+            }
+            List<File> stale = products.stream().filter(Objects::nonNull).filter(file -> !file.isFile() || file.lastModified() < start)
+                    .toList();
+            if (!stale.isEmpty()) {
+                logger.error("Stage {} of {} did not write {}", stage, getTaskName(), stale);
+                return false;
+            }
+            checkpoint.complete(stage, products.stream().filter(Objects::nonNull).toList());
+            return true;
+        } finally {
+            finishStage(stage);
+        }
+    }
+
+    /**
+     * Gets the code input, handling code directories, code model files and source archives (see {@link CodeArchive}).
+     * @param path the path to the code
+     * @return the code directory or file
+     * @throws IOException if the code doesn't exist
+     */
+    protected File getCodeDirectory(String path) throws IOException {
+        return ensureFile(path);
+    }
+
+    /**
+     * Prunes the code tree to the files sharing identifier tokens with the model element names if requested by the option
+     * {@code prune-code}. The identifier index of the code tree is cached in the output directory.
+     * <p>
+     * If the code is a source archive, it is indexed and pruned in the archive, and only the kept files are copied out of it; the
+     * returned tree closes the archive. Without pruning, the archive is extracted once into a cache in the output directory and the
+     * extracted tree is reused by later runs on the same archive.
+     * @param cmd the command line
+     * @param code the code directory, code model file or source archive
+     * @param model the architecture model
+     * @param outputDir the output directory
+     * @return the pruned tree, or the unpruned code if pruning is not requested or not possible
+     * @throws UncheckedIOException if the code is an archive that cannot be read
+     */
+    protected PrunedCodeTree pruneCode(CommandLine cmd, File code, File model, File outputDir) {
+        if (!CodeArchive.isArchive(code)) {
+            return code.isDirectory() ? pruneCode(cmd, code.toPath(), model, outputDir) : PrunedCodeTree.unpruned(code);
+        }
+        if (!cmd.hasOption("pc")) {
+            return extractedCode(cmd, code, outputDir);
+        }
+        startStage(STAGE_OPENING_ARCHIVE);
+        CodeArchive archive;
+        try {
+            archive = CodeArchive.open(code, getThreads(cmd));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read code archive " + code, e);
+        } finally {
+            finishStage(STAGE_OPENING_ARCHIVE);
+        }
+        try {
+            return pruneCode(cmd, archive.getRoot(), model, outputDir).closing(archive);
+        } catch (RuntimeException e) {
+            try {
+                archive.close();
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    private PrunedCodeTree pruneCode(CommandLine cmd, Path root, File model, File outputDir) {
+        if (!cmd.hasOption("pc")) {
+            return unprunedCode(cmd, root);
+        }
+        startStage(STAGE_PRUNING_CODE);
+        try {
+            List<String> names = ModelElementNames.read(model);
+            if (cmd.hasOption("syn")) {
+                names = ModelElementNames.withSynonyms(ensureFile(cmd.getOptionValue("syn")), names);
+            }
+            IdentifierIndex index = IdentifierIndex.open(root, new File(outputDir, INDEX_CACHE_DIR), this::reportItems);
+            return PrunedCodeTree.create(root, index, names, getThreads(cmd), this::reportItems);
+        } catch (IOException e) {
+            logger.warn("Could not prune the code tree. Using the complete code tree.", e);
+            return unprunedCode(cmd, root);
+        } finally {
+            finishStage(STAGE_PRUNING_CODE);
+        }
+    }
+
+    private PrunedCodeTree extractedCode(CommandLine cmd, File archive, File outputDir) {
+        startStage(STAGE_OPENING_ARCHIVE);
+        try {
+            File directory = CodeArchive.extract(archive, new File(outputDir, CODE_CACHE_DIR), getThreads(cmd), this::reportItems);
+            return PrunedCodeTree.unpruned(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not extract code archive " + archive, e);
+        } finally {
+            finishStage(STAGE_OPENING_ARCHIVE);
+        }
+    }
+
+    private PrunedCodeTree unprunedCode(CommandLine cmd, Path root) {
+        try {
+            return PrunedCodeTree.unpruned(root, getThreads(cmd), this::reportItems);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not copy the code tree " + root, e);
+        }
+    }
+
+    /**
+     * Gets the number of worker threads of the option {@code threads}.
+     * @param cmd the command line
+     * @return the number of threads, 1 if not specified or invalid
+     */
+    protected int getThreads(CommandLine cmd) {
+        if (!cmd.hasOption("th")) {
+            return 1;
+        }
+        try {
+            int threads = Integer.parseInt(cmd.getOptionValue("th"));
+            if (threads > 0) {
+                return threads;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        logger.warn("Invalid number of threads: {}. Using one thread.", cmd.getOptionValue("th"));
+        return 1;
+    }
+
+    /**
+     * Gets the prefix of the trace link file this plugin writes, e.g. {@code sadSamTlr_}.
+     * @return the file prefix, or null if the task does not produce trace links
+     */
+    public String getResultFilePrefix() {
+        return null;
+    }
+
+    /**
+     * Gets the trace link file of a project in the output directory.
+     * @param outputDir the output directory
+     * @param name the project name
+     * @return the result file, or null if the task does not produce trace links
+     */
+    public File getResultFile(File outputDir, String name) {
+        String prefix = getResultFilePrefix();
+        if (prefix == null) {
+            return null;
+        }
+        return new File(outputDir, prefix + name + ".csv");
+    }
+
+    /**
+     * Reads the trace links written by this plugin into an interned link table.
+     * @param outputDir the output directory
+     * @param name the project name
+     * @param pool the pool to intern the identifiers in
+     * @return the links, or null if no result file is available
+     */
+    public LinkTable readResult(File outputDir, String name, IdentifierPool pool) {
+        File resultFile = getResultFile(outputDir, name);
+        if (resultFile == null || !resultFile.isFile()) {
+            return null;
+        }
+        try {
+            return TraceLinkFiles.read(resultFile, pool);
+        } catch (IOException e) {
+            logger.warn("Could not read trace links from {}", resultFile, e);
+            return null;
+        }
+    }
+
     /**
      * Gets a map of option prefixes and descriptions for help text.
      * @return map of prefixes to descriptions
@@ -0,0 +1,161 @@
+package edu.kit.kastel.mcse.ardoco.cli.plugin.task;
+
+/* Licensed under MIT 2023. */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.Option;
+
+import edu.kit.kastel.mcse.ardoco.cli.eval.EvaluationResult;
+import edu.kit.kastel.mcse.ardoco.cli.eval.GoldStandards;
+import edu.kit.kastel.mcse.ardoco.cli.eval.LinkSetComparator;
+import edu.kit.kastel.mcse.ardoco.cli.plugin.core.TaskPlugin;
+import edu.kit.kastel.mcse.ardoco.cli.profiling.OutputWritingEvent;
+
+/**
+ * Plugin that evaluates a trace link file against a gold standard.
+ */
+public class EvaluationTaskPlugin extends TaskPlugin {
+    private static final String PREFIX = "eval";
+    private static final String TASK_NAME = "eval";
+
+    private static final String CMD_RESULT = PREFIX + "-r";
+    private static final String CMD_GOLD_STANDARD = PREFIX + "-g";
+    private static final String CMD_CODE = PREFIX + "-c";
+    private static final String CMD_COLUMNS = PREFIX + "-columns";
+    private static final String CMD_CACHE = PREFIX + "-cache";
+    private static final String DEFAULT_CACHE_DIR = ".ardoco-cache/gold";
+    private static final String STAGE_PREPARING_GOLD_STANDARD = "preparing gold standard";
+    private static final String STAGE_COMPARING = "comparing links";
+
+    @Override
+    public String getPrefix() {
+        return PREFIX;
+    }
+
+    @Override
+    public String getTaskName() {
+        return TASK_NAME;
+    }
+
+    @Override
+    public boolean isPartOfAll() {
+        return false;
+    }
+
+    @Override
+    public List<Option> getRequiredOptions() {
+        List<Option> options = new ArrayList<>();
+
+        Option opt = new Option(CMD_RESULT, "eval-result", true, "Path to the trace link file to evaluate");
+        opt.setType(String.class);
+        opt.setRequired(true);
+        options.add(opt);
+
+        opt = new Option(CMD_GOLD_STANDARD, "eval-gold-standard", true, "Path to the gold standard");
+        opt.setType(String.class);
+        opt.setRequired(true);
+        options.add(opt);
+
+        return options;
+    }
+
+    @Override
+    public List<Option> getAllOptions() {
+        List<Option> options = new ArrayList<>(getRequiredOptions());
+
+        Option opt = new Option(CMD_CODE, "eval-code", true, "Path to the code to enroll directory entries of the gold standard");
+        opt.setType(String.class);
+        opt.setRequired(false);
+        options.add(opt);
+
+        opt = new Option(CMD_COLUMNS, "eval-columns", true, "Source and target column of the gold standard, e.g. modelElementID,sentence");
+        opt.setType(String.class);
+        opt.setRequired(false);
+        options.add(opt);
+
+        opt = new Option(CMD_CACHE, "eval-cache", true, "Directory for prepared gold standards (default: <output>/" + DEFAULT_CACHE_DIR + ")");
+        opt.setType(String.class);
+        opt.setRequired(false);
+        options.add(opt);
+
+        return options;
+    }
+
+    @Override
+    public boolean execute(CommandLine cmd, File outputDir) {
+        logger.info("Starting evaluation task.");
+
+        File result;
+        File goldStandard;
+        File code = null;
+        startStage(STAGE_LOADING_INPUTS);
+        try {
+            result = ensureFile(cmd.getOptionValue(CMD_RESULT));
+            goldStandard = ensureFile(cmd.getOptionValue(CMD_GOLD_STANDARD));
+            if (cmd.hasOption(CMD_CODE)) {
+                code = ensureFile(cmd.getOptionValue(CMD_CODE));
+            }
+        } catch (IOException e) {
+            logger.error(ERROR_READING_FILES, e);
+            return false;
+        }
+        String sourceColumn = null;
+        String targetColumn = null;
+        if (cmd.hasOption(CMD_COLUMNS)) {
+            String[] columns = cmd.getOptionValue(CMD_COLUMNS).split(",");
+            if (columns.length != 2) {
+                logger.error("Expected two gold standard columns, but got: {}", cmd.getOptionValue(CMD_COLUMNS));
+                return false;
+            }
+            sourceColumn = columns[0].trim();
+            targetColumn = columns[1].trim();
+        }
+        File cacheDir = cmd.hasOption(CMD_CACHE) ? ensureDir(cmd.getOptionValue(CMD_CACHE)) : new File(outputDir, DEFAULT_CACHE_DIR);
+        finishStage(STAGE_LOADING_INPUTS);
+
+        long start = System.nanoTime();
+        try {
+            startStage(STAGE_PREPARING_GOLD_STANDARD);
+            File preparedGoldStandard = GoldStandards.prepare(goldStandard, sourceColumn, targetColumn, code, cacheDir);
+            finishStage(STAGE_PREPARING_GOLD_STANDARD);
+
+            startStage(STAGE_COMPARING);
+            EvaluationResult evaluation = LinkSetComparator.compare(result, preparedGoldStandard);
+            finishStage(STAGE_COMPARING);
+
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            logger.info("Evaluation of {}: {} in {} ms", result.getName(), evaluation, millis);
+            File report = new File(outputDir, "evaluation_" + result.getName().replaceFirst("\\.csv$", "") + ".txt");
+            OutputWritingEvent event = OutputWritingEvent.begin(report);
+            Files.writeString(report.toPath(), evaluation + System.lineSeparator(), StandardCharsets.UTF_8);
+            event.entries = 1;
+            event.commit();
+        } catch (IOException e) {
+            logger.error("Error during evaluation of {}", result, e);
+            return false;
+        }
+
+        logger.info("Evaluation task completed.");
+        return true;
+    }
+
+    @Override
+    public Map<String, String> getOptionPrefixDescriptions() {
+        Map<String, String> descriptions = new HashMap<>();
+        descriptions.put(CMD_RESULT, "Path to the trace link file to evaluate");
+        descriptions.put(CMD_GOLD_STANDARD, "Path to the gold standard");
+        descriptions.put(CMD_CODE, "Path to the code to enroll the gold standard (optional)");
+        descriptions.put(CMD_COLUMNS, "Source and target column of the gold standard (optional)");
+        descriptions.put(CMD_CACHE, "Directory for prepared gold standards (optional)");
+        return descriptions;
+    }
+}
@@ -0,0 +1,217 @@
+package edu.kit.kastel.mcse.ardoco.cli.plugin.task;
+
+/* Licensed under MIT 2023. */
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.Option;
+
+import edu.kit.kastel.mcse.ardoco.cli.api.TraceLink;
+import edu.kit.kastel.mcse.ardoco.cli.history.HistoryDiff;
+import edu.kit.kastel.mcse.ardoco.cli.history.HistoryRun;
+import edu.kit.kastel.mcse.ardoco.cli.history.HistoryStore;
+import edu.kit.kastel.mcse.ardoco.cli.plugin.core.TaskPlugin;
+import edu.kit.kastel.mcse.ardoco.cli.profiling.OutputWritingEvent;
+
+/**
+ * Plugin that queries the trace link history recorded with the option {@code history}: the recorded runs, the links added and removed
+ * between two runs, and the links of an element across all runs.
+ */
+public class HistoryTaskPlugin extends TaskPlugin {
+    private static final String PREFIX = "hist";
+    private static final String TASK_NAME = "history";
+
+    private static final String CMD_QUERY = PREFIX + "-q";
+    private static final String CMD_TASK = PREFIX + "-task";
+    private static final String CMD_RUN_A = PREFIX + "-a";
+    private static final String CMD_RUN_B = PREFIX + "-b";
+    private static final String CMD_ELEMENT = PREFIX + "-e";
+    private static final String QUERY_RUNS = "runs";
+    private static final String QUERY_DIFF = "diff";
+    private static final String QUERY_ELEMENT = "element";
+    private static final String DEFAULT_TASK = "sad-sam";
+    private static final String STAGE_QUERYING = "querying history";
+    private static final String SEPARATOR = ",";
+
+    @Override
+    public String getPrefix() {
+        return PREFIX;
+    }
+
+    @Override
+    public String getTaskName() {
+        return TASK_NAME;
+    }
+
+    @Override
+    public boolean isPartOfAll() {
+        return false;
+    }
+
+    @Override
+    public List<Option> getRequiredOptions() {
+        List<Option> options = new ArrayList<>();
+
+        Option opt = new Option(CMD_QUERY, "history-query", true, "History query: runs, diff or element");
+        opt.setType(String.class);
+        opt.setRequired(true);
+        options.add(opt);
+
+        return options;
+    }
+
+    @Override
+    public List<Option> getAllOptions() {
+        List<Option> options = new ArrayList<>(getRequiredOptions());
+
+        Option opt = new Option(CMD_TASK, "history-task", true, "Task of the compared runs (default: " + DEFAULT_TASK + ")");
+        opt.setType(String.class);
+        opt.setRequired(false);
+        options.add(opt);
+
+        opt = new Option(CMD_RUN_A, "history-run-a", true, "Earlier run of a diff");
+        opt.setType(String.class);
+        opt.setRequired(false);
+        options.add(opt);
+
+        opt = new Option(CMD_RUN_B, "history-run-b", true, "Later run of a diff");
+        opt.setType(String.class);
+        opt.setRequired(false);
+        options.add(opt);
+
+        opt = new Option(CMD_ELEMENT, "history-element", true, "Element (e.g. model element ID) whose history is queried");
+        opt.setType(String.class);
+        opt.setRequired(false);
+        options.add(opt);
+
+        return options;
+    }
+
+    @Override
+    public boolean execute(CommandLine cmd, File outputDir) {
+        logger.info("Starting history query.");
+
+        startStage(STAGE_LOADING_INPUTS);
+        if (!cmd.hasOption("hist")) {
+            logger.error("No history directory specified. Use the history option to specify it.");
+            return false;
+        }
+        HistoryStore store = new HistoryStore(new File(cmd.getOptionValue("hist")));
+        String query = cmd.getOptionValue(CMD_QUERY).toLowerCase();
+        finishStage(STAGE_LOADING_INPUTS);
+
+        startStage(STAGE_QUERYING);
+        try {
+            switch (query) {
+            case QUERY_RUNS -> writeRuns(store, outputDir);
+            case QUERY_DIFF -> {
+                if (!cmd.hasOption("n") || !cmd.hasOption(CMD_RUN_A) || !cmd.hasOption(CMD_RUN_B)) {
+                    logger.error("A diff needs the project name and the runs {} and {}", CMD_RUN_A, CMD_RUN_B);
+                    return false;
+                }
+                writeDiff(store.diff(cmd.getOptionValue(CMD_TASK, DEFAULT_TASK), cmd.getOptionValue("n"), cmd.getOptionValue(CMD_RUN_A),
+                        cmd.getOptionValue(CMD_RUN_B)), outputDir);
+            }
+            case QUERY_ELEMENT -> {
+                if (!cmd.hasOption(CMD_ELEMENT)) {
+                    logger.error("An element query needs the element {}", CMD_ELEMENT);
+                    return false;
+                }
+                writeElementHistory(cmd.getOptionValue(CMD_ELEMENT), store.elementHistory(cmd.getOptionValue(CMD_ELEMENT)), outputDir);
+            }
+            default -> {
+                logger.error("Invalid history query: {}", query);
+                return false;
+            }
+            }
+        } catch (IOException e) {
+            logger.error("Error querying the history", e);
+            return false;
+        }
+        finishStage(STAGE_QUERYING);
+
+        logger.info("History query completed.");
+        return true;
+    }
+
+    private void writeRuns(HistoryStore store, File outputDir) throws IOException {
+        List<HistoryRun> runs = store.getRuns();
+        File report = new File(outputDir, "history_runs.csv");
+        OutputWritingEvent event = OutputWritingEvent.begin(report);
+        try (BufferedWriter writer = Files.newBufferedWriter(report.toPath(), StandardCharsets.UTF_8)) {
+            writeLine(writer, "run", "recorded", "task", "project", "links");
+            for (HistoryRun run : runs) {
+                writeLine(writer, run.id(), Instant.ofEpochMilli(run.timestamp()).toString(), run.task(), run.project(),
+                        Integer.toString(run.linkCount()));
+            }
+        }
+        event.entries = runs.size();
+        event.commit();
+        logger.info("History contains {} runs, written to {}", runs.size(), report);
+    }
+
+    private void writeDiff(HistoryDiff diff, File outputDir) throws IOException {
+        File report = new File(outputDir, "history_diff_" + fileName(diff.from().id()) + "_" + fileName(diff.to().id()) + ".csv");
+        OutputWritingEvent event = OutputWritingEvent.begin(report);
+        try (BufferedWriter writer = Files.newBufferedWriter(report.toPath(), StandardCharsets.UTF_8)) {
+            writeLine(writer, "change", diff.to().sourceColumn(), diff.to().targetColumn());
+            for (TraceLink link : diff.added()) {
+                writeLine(writer, "+", link.source(), link.target());
+            }
+            for (TraceLink link : diff.removed()) {
+                writeLine(writer, "-", link.source(), link.target());
+            }
+        }
+        event.entries = (long) diff.added().size() + diff.removed().size();
+        event.commit();
+        logger.info("{} links added and {} links removed between {} and {}, written to {}", diff.added().size(), diff.removed().size(),
+                diff.from().id(), diff.to().id(), report);
+    }
+
+    private void writeElementHistory(String element, Map<HistoryRun, List<TraceLink>> history, File outputDir) throws IOException {
+        File report = new File(outputDir, "history_element_" + fileName(element) + ".csv");
+        OutputWritingEvent event = OutputWritingEvent.begin(report);
+        try (BufferedWriter writer = Files.newBufferedWriter(report.toPath(), StandardCharsets.UTF_8)) {
+            writeLine(writer, "run", "task", "project", "source", "target");
+            for (Map.Entry<HistoryRun, List<TraceLink>> entry : history.entrySet()) {
+                HistoryRun run = entry.getKey();
+                for (TraceLink link : entry.getValue()) {
+                    writeLine(writer, run.id(), run.task(), run.project(), link.source(), link.target());
+                    event.entries++;
+                }
+            }
+        }
+        event.commit();
+        logger.info("{} has links in {} runs, written to {}", element, history.size(), report);
+    }
+
+    private static void writeLine(BufferedWriter writer, String... fields) throws IOException {
+        writer.write(String.join(SEPARATOR, fields));
+        writer.newLine();
+    }
+
+    private static String fileName(String value) {
+        return value.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    @Override
+    public Map<String, String> getOptionPrefixDescriptions() {
+        Map<String, String> descriptions = new HashMap<>();
+        descriptions.put(CMD_QUERY, "History query: runs, diff or element");
+        descriptions.put(CMD_TASK, "Task of the compared runs (optional)");
+        descriptions.put(CMD_RUN_A, "Earlier run of a diff");
+        descriptions.put(CMD_RUN_B, "Later run of a diff");
+        descriptions.put(CMD_ELEMENT, "Element whose history is queried");
+        return descriptions;
+    }
+}
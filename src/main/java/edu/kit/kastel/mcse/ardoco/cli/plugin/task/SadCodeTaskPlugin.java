@@ -4,6 +4,8 @@ package edu.kit.kastel.mcse.ardoco.cli.plugin.task;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -13,8 +15,20 @@ import java.util.TreeMap;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.Option;
 
+import edu.kit.kastel.mcse.ardoco.cli.checkpoint.CheckpointStore;
+import edu.kit.kastel.mcse.ardoco.cli.code.CodeArchive;
+import edu.kit.kastel.mcse.ardoco.cli.code.PrunedCodeTree;
+import edu.kit.kastel.mcse.ardoco.cli.preview.PreviewEstimate;
+import edu.kit.kastel.mcse.ardoco.cli.preview.PreviewEstimate.SampleRun;
+import edu.kit.kastel.mcse.ardoco.cli.preview.PreviewSample;
+import edu.kit.kastel.mcse.ardoco.cli.result.IdentifierPool;
+import edu.kit.kastel.mcse.ardoco.cli.result.LinkJoin;
+import edu.kit.kastel.mcse.ardoco.cli.result.LinkTable;
+import edu.kit.kastel.mcse.ardoco.cli.result.TraceLinkFiles;
 import edu.kit.kastel.mcse.ardoco.core.api.models.ArchitectureModelType;
-import edu.kit.kastel.mcse.ardoco.tlr.execution.ArDoCoForSadSamCodeTraceabilityLinkRecovery;
+import edu.kit.kastel.mcse.ardoco.tlr.execution.ArDoCoForSadCodeTraceabilityLinkRecovery;
+import edu.kit.kastel.mcse.ardoco.tlr.execution.ArDoCoForSadSamTraceabilityLinkRecovery;
+import edu.kit.kastel.mcse.ardoco.tlr.execution.ArDoCoForSamCodeTraceabilityLinkRecovery;
 import edu.kit.kastel.mcse.ardoco.cli.plugin.core.TaskPlugin;
 
 /**
@@ -23,10 +37,22 @@ import edu.kit.kastel.mcse.ardoco.cli.plugin.core.TaskPlugin;
 public class SadCodeTaskPlugin extends TaskPlugin {
     private static final String PREFIX = "sdc";
     private static final String TASK_NAME = "sad-code";
+    private static final String RESULT_FILE_PREFIX = "sadCodeTlr_";
 
     private static final String CMD_SAD = PREFIX + "-d";
     private static final String CMD_MODEL = PREFIX + "-m";
     private static final String CMD_CODE = PREFIX + "-c";
+    private static final String CMD_TRANSITIVE = PREFIX + "-tr";
+    private static final String CMD_SAD_SAM_LINKS = PREFIX + "-ss";
+    private static final String CMD_SAM_CODE_LINKS = PREFIX + "-sc";
+    private static final String CMD_PREVIEW = PREFIX + "-pv";
+
+    private static final String STAGE_SAD_SAM = "sad-sam links";
+    private static final String STAGE_SAM_CODE = "sam-code links";
+    private static final String STAGE_LINK_COMPOSITION = "link composition";
+    private static final String STAGE_SAMPLING_INPUTS = "sampling inputs";
+    private static final String MODEL_ELEMENT_COLUMN = "modelElementID";
+    private static final String PREVIEW_DIR = "preview";
 
     @Override
     public String getPrefix() {
@@ -38,6 +64,11 @@ public class SadCodeTaskPlugin extends TaskPlugin {
         return TASK_NAME;
     }
 
+    @Override
+    public String getResultFilePrefix() {
+        return RESULT_FILE_PREFIX;
+    }
+
     @Override
     public List<Option> getRequiredOptions() {
         List<Option> options = new ArrayList<>();
@@ -65,50 +96,235 @@ public class SadCodeTaskPlugin extends TaskPlugin {
         return options;
     }
 
+    @Override
+    public List<Option> getAllOptions() {
+        List<Option> options = new ArrayList<>(getRequiredOptions());
+
+        Option opt = new Option(CMD_TRANSITIVE, "transitive", false,
+                "Compose SAD-SAM and SAM-CODE links (TransArC) instead of recovering SAD-CODE links directly from the documentation "
+                        + "and the code (ArDoCode)");
+        opt.setRequired(false);
+        options.add(opt);
+
+        opt = new Option(CMD_SAD_SAM_LINKS, "sad-sam-links", true, "Existing SAD-SAM trace link file to reuse in transitive mode");
+        opt.setType(String.class);
+        opt.setRequired(false);
+        options.add(opt);
+
+        opt = new Option(CMD_SAM_CODE_LINKS, "sam-code-links", true, "Existing SAM-CODE trace link file to reuse in transitive mode");
+        opt.setType(String.class);
+        opt.setRequired(false);
+        options.add(opt);
+
+        opt = new Option(CMD_PREVIEW, "preview", true,
+                "Recover links for the given share (0-1) of sentences and code packages only and project the full run");
+        opt.setType(String.class);
+        opt.setRequired(false);
+        options.add(opt);
+
+        return options;
+    }
+
+    @Override
+    public boolean validateParameters(CommandLine cmd) {
+        if (!super.validateParameters(cmd)) {
+            return false;
+        }
+        if (!cmd.hasOption(CMD_TRANSITIVE) && (cmd.hasOption(CMD_SAD_SAM_LINKS) || cmd.hasOption(CMD_SAM_CODE_LINKS))) {
+            logger.error("Existing SAD-SAM or SAM-CODE links can only be reused in transitive mode (option transitive)");
+            return false;
+        }
+        if (cmd.hasOption(CMD_PREVIEW) && (cmd.hasOption(CMD_TRANSITIVE) || cmd.hasOption("pc"))) {
+            logger.error("A preview runs the direct recovery on unpruned code and cannot be combined with the options transitive or "
+                    + "prune-code");
+            return false;
+        }
+        return true;
+    }
 
     @Override
-    //TODO: Use add -transitive option to indicate whether to use transarc or ardocode
-    public void execute(CommandLine cmd, File outputDir) {
+    public boolean execute(CommandLine cmd, File outputDir) {
         logger.info("Starting SAD-CODE traceability link recovery task.");
 
         String name = cmd.getOptionValue("n");
-        File sad = null;
-        File sam = null;
-        File code = null;
+        File sad;
+        File sam;
+        File code;
+        File sadSamLinks = null;
+        File samCodeLinks = null;
 
+        startStage(STAGE_LOADING_INPUTS);
         try {
             sad = ensureFile(cmd.getOptionValue(CMD_SAD));
             sam = ensureFile(cmd.getOptionValue(CMD_MODEL));
             code = getCodeDirectory(cmd.getOptionValue(CMD_CODE));
+            if (cmd.hasOption(CMD_SAD_SAM_LINKS)) {
+                sadSamLinks = ensureFile(cmd.getOptionValue(CMD_SAD_SAM_LINKS));
+            }
+            if (cmd.hasOption(CMD_SAM_CODE_LINKS)) {
+                samCodeLinks = ensureFile(cmd.getOptionValue(CMD_SAM_CODE_LINKS));
+            }
         } catch (IOException e) {
             logger.error(ERROR_READING_FILES, e);
-            return;
+            return false;
         }
+        finishStage(STAGE_LOADING_INPUTS);
 
-        var runner = new ArDoCoForSadSamCodeTraceabilityLinkRecovery(name);
-        runner.setUp(sad, sam, ArchitectureModelType.PCM, code, new TreeMap<>(), outputDir);
-        runner.run();
+        if (cmd.hasOption(CMD_PREVIEW)) {
+            if (!executePreview(cmd, name, sad, code, outputDir)) {
+                return false;
+            }
+            logger.info("SAD-CODE preview completed.");
+            return true;
+        }
+
+        List<File> inputs = new ArrayList<>(List.of(sad, sam, code));
+        if (cmd.hasOption(CMD_TRANSITIVE)) {
+            inputs.add(sadSamLinks);
+            inputs.add(samCodeLinks);
+            CheckpointStore checkpoint = openCheckpoint(cmd, outputDir, name + "_transitive", inputs);
+            if (!executeTransitive(cmd, name, sad, sam, code, sadSamLinks, samCodeLinks, checkpoint, outputDir)) {
+                return false;
+            }
+            logger.info("SAD-CODE task completed.");
+            return true;
+        }
+
+        // the direct recovery exposes no intermediate results, so it is checkpointed as a single stage
+        CheckpointStore checkpoint = openCheckpoint(cmd, outputDir, name, inputs);
+        File resultFile = getResultFile(outputDir, name);
+        boolean recovered = runStage(checkpoint, STAGE_LINK_RECOVERY, outputDir, List.of(resultFile), () -> {
+            // the model is only used to prune the code
+            try (PrunedCodeTree codeTree = pruneCode(cmd, code, sam, outputDir)) {
+                var runner = new ArDoCoForSadCodeTraceabilityLinkRecovery(name);
+                runner.setUp(sad, codeTree.getDirectory(), new TreeMap<>(), outputDir);
+                runner.run();
+            }
+        });
+        if (!recovered) {
+            return false;
+        }
 
         logger.info("SAD-CODE task completed.");
+        return true;
     }
 
     /**
-     * Gets the code directory, handling both file and directory inputs.
-     * @param path the path to the code
-     * @return the code directory
-     * @throws IOException if the directory doesn't exist
+     * Recovers SAD-CODE links for a sample of the inputs. The provisional links and a report with the estimated link count and the
+     * projected duration and heap usage of the full run are written to the preview directory in the output directory. The setup of
+     * the runner is measured separately, so its cost is not scaled with the project size.
+     * @return true if the preview report was written
      */
-    private File getCodeDirectory(String path) throws IOException {
+    private boolean executePreview(CommandLine cmd, String name, File sad, File code, File outputDir) {
+        double fraction;
         try {
-            return ensureFile(path);
+            fraction = Double.parseDouble(cmd.getOptionValue(CMD_PREVIEW));
+        } catch (NumberFormatException e) {
+            logger.error("Invalid preview fraction: {}", cmd.getOptionValue(CMD_PREVIEW));
+            return false;
+        }
+
+        File previewDir = new File(outputDir, PREVIEW_DIR);
+        startStage(STAGE_SAMPLING_INPUTS);
+        // a code model file instead of a code directory is used as is, an archive is sampled without extracting it
+        try (CodeArchive archive = CodeArchive.isArchive(code) ? CodeArchive.open(code, getThreads(cmd)) : null;
+                PreviewSample sample = PreviewSample.create(sad, null, codeRoot(code, archive), fraction)) {
+            Files.createDirectories(previewDir.toPath());
+            finishStage(STAGE_SAMPLING_INPUTS);
+
+            startStage(STAGE_LINK_RECOVERY);
+            SampleRun run = runPreview(name, sample, code, previewDir);
+            LinkTable links = readResult(previewDir, name, new IdentifierPool());
+            PreviewEstimate estimate = PreviewEstimate.of(sample.getSentences(), sample.getModelElements(), sample.getCodeFiles(),
+                    links == null ? 0 : links.size(), run);
+            finishStage(STAGE_LINK_RECOVERY);
+
+            File report = new File(previewDir, "preview_" + name + ".txt");
+            estimate.write(report, name, sample, getResultFile(previewDir, name));
+            logger.info("Preview found {} links, estimating {} links for the full run, projected to take {} s. Report: {}",
+                    estimate.links(), estimate.estimatedLinks(), estimate.projectedMillis() / 1000, report);
+            return true;
+        } catch (IllegalArgumentException e) {
+            logger.error(e.getMessage());
         } catch (IOException e) {
-            var file = new File(path);
-            if (file.isDirectory() && file.exists()) {
-                return file;
-            } else {
-                throw new IOException(ERROR_FILE_NOT_EXISTING + path);
+            logger.error(ERROR_READING_FILES, e);
+        }
+        return false;
+    }
+
+    private static SampleRun runPreview(String name, PreviewSample sample, File code, File outputDir) {
+        PreviewEstimate.Measurement measurement = PreviewEstimate.measure();
+        var runner = new ArDoCoForSadCodeTraceabilityLinkRecovery(name);
+        File sampledCode = sample.getCode() != null ? sample.getCode() : code;
+        runner.setUp(sample.getText(), sampledCode, new TreeMap<>(), outputDir);
+        measurement.setupFinished();
+        runner.run();
+        return measurement.finish(sample);
+    }
+
+    /**
+     * Recovers SAD-CODE links by composing SAD-SAM and SAM-CODE links. Link files that are not given are recovered first and
+     * written to the output directory, where they can be reused by later runs. Each half is a stage of its own, so a resumed run
+     * only recovers the halves that were not completed before.
+     * @return true if the SAD-CODE links were written
+     */
+    private boolean executeTransitive(CommandLine cmd, String name, File sad, File sam, File code, File existingSadSamLinks,
+            File existingSamCodeLinks, CheckpointStore checkpoint, File outputDir) {
+        File sadSamLinks = existingSadSamLinks;
+        if (sadSamLinks == null) {
+            sadSamLinks = new SadSamTaskPlugin().getResultFile(outputDir, name);
+            boolean recovered = runStage(checkpoint, STAGE_SAD_SAM, outputDir, List.of(sadSamLinks), () -> {
+                var runner = new ArDoCoForSadSamTraceabilityLinkRecovery(name);
+                runner.setUp(sad, sam, ArchitectureModelType.PCM, new TreeMap<>(), outputDir);
+                runner.run();
+            });
+            if (!recovered) {
+                return false;
+            }
+        }
+
+        File samCodeLinks = existingSamCodeLinks;
+        if (samCodeLinks == null) {
+            samCodeLinks = new SamCodeTaskPlugin().getResultFile(outputDir, name);
+            boolean recovered = runStage(checkpoint, STAGE_SAM_CODE, outputDir, List.of(samCodeLinks), () -> {
+                try (PrunedCodeTree codeTree = pruneCode(cmd, code, sam, outputDir)) {
+                    var runner = new ArDoCoForSamCodeTraceabilityLinkRecovery(name);
+                    runner.setUp(sam, ArchitectureModelType.PCM, codeTree.getDirectory(), new TreeMap<>(), outputDir);
+                    runner.run();
+                }
+            });
+            if (!recovered) {
+                return false;
             }
         }
+
+        File first = sadSamLinks;
+        File second = samCodeLinks;
+        File resultFile = getResultFile(outputDir, name);
+        return runStage(checkpoint, STAGE_LINK_COMPOSITION, outputDir, List.of(resultFile), () -> {
+            IdentifierPool pool = new IdentifierPool();
+            LinkTable sadSam = TraceLinkFiles.read(first, pool);
+            LinkTable samCode = TraceLinkFiles.read(second, pool);
+            LinkTable sadCode = LinkJoin.compose(sadSam, modelElementColumn(sadSam, first), samCode, modelElementColumn(samCode, second));
+            TraceLinkFiles.write(resultFile, sadCode);
+            logger.info("Composed {} SAD-SAM and {} SAM-CODE links to {} SAD-CODE links", sadSam.size(), samCode.size(), sadCode.size());
+        });
+    }
+
+    private static Path codeRoot(File code, CodeArchive archive) {
+        if (archive != null) {
+            return archive.getRoot();
+        }
+        return code.isDirectory() ? code.toPath() : null;
+    }
+
+    private static int modelElementColumn(LinkTable links, File file) {
+        int column = LinkJoin.columnOf(links, MODEL_ELEMENT_COLUMN);
+        if (column < 0) {
+            logger.warn("{} has no {} column. Using its first column as model element.", file, MODEL_ELEMENT_COLUMN);
+            return LinkJoin.SOURCE;
+        }
+        return column;
     }
 
     @Override
@@ -116,7 +332,12 @@ public class SadCodeTaskPlugin extends TaskPlugin {
         Map<String, String> descriptions = new HashMap<>();
         descriptions.put(CMD_SAD, "Path to the documentation (SAD)");
         descriptions.put(CMD_MODEL, "Path to the model (SAM)");
-        descriptions.put(CMD_CODE, "Path to the code");
+        descriptions.put(CMD_CODE, "Path to the code (directory, code model, or zip, jar or tar(.gz) archive, which is extracted into "
+                + ".ardoco-cache/code in the output directory unless prune-code is set)");
+        descriptions.put(CMD_TRANSITIVE, "Compose SAD-SAM and SAM-CODE links instead of direct recovery");
+        descriptions.put(CMD_SAD_SAM_LINKS, "Existing SAD-SAM trace link file (transitive mode)");
+        descriptions.put(CMD_SAM_CODE_LINKS, "Existing SAM-CODE trace link file (transitive mode)");
+        descriptions.put(CMD_PREVIEW, "Share of the inputs to sample for a quick preview (optional)");
         return descriptions;
     }
 }
@@ -13,6 +13,7 @@ import java.util.TreeMap;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.Option;
 
+import edu.kit.kastel.mcse.ardoco.cli.checkpoint.CheckpointStore;
 import edu.kit.kastel.mcse.ardoco.core.api.models.ArchitectureModelType;
 import edu.kit.kastel.mcse.ardoco.tlr.execution.ArDoCoForSadSamTraceabilityLinkRecovery;
 import edu.kit.kastel.mcse.ardoco.cli.plugin.core.TaskPlugin;
@@ -23,6 +24,7 @@ import edu.kit.kastel.mcse.ardoco.cli.plugin.core.TaskPlugin;
 public class SadSamTaskPlugin extends TaskPlugin {
     private static final String PREFIX = "SadSam";
     private static final String TASK_NAME = "sad-sam";
+    private static final String RESULT_FILE_PREFIX = "sadSamTlr_";
 
     private static final String CMD_SAD = PREFIX + "-d";
     private static final String CMD_MODEL = PREFIX + "-m";
@@ -37,6 +39,11 @@ public class SadSamTaskPlugin extends TaskPlugin {
         return TASK_NAME;
     }
 
+    @Override
+    public String getResultFilePrefix() {
+        return RESULT_FILE_PREFIX;
+    }
+
     @Override
     public List<Option> getRequiredOptions() {
         List<Option> options = new ArrayList<>();
@@ -59,28 +66,36 @@ public class SadSamTaskPlugin extends TaskPlugin {
         return options;
     }
 
-
     @Override
-    public void execute(CommandLine cmd, File outputDir) {
+    public boolean execute(CommandLine cmd, File outputDir) {
         logger.info("Starting SAD-SAM traceability link recovery task.");
 
         String name = cmd.getOptionValue("n");
-        File sad = null;
-        File sam = null;
+        File sad;
+        File sam;
 
+        startStage(STAGE_LOADING_INPUTS);
         try {
             sad = ensureFile(cmd.getOptionValue(CMD_SAD));
             sam = ensureFile(cmd.getOptionValue(CMD_MODEL));
         } catch (IOException e) {
             logger.error(ERROR_READING_FILES, e);
-            return;
+            return false;
+        }
+        finishStage(STAGE_LOADING_INPUTS);
+
+        CheckpointStore checkpoint = openCheckpoint(cmd, outputDir, name, List.of(sad, sam));
+        boolean recovered = runStage(checkpoint, STAGE_LINK_RECOVERY, outputDir, List.of(getResultFile(outputDir, name)), () -> {
+            var runner = new ArDoCoForSadSamTraceabilityLinkRecovery(name);
+            runner.setUp(sad, sam, ArchitectureModelType.PCM, new TreeMap<>(), outputDir);
+            runner.run();
+        });
+        if (!recovered) {
+            return false;
         }
-
-        var runner = new ArDoCoForSadSamTraceabilityLinkRecovery(name);
-        runner.setUp(sad, sam, ArchitectureModelType.PCM, new TreeMap<>(), outputDir);
-        runner.run();
 
         logger.info("SAD-SAM task completed.");
+        return true;
     }
 
     @Override
@@ -14,6 +14,8 @@ import java.util.TreeMap;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.Option;
 
+import edu.kit.kastel.mcse.ardoco.cli.checkpoint.CheckpointStore;
+import edu.kit.kastel.mcse.ardoco.cli.code.PrunedCodeTree;
 import edu.kit.kastel.mcse.ardoco.core.api.models.ArchitectureModelType;
 import edu.kit.kastel.mcse.ardoco.tlr.execution.ArDoCoForSamCodeTraceabilityLinkRecovery;
 import edu.kit.kastel.mcse.ardoco.cli.plugin.core.TaskPlugin;
@@ -24,6 +26,7 @@ import edu.kit.kastel.mcse.ardoco.cli.plugin.core.TaskPlugin;
 public class SamCodeTaskPlugin extends TaskPlugin {
     private static final String PREFIX = "SamCode";
     private static final String TASK_NAME = "sam-code";
+    private static final String RESULT_FILE_PREFIX = "samCodeTlr_";
 
     private static final String CMD_MODEL = PREFIX + "-m";
     private static final String CMD_CODE = PREFIX + "-c";
@@ -38,6 +41,11 @@ public class SamCodeTaskPlugin extends TaskPlugin {
         return TASK_NAME;
     }
 
+    @Override
+    public String getResultFilePrefix() {
+        return RESULT_FILE_PREFIX;
+    }
+
     @Override
     public List<Option> getRequiredOptions() {
         List<Option> options = new ArrayList<>();
@@ -62,52 +70,45 @@ public class SamCodeTaskPlugin extends TaskPlugin {
 
 
     @Override
-    public void execute(CommandLine cmd, File outputDir) {
+    public boolean execute(CommandLine cmd, File outputDir) {
         logger.info("Starting SAM-CODE traceability link recovery task.");
 
         String name = cmd.getOptionValue("n");
-        File sam = null;
-        File code = null;
+        File sam;
+        File code;
 
+        startStage(STAGE_LOADING_INPUTS);
         try {
             sam = ensureFile(cmd.getOptionValue(CMD_MODEL));
             code = getCodeDirectory(cmd.getOptionValue(CMD_CODE));
         } catch (IOException e) {
             logger.error(ERROR_READING_FILES, e);
-            return;
+            return false;
         }
-
-        var runner = new ArDoCoForSamCodeTraceabilityLinkRecovery(name);
-        runner.setUp(sam, ArchitectureModelType.PCM, code, new TreeMap<>(), outputDir);
-        runner.run();
-
-        logger.info("SAM-CODE task completed.");
-    }
-
-    /**
-     * Gets the code directory, handling both file and directory inputs.
-     * @param path the path to the code
-     * @return the code directory
-     * @throws IOException if the directory doesn't exist
-     */
-    private File getCodeDirectory(String path) throws IOException {
-        try {
-            return ensureFile(path);
-        } catch (IOException e) {
-            var file = new File(path);
-            if (file.isDirectory() && file.exists()) {
-                return file;
-            } else {
-                throw new IOException(ERROR_FILE_NOT_EXISTING + path);
+        finishStage(STAGE_LOADING_INPUTS);
+
+        CheckpointStore checkpoint = openCheckpoint(cmd, outputDir, name, List.of(sam, code));
+        boolean recovered = runStage(checkpoint, STAGE_LINK_RECOVERY, outputDir, List.of(getResultFile(outputDir, name)), () -> {
+            try (PrunedCodeTree codeTree = pruneCode(cmd, code, sam, outputDir)) {
+                var runner = new ArDoCoForSamCodeTraceabilityLinkRecovery(name);
+                runner.setUp(sam, ArchitectureModelType.PCM, codeTree.getDirectory(), new TreeMap<>(), outputDir);
+                runner.run();
             }
+        });
+        if (!recovered) {
+            return false;
         }
+
+        logger.info("SAM-CODE task completed.");
+        return true;
     }
 
     @Override
     public Map<String, String> getOptionPrefixDescriptions() {
         Map<String, String> descriptions = new HashMap<>();
         descriptions.put(CMD_MODEL, "Path to the model (SAM)");
-        descriptions.put(CMD_CODE, "Path to the code");
+        descriptions.put(CMD_CODE, "Path to the code (directory, code model, or zip, jar or tar(.gz) archive, which is extracted into "
+                + ".ardoco-cache/code in the output directory unless prune-code is set)");
         return descriptions;
     }
 }
\ No newline at end of file
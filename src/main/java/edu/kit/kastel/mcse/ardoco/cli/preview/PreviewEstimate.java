@@ -0,0 +1,166 @@
+package edu.kit.kastel.mcse.ardoco.cli.preview;
+
+/* Licensed under MIT 2023. */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Locale;
+
+import edu.kit.kastel.mcse.ardoco.cli.preview.PreviewSample.Share;
+import edu.kit.kastel.mcse.ardoco.cli.profiling.OutputWritingEvent;
+
+/**
+ * Projection of a full trace link recovery from a run on a {@link PreviewSample}.
+ * A link survives the sampling only if its sentence, model element and code file are sampled, so the link count is scaled by the
+ * inverse of the product of the three shares. Inputs the recovery does not use are not sampled and have a share of 1. Time and heap
+ * growth are split into the setup of the runner, e.g., building the pipeline, and the rest of the run, and only the rest is scaled with
+ * the number of processed items (sentences and code files). Both are rough: the sample loses links between sampled and dropped items,
+ * parts of the recovery grow faster than linearly, and fixed costs the runner pays lazily during the run are scaled as well.
+ * @param links the number of links recovered from the sample
+ * @param estimatedLinks the estimated number of links of the full run
+ * @param sampleMillis the duration of the sample run
+ * @param setupMillis the estimated fixed duration of a run, independent of the number of items
+ * @param projectedMillis the projected duration of the full run
+ * @param samplePeakBytes the peak heap usage of the sample run
+ * @param projectedPeakBytes the projected peak heap usage of the full run
+ */
+public record PreviewEstimate(int links, long estimatedLinks, long sampleMillis, long setupMillis, long projectedMillis,
+        long samplePeakBytes, long projectedPeakBytes) {
+
+    /**
+     * Projects a full run from the measurement of a sample run.
+     * @param sentences the sampled share of the sentences
+     * @param modelElements the sampled share of the model elements
+     * @param codeFiles the sampled share of the code files
+     * @param links the number of links recovered from the sample
+     * @param run the measurement of the sample run
+     * @return the estimate
+     */
+    public static PreviewEstimate of(Share sentences, Share modelElements, Share codeFiles, int links, SampleRun run) {
+        double linkShare = sentences.ratio() * modelElements.ratio() * codeFiles.ratio();
+        long estimatedLinks = linkShare > 0 ? Math.round(links / linkShare) : links;
+        long totalItems = (long) sentences.total() + codeFiles.total();
+        long setupMillis = run.setupMillis();
+        long setupPeakBytes = Math.max(run.setupPeakBytes(), run.baselineBytes());
+        double millisPerItem = perItem(run.millis(), setupMillis, run.items());
+        double bytesPerItem = perItem(run.peakBytes(), setupPeakBytes, run.items());
+        long items = Math.max(totalItems, run.items());
+        return new PreviewEstimate(links, estimatedLinks, run.millis(), setupMillis, setupMillis + Math.round(millisPerItem * items),
+                run.peakBytes(), setupPeakBytes + Math.round(bytesPerItem * items));
+    }
+
+    private static double perItem(long value, long setupValue, long items) {
+        return items <= 0 ? 0 : Math.max(0, value - setupValue) / (double) items;
+    }
+
+    /**
+     * Starts measuring the duration and peak heap usage of a sample run.
+     * @return the measurement
+     */
+    public static Measurement measure() {
+        return new Measurement();
+    }
+
+    /**
+     * Measured run on a sample.
+     * @param items the number of processed items, i.e., sampled sentences and code files
+     * @param setupMillis the duration of the setup of the runner
+     * @param millis the duration of the run, including the setup
+     * @param baselineBytes the heap usage before the run
+     * @param setupPeakBytes the peak heap usage during the setup
+     * @param peakBytes the peak heap usage during the run
+     */
+    public record SampleRun(long items, long setupMillis, long millis, long baselineBytes, long setupPeakBytes, long peakBytes) {
+    }
+
+    /**
+     * Duration and peak heap usage of a run, measured from its creation.
+     */
+    public static final class Measurement {
+        private final long start;
+        private final long baselineBytes;
+        private long setupMillis;
+        private long setupPeakBytes;
+
+        private Measurement() {
+            long used = 0;
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    pool.resetPeakUsage();
+                    used += pool.getUsage().getUsed();
+                }
+            }
+            this.baselineBytes = used;
+            this.start = System.nanoTime();
+        }
+
+        /**
+         * Marks the end of the setup of the runner, which is not scaled with the number of items.
+         */
+        public void setupFinished() {
+            setupMillis = (System.nanoTime() - start) / 1_000_000;
+            setupPeakBytes = peakHeapUsage();
+        }
+
+        /**
+         * Finishes the measurement.
+         * @param sample the sample the run processed
+         * @return the measured run
+         */
+        public SampleRun finish(PreviewSample sample) {
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            long items = (long) sample.getSentences().sampled() + sample.getCodeFiles().sampled();
+            return new SampleRun(items, setupMillis, millis, baselineBytes, setupPeakBytes, peakHeapUsage());
+        }
+
+        private static long peakHeapUsage() {
+            long peak = 0;
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    peak += pool.getPeakUsage().getUsed();
+                }
+            }
+            return peak;
+        }
+    }
+
+    /**
+     * Writes a report of the sample and the estimate.
+     * @param report the report file
+     * @param name the project name
+     * @param sample the sample
+     * @param linkFile the file with the provisional links
+     * @throws IOException if the report cannot be written
+     */
+    public void write(File report, String name, PreviewSample sample, File linkFile) throws IOException {
+        OutputWritingEvent event = OutputWritingEvent.begin(report);
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(report.toPath(), StandardCharsets.UTF_8))) {
+            writer.println("Preview of " + name);
+            writer.println();
+            writeShare(writer, "Sentences:", sample.getSentences());
+            if (sample.getModel() != null) {
+                writeShare(writer, "Model elements:", sample.getModelElements());
+            }
+            if (sample.getCode() != null) {
+                writeShare(writer, "Code files:", sample.getCodeFiles());
+            }
+            writer.println();
+            writer.printf(Locale.ROOT, "Provisional links:  %d (%s)%n", links, linkFile.getName());
+            writer.printf(Locale.ROOT, "Estimated links:    %d%n", estimatedLinks);
+            writer.printf(Locale.ROOT, "Sample run:         %.1f s, peak heap %d MB%n", sampleMillis / 1000.0, samplePeakBytes >> 20);
+            writer.printf(Locale.ROOT, "Fixed setup:        %.1f s%n", setupMillis / 1000.0);
+            writer.printf(Locale.ROOT, "Projected full run: %.1f s, peak heap %d MB%n", projectedMillis / 1000.0, projectedPeakBytes >> 20);
+        }
+        event.commit();
+    }
+
+    private static void writeShare(PrintWriter writer, String label, Share share) {
+        writer.printf(Locale.ROOT, "%-19s %d of %d (%.1f %%)%n", label, share.sampled(), share.total(), share.ratio() * 100);
+    }
+}
@@ -0,0 +1,310 @@
+package edu.kit.kastel.mcse.ardoco.cli.preview;
+
+/* Licensed under MIT 2023. */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.BreakIterator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.SAXException;
+
+import edu.kit.kastel.mcse.ardoco.cli.code.CodeArchive;
+import edu.kit.kastel.mcse.ardoco.cli.code.PrunedCodeTree;
+import edu.kit.kastel.mcse.ardoco.cli.io.MappedInput;
+import edu.kit.kastel.mcse.ardoco.cli.plugin.core.ItemProgress;
+
+/**
+ * A sample of the inputs of a trace link recovery, written to temporary files that are deleted on {@link #close()}.
+ * The sample keeps an evenly spaced share of the sentences of the documentation, of the components of the model and of the packages
+ * (directories) of the code, so it covers the whole project in the original order.
+ */
+public final class PreviewSample implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(PreviewSample.class);
+    private static final String PCM_COMPONENT = "components__Repository";
+    private static final String UML_ELEMENT = "packagedElement";
+    private static final String UML_COMPONENT = "uml:Component";
+
+    private final File text;
+    private final File model;
+    private final PrunedCodeTree code;
+    private final Share sentences;
+    private final Share modelElements;
+    private final Share codeFiles;
+
+    /**
+     * The sampled and the total number of items of an input.
+     * @param sampled the number of sampled items
+     * @param total the total number of items
+     */
+    public record Share(int sampled, int total) {
+        /**
+         * Gets the sampled share of the items.
+         * @return the share between 0 and 1, 1 if the input is empty
+         */
+        public double ratio() {
+            return total == 0 ? 1 : (double) sampled / total;
+        }
+    }
+
+    private PreviewSample(File text, File model, PrunedCodeTree code, Share sentences, Share modelElements, Share codeFiles) {
+        this.text = text;
+        this.model = model;
+        this.code = code;
+        this.sentences = sentences;
+        this.modelElements = modelElements;
+        this.codeFiles = codeFiles;
+    }
+
+    /**
+     * Samples the inputs of a trace link recovery. The code tree may also be the root of a {@link CodeArchive}.
+     * @param sad the documentation
+     * @param sam the architecture model, or null if the recovery uses no model
+     * @param codeRoot the root of the code tree, or null if the recovery uses no code
+     * @param fraction the share of sentences, model elements and code packages to keep, between 0 (exclusive) and 1
+     * @return the sample
+     * @throws IOException if an input cannot be read or the sample cannot be written
+     * @throws IllegalArgumentException if the fraction is out of range
+     */
+    public static PreviewSample create(File sad, File sam, Path codeRoot, double fraction) throws IOException {
+        if (!(fraction > 0 && fraction <= 1)) {
+            throw new IllegalArgumentException("Preview fraction must be in (0, 1]: " + fraction);
+        }
+        File text = Files.createTempFile("ardoco-preview-", suffix(sad)).toFile();
+        File model = sam == null ? null : Files.createTempFile("ardoco-preview-", suffix(sam)).toFile();
+        PrunedCodeTree code = null;
+        try {
+            Share sentences = sampleText(sad, text, fraction);
+            Share modelElements = new Share(0, 0);
+            if (sam != null) {
+                modelElements = sampleModel(sam, model, fraction);
+            }
+            Share codeFiles = new Share(0, 0);
+            if (codeRoot != null) {
+                CodeSample codeSample = sampleCode(codeRoot, fraction);
+                code = PrunedCodeTree.of(codeRoot, codeSample.files(), 1, ItemProgress.NONE);
+                codeFiles = new Share(codeSample.files().size(), codeSample.total());
+            }
+            logger.info("Preview sample: {} of {} sentences, {} of {} model elements, {} of {} code files", sentences.sampled(),
+                    sentences.total(), modelElements.sampled(), modelElements.total(), codeFiles.sampled(), codeFiles.total());
+            return new PreviewSample(text, model, code, sentences, modelElements, codeFiles);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(text.toPath());
+            if (model != null) {
+                Files.deleteIfExists(model.toPath());
+            }
+            if (code != null) {
+                code.close();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Checks whether an item is part of an evenly spaced sample.
+     * @param index the index of the item
+     * @param fraction the share of items to sample
+     * @return true if the item is sampled
+     */
+    static boolean isSampled(int index, double fraction) {
+        return Math.floor((index + 1) * fraction) > Math.floor(index * fraction);
+    }
+
+    /**
+     * Checks whether a sample of the items would be empty, in which case the first item is sampled.
+     */
+    private static boolean isTooSmall(int items, double fraction) {
+        return Math.floor(items * fraction) < 1;
+    }
+
+    /**
+     * Samples the sentences of a text, keeping the whitespace and line breaks that follow them.
+     */
+    static Share sampleText(File source, File target, double fraction) throws IOException {
+        String text = MappedInput.readText(source).toString();
+        BreakIterator boundaries = BreakIterator.getSentenceInstance(Locale.ENGLISH);
+        boundaries.setText(text);
+        List<String> sentences = new ArrayList<>();
+        for (int start = boundaries.first(), end = boundaries.next(); end != BreakIterator.DONE; start = end, end = boundaries.next()) {
+            String sentence = text.substring(start, end);
+            if (!sentence.isBlank()) {
+                sentences.add(sentence);
+            }
+        }
+        boolean keepFirst = isTooSmall(sentences.size(), fraction);
+        StringBuilder sample = new StringBuilder();
+        int sampled = 0;
+        for (int i = 0; i < sentences.size(); i++) {
+            if (isSampled(i, fraction) || i == 0 && keepFirst) {
+                sample.append(sentences.get(i));
+                sampled++;
+            }
+        }
+        Files.writeString(target.toPath(), sample, StandardCharsets.UTF_8);
+        return new Share(sampled, sentences.size());
+    }
+
+    /**
+     * Samples the components of a PCM repository or UML model. Other elements, such as interfaces, are kept.
+     */
+    static Share sampleModel(File source, File target, double fraction) throws IOException {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setNamespaceAware(false);
+            Document document = factory.newDocumentBuilder().parse(source);
+
+            List<Element> components = new ArrayList<>();
+            collectComponents(document.getDocumentElement(), components);
+            boolean keepFirst = isTooSmall(components.size(), fraction);
+            int kept = 0;
+            for (int i = 0; i < components.size(); i++) {
+                if (isSampled(i, fraction) || i == 0 && keepFirst) {
+                    kept++;
+                } else {
+                    components.get(i).getParentNode().removeChild(components.get(i));
+                }
+            }
+
+            TransformerFactory transformers = TransformerFactory.newInstance();
+            transformers.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            transformers.newTransformer().transform(new DOMSource(document), new StreamResult(target));
+            return new Share(kept, components.size());
+        } catch (ParserConfigurationException | SAXException | TransformerException e) {
+            throw new IOException("Could not sample model " + source, e);
+        }
+    }
+
+    private static void collectComponents(Element element, List<Element> components) {
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof Element childElement) {
+                if (PCM_COMPONENT.equals(childElement.getTagName()) || UML_ELEMENT.equals(childElement.getTagName()) && UML_COMPONENT
+                        .equals(childElement.getAttribute("xmi:type"))) {
+                    components.add(childElement);
+                } else {
+                    collectComponents(childElement, components);
+                }
+            }
+        }
+    }
+
+    private record CodeSample(List<String> files, int total) {
+    }
+
+    /**
+     * Samples the packages of a code tree.
+     */
+    private static CodeSample sampleCode(Path root, double fraction) throws IOException {
+        Map<String, List<String>> packages = new TreeMap<>();
+        int total;
+        try (Stream<Path> paths = Files.walk(root)) {
+            List<Path> files = paths.filter(Files::isRegularFile).toList();
+            total = files.size();
+            for (Path file : files) {
+                String path = root.relativize(file).toString().replace(File.separatorChar, '/');
+                int slash = path.lastIndexOf('/');
+                packages.computeIfAbsent(slash < 0 ? "" : path.substring(0, slash), key -> new ArrayList<>()).add(path);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        boolean keepFirst = isTooSmall(packages.size(), fraction);
+        List<String> sample = new ArrayList<>();
+        int index = 0;
+        for (List<String> files : packages.values()) {
+            if (isSampled(index, fraction) || index == 0 && keepFirst) {
+                sample.addAll(files);
+            }
+            index++;
+        }
+        return new CodeSample(sample, total);
+    }
+
+    private static String suffix(File file) {
+        String fileName = file.getName();
+        int dot = fileName.lastIndexOf('.');
+        return dot < 0 ? null : fileName.substring(dot);
+    }
+
+    /**
+     * Gets the sampled documentation.
+     * @return the text file
+     */
+    public File getText() {
+        return text;
+    }
+
+    /**
+     * Gets the sampled architecture model.
+     * @return the model file, or null if no model was sampled
+     */
+    public File getModel() {
+        return model;
+    }
+
+    /**
+     * Gets the sampled code directory.
+     * @return the code directory, or null if no code was sampled
+     */
+    public File getCode() {
+        return code == null ? null : code.getDirectory();
+    }
+
+    /**
+     * Gets the sampled share of the sentences.
+     * @return the share of sentences
+     */
+    public Share getSentences() {
+        return sentences;
+    }
+
+    /**
+     * Gets the sampled share of the model elements.
+     * @return the share of model elements
+     */
+    public Share getModelElements() {
+        return modelElements;
+    }
+
+    /**
+     * Gets the sampled share of the code files.
+     * @return the share of code files
+     */
+    public Share getCodeFiles() {
+        return codeFiles;
+    }
+
+    @Override
+    public void close() throws IOException {
+        Files.deleteIfExists(text.toPath());
+        if (model != null) {
+            Files.deleteIfExists(model.toPath());
+        }
+        if (code != null) {
+            code.close();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package edu.kit.kastel.mcse.ardoco.cli.profiling;
+
+/* Licensed under MIT 2023. */
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event spanning the removal of temporary files.
+ */
+@Name(ProfilingEvents.PREFIX + "Cleanup")
+@Label("Cleanup")
+@Category(ProfilingEvents.CATEGORY)
+@Description("JFR event spanning the removal of temporary files.")
+public class CleanupEvent extends Event {
+    @Label("Directory")
+    public String directory;
+}
@@ -0,0 +1,21 @@
+package edu.kit.kastel.mcse.ardoco.cli.profiling;
+
+/* Licensed under MIT 2023. */
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event spanning the loading of the inputs of a task plugin.
+ */
+@Name(ProfilingEvents.PREFIX + "InputLoading")
+@Label("Input Loading")
+@Category(ProfilingEvents.CATEGORY)
+@Description("JFR event spanning the loading of the inputs of a task plugin.")
+public class InputLoadingEvent extends Event {
+    @Label("Task")
+    public String task;
+}
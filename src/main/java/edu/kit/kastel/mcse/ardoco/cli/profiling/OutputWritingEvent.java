@@ -0,0 +1,40 @@
+package edu.kit.kastel.mcse.ardoco.cli.profiling;
+
+/* Licensed under MIT 2023. */
+
+import java.io.File;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event spanning the writing of an output file by the CLI, i.e., a trace link file or a report. The files that the ArDoCo runners
+ * write themselves are part of the stage that runs them.
+ */
+@Name(ProfilingEvents.PREFIX + "OutputWriting")
+@Label("Output Writing")
+@Category(ProfilingEvents.CATEGORY)
+@Description("JFR event spanning the writing of an output file by the CLI.")
+public class OutputWritingEvent extends Event {
+    @Label("File")
+    public String file;
+
+    @Label("Entries")
+    @Description("Number of records in the file, 0 for a text report")
+    public long entries;
+
+    /**
+     * Creates and begins the event for writing a file. The caller sets the entries and commits the event once the file is written.
+     * @param file the file
+     * @return the begun event
+     */
+    public static OutputWritingEvent begin(File file) {
+        OutputWritingEvent event = new OutputWritingEvent();
+        event.file = file.getName();
+        event.begin();
+        return event;
+    }
+}
@@ -0,0 +1,167 @@
+package edu.kit.kastel.mcse.ardoco.cli.profiling;
+
+/* Licensed under MIT 2023. */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Java Flight Recorder recording of a CLI run.
+ * On stop, the recording is written to {@code ardoco-profile.jfr} in the output directory, together with a text summary of the
+ * hottest methods, the top allocation sites and the time spent in the CLI's plugins and stages.
+ */
+public class Profiler {
+    private static final Logger logger = LoggerFactory.getLogger(Profiler.class);
+    private static final String RECORDING_FILE = "ardoco-profile.jfr";
+    private static final String SUMMARY_FILE = "ardoco-profile-summary.txt";
+    private static final String CONFIGURATION = "profile";
+    private static final int TOP_ENTRIES = 20;
+    /**
+     * Event whose weights estimate the allocated bytes. The TLAB events of the profile settings sample the same allocations, so they
+     * are not added on top.
+     */
+    private static final String ALLOCATION_SAMPLE = "jdk.ObjectAllocationSample";
+
+    private final Recording recording;
+
+    private Profiler(Recording recording) {
+        this.recording = recording;
+    }
+
+    /**
+     * Starts a recording with the JDK's profiling settings and the custom events of the CLI.
+     * @return the profiler
+     * @throws IOException if the settings cannot be read
+     */
+    public static Profiler start() throws IOException {
+        Recording recording;
+        try {
+            recording = new Recording(Configuration.getConfiguration(CONFIGURATION));
+        } catch (ParseException e) {
+            throw new IOException("Invalid JFR configuration " + CONFIGURATION, e);
+        }
+        recording.setName("ArDoCo CLI");
+        for (Class<? extends Event> event : List.of(PluginExecutionEvent.class, StageEvent.class, InputLoadingEvent.class,
+                OutputWritingEvent.class, CleanupEvent.class)) {
+            recording.enable(event);
+        }
+        recording.start();
+        logger.info("Profiling started");
+        return new Profiler(recording);
+    }
+
+    /**
+     * Stops the recording and writes the recording and its summary into the output directory.
+     * @param outputDir the output directory
+     * @return the recording file
+     * @throws IOException if the files cannot be written
+     */
+    public File stop(File outputDir) throws IOException {
+        Path recordingFile = outputDir.toPath().resolve(RECORDING_FILE);
+        try {
+            recording.stop();
+            recording.dump(recordingFile);
+        } finally {
+            recording.close();
+        }
+        Path summaryFile = outputDir.toPath().resolve(SUMMARY_FILE);
+        writeSummary(recordingFile, summaryFile);
+        logger.info("Profile written to {} (summary: {})", recordingFile, summaryFile);
+        return recordingFile.toFile();
+    }
+
+    /**
+     * Writes a text summary of a recording.
+     * @param recordingFile the recording
+     * @param summaryFile the summary file
+     * @throws IOException if the recording cannot be read or the summary cannot be written
+     */
+    public static void writeSummary(Path recordingFile, Path summaryFile) throws IOException {
+        Map<String, Long> executionSamples = new HashMap<>();
+        Map<String, Long> allocations = new HashMap<>();
+        Map<String, Duration> cliEvents = new HashMap<>();
+        long totalSamples = 0;
+        try (RecordingFile recording = new RecordingFile(recordingFile)) {
+            while (recording.hasMoreEvents()) {
+                RecordedEvent event = recording.readEvent();
+                String type = event.getEventType().getName();
+                if ("jdk.ExecutionSample".equals(type)) {
+                    executionSamples.merge(topFrame(event.getStackTrace()), 1L, Long::sum);
+                    totalSamples++;
+                } else if (ALLOCATION_SAMPLE.equals(type) && event.hasField("weight")) {
+                    allocations.merge(allocationSite(event), event.getLong("weight"), Long::sum);
+                } else if (type.startsWith(ProfilingEvents.PREFIX)) {
+                    cliEvents.merge(describe(event), event.getDuration(), Duration::plus);
+                }
+            }
+        }
+
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(summaryFile, StandardCharsets.UTF_8))) {
+            writer.println("ArDoCo CLI profile of " + recordingFile.getFileName());
+            writer.println();
+            writer.printf(Locale.ROOT, "Hot methods (%d execution samples)%n", totalSamples);
+            long samples = Math.max(1, totalSamples);
+            top(executionSamples).forEach(entry -> writer.printf(Locale.ROOT, "  %6.2f %%  %s%n", 100.0 * entry.getValue() / samples,
+                    entry.getKey()));
+            writer.println();
+            writer.println("Allocation sites (sampled bytes)");
+            top(allocations).forEach(entry -> writer.printf(Locale.ROOT, "  %,15d  %s%n", entry.getValue(), entry.getKey()));
+            writer.println();
+            writer.println("Plugins and stages (total duration)");
+            cliEvents.entrySet()
+                    .stream()
+                    .sorted(Map.Entry.<String, Duration>comparingByValue().reversed())
+                    .forEach(entry -> writer.printf(Locale.ROOT, "  %10.3f s  %s%n", entry.getValue().toNanos() / 1e9, entry.getKey()));
+        }
+    }
+
+    private static List<Map.Entry<String, Long>> top(Map<String, Long> values) {
+        return values.entrySet().stream().sorted(Map.Entry.<String, Long>comparingByValue().reversed()).limit(TOP_ENTRIES).toList();
+    }
+
+    private static String topFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "<unknown>";
+        }
+        RecordedFrame frame = stackTrace.getFrames().get(0);
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+    }
+
+    private static String allocationSite(RecordedEvent event) {
+        if (!event.hasField("objectClass") || event.getClass("objectClass") == null) {
+            return "<unknown> at " + topFrame(event.getStackTrace());
+        }
+        return event.getClass("objectClass").getName() + " at " + topFrame(event.getStackTrace());
+    }
+
+    private static String describe(RecordedEvent event) {
+        StringBuilder description = new StringBuilder(event.getEventType().getLabel());
+        for (String field : List.of("task", "stage", "file", "directory")) {
+            if (event.hasField(field) && event.getString(field) != null) {
+                description.append(' ').append(field).append('=').append(event.getString(field));
+            }
+        }
+        return description.toString();
+    }
+}
@@ -0,0 +1,24 @@
+package edu.kit.kastel.mcse.ardoco.cli.profiling;
+
+/* Licensed under MIT 2023. */
+
+/**
+ * Names shared by the custom JFR events of the CLI.
+ */
+public final class ProfilingEvents {
+    /**
+     * Prefix of the event names.
+     */
+    public static final String PREFIX = "edu.kit.kastel.mcse.ardoco.cli.";
+    /**
+     * Category of the events in JDK Mission Control.
+     */
+    public static final String CATEGORY = "ArDoCo CLI";
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private ProfilingEvents() {
+        throw new IllegalAccessError();
+    }
+}
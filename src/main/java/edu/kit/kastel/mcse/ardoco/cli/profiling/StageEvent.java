@@ -0,0 +1,24 @@
+package edu.kit.kastel.mcse.ardoco.cli.profiling;
+
+/* Licensed under MIT 2023. */
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event spanning a stage of a task plugin.
+ */
+@Name(ProfilingEvents.PREFIX + "Stage")
+@Label("Stage")
+@Category(ProfilingEvents.CATEGORY)
+@Description("JFR event spanning a stage of a task plugin.")
+public class StageEvent extends Event {
+    @Label("Task")
+    public String task;
+
+    @Label("Stage")
+    public String stage;
+}
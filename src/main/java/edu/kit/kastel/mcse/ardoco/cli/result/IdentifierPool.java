@@ -0,0 +1,104 @@
+package edu.kit.kastel.mcse.ardoco.cli.result;
+
+/* Licensed under MIT 2023. */
+
+import java.util.Arrays;
+
+/**
+ * Interns identifiers (model element IDs, sentence numbers, code paths) into dense int handles.
+ * Each distinct identifier is stored exactly once; links only keep the handles.
+ * This only covers links the CLI handles after a run (result files, the API result, evaluation, transitive joins and the history);
+ * the links ArDoCo builds while a pipeline runs are not interned.
+ * Instances are not thread-safe.
+ */
+public final class IdentifierPool {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int NO_HANDLE = -1;
+
+    private String[] identifiers;
+    private int[] table;
+    private int size;
+
+    /**
+     * Creates an empty pool.
+     */
+    public IdentifierPool() {
+        this.identifiers = new String[INITIAL_CAPACITY];
+        this.table = new int[INITIAL_CAPACITY * 2];
+        Arrays.fill(table, NO_HANDLE);
+    }
+
+    /**
+     * Gets the handle of an identifier, adding it to the pool if necessary.
+     * @param identifier the identifier
+     * @return the handle
+     */
+    public int intern(String identifier) {
+        int slot = findSlot(table, identifier);
+        if (table[slot] != NO_HANDLE) {
+            return table[slot];
+        }
+        if (size == identifiers.length) {
+            identifiers = Arrays.copyOf(identifiers, size * 2);
+        }
+        int handle = size++;
+        identifiers[handle] = identifier;
+        table[slot] = handle;
+        if (size * 2 > table.length) {
+            rehash();
+        }
+        return handle;
+    }
+
+    /**
+     * Gets the handle of an identifier without adding it.
+     * @param identifier the identifier
+     * @return the handle, or -1 if the identifier is not part of the pool
+     */
+    public int handleOf(String identifier) {
+        return table[findSlot(table, identifier)];
+    }
+
+    /**
+     * Resolves a handle to its identifier.
+     * @param handle the handle
+     * @return the identifier
+     */
+    public String resolve(int handle) {
+        if (handle < 0 || handle >= size) {
+            throw new IllegalArgumentException("Unknown identifier handle: " + handle);
+        }
+        return identifiers[handle];
+    }
+
+    /**
+     * Gets the number of distinct identifiers.
+     * @return the number of identifiers
+     */
+    public int size() {
+        return size;
+    }
+
+    private int findSlot(int[] slots, String identifier) {
+        int mask = slots.length - 1;
+        int slot = mix(identifier.hashCode()) & mask;
+        while (slots[slot] != NO_HANDLE && !identifiers[slots[slot]].equals(identifier)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash() {
+        int[] newTable = new int[table.length * 2];
+        Arrays.fill(newTable, NO_HANDLE);
+        for (int handle = 0; handle < size; handle++) {
+            newTable[findSlot(newTable, identifiers[handle])] = handle;
+        }
+        table = newTable;
+    }
+
+    static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
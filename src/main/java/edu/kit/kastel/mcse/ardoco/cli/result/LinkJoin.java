@@ -0,0 +1,89 @@
+package edu.kit.kastel.mcse.ardoco.cli.result;
+
+/* Licensed under MIT 2023. */
+
+/**
+ * Composes two link tables through a shared column, e.g. SAD-SAM ({@code sentence - model element}) and SAM-CODE
+ * ({@code model element - code element}) links to SAD-CODE ({@code sentence - code element}) links.
+ * The join indexes the second table by the handles of its key column, so each link of the first table only visits its matches.
+ */
+public final class LinkJoin {
+    /**
+     * Index of the source column of a link table.
+     */
+    public static final int SOURCE = 0;
+    /**
+     * Index of the target column of a link table.
+     */
+    public static final int TARGET = 1;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private LinkJoin() {
+        throw new IllegalAccessError();
+    }
+
+    /**
+     * Gets the column of a link table with the given name, ignoring case.
+     * @param links the links
+     * @param column the column name
+     * @return {@link #SOURCE} or {@link #TARGET}, or -1 if the table has no such column
+     */
+    public static int columnOf(LinkTable links, String column) {
+        if (links.getSourceColumn().equalsIgnoreCase(column)) {
+            return SOURCE;
+        }
+        return links.getTargetColumn().equalsIgnoreCase(column) ? TARGET : -1;
+    }
+
+    /**
+     * Composes the links of two tables that share the same value in their key columns.
+     * The result links the other column of the first table to the other column of the second table.
+     * @param first the first links
+     * @param firstKey the key column of the first links
+     * @param second the second links, using the same identifier pool
+     * @param secondKey the key column of the second links
+     * @return the distinct composed links in the order of the first table
+     * @throws IllegalArgumentException if the tables use different pools
+     */
+    public static LinkTable compose(LinkTable first, int firstKey, LinkTable second, int secondKey) {
+        IdentifierPool pool = first.getPool();
+        if (pool != second.getPool()) {
+            throw new IllegalArgumentException("Joined link tables must share their identifier pool");
+        }
+        LinkTable result = new LinkTable(pool, column(first, 1 - firstKey), column(second, 1 - secondKey));
+
+        // counting sort of the rows of the second table by key handle
+        int[] offsets = new int[pool.size() + 1];
+        for (int i = 0; i < second.size(); i++) {
+            offsets[value(second, i, secondKey) + 1]++;
+        }
+        for (int key = 0; key < pool.size(); key++) {
+            offsets[key + 1] += offsets[key];
+        }
+        int[] rows = new int[second.size()];
+        int[] next = new int[pool.size()];
+        System.arraycopy(offsets, 0, next, 0, pool.size());
+        for (int i = 0; i < second.size(); i++) {
+            rows[next[value(second, i, secondKey)]++] = i;
+        }
+
+        for (int i = 0; i < first.size(); i++) {
+            int key = value(first, i, firstKey);
+            int left = value(first, i, 1 - firstKey);
+            for (int j = offsets[key]; j < offsets[key + 1]; j++) {
+                result.add(left, value(second, rows[j], 1 - secondKey));
+            }
+        }
+        return result;
+    }
+
+    private static int value(LinkTable links, int index, int column) {
+        return column == SOURCE ? links.source(index) : links.target(index);
+    }
+
+    private static String column(LinkTable links, int column) {
+        return column == SOURCE ? links.getSourceColumn() : links.getTargetColumn();
+    }
+}
@@ -0,0 +1,192 @@
+package edu.kit.kastel.mcse.ardoco.cli.result;
+
+/* Licensed under MIT 2023. */
+
+import java.util.Arrays;
+
+/**
+ * Set of trace links stored as pairs of interned identifier handles.
+ * Sources and targets are kept in two parallel int arrays in insertion order, duplicates are dropped.
+ * Identifiers are only resolved to strings when the links are written.
+ * Tables are filled after a run from the runner's output, so they do not reduce the memory ArDoCo needs during the run.
+ */
+public final class LinkTable {
+    private static final int INITIAL_CAPACITY = 256;
+    private static final long EMPTY = -1L;
+
+    private final IdentifierPool pool;
+    private final String sourceColumn;
+    private final String targetColumn;
+
+    private int[] sources;
+    private int[] targets;
+    private int size;
+    private long[] keys;
+    private int[] indices;
+
+    /**
+     * Creates an empty link table.
+     * @param pool the pool the link identifiers are interned in
+     * @param sourceColumn the name of the source column
+     * @param targetColumn the name of the target column
+     */
+    public LinkTable(IdentifierPool pool, String sourceColumn, String targetColumn) {
+        this.pool = pool;
+        this.sourceColumn = sourceColumn;
+        this.targetColumn = targetColumn;
+        this.sources = new int[INITIAL_CAPACITY];
+        this.targets = new int[INITIAL_CAPACITY];
+        this.keys = new long[INITIAL_CAPACITY * 2];
+        this.indices = new int[INITIAL_CAPACITY * 2];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * Adds a link given by its identifiers.
+     * @param source the source identifier
+     * @param target the target identifier
+     * @return true if the link was not yet part of the table
+     */
+    public boolean add(String source, String target) {
+        return add(pool.intern(source), pool.intern(target));
+    }
+
+    /**
+     * Adds a link given by its identifier handles.
+     * @param source the source handle
+     * @param target the target handle
+     * @return true if the link was not yet part of the table
+     */
+    public boolean add(int source, int target) {
+        long key = pack(source, target);
+        int slot = findSlot(keys, key);
+        if (keys[slot] != EMPTY) {
+            return false;
+        }
+        keys[slot] = key;
+        indices[slot] = size;
+        if (size == sources.length) {
+            sources = Arrays.copyOf(sources, size * 2);
+            targets = Arrays.copyOf(targets, size * 2);
+        }
+        sources[size] = source;
+        targets[size] = target;
+        size++;
+        if (size * 2 > keys.length) {
+            rehash();
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether the table contains a link.
+     * @param source the source handle
+     * @param target the target handle
+     * @return true if the link is part of the table
+     */
+    public boolean contains(int source, int target) {
+        long key = pack(source, target);
+        return keys[findSlot(keys, key)] == key;
+    }
+
+    /**
+     * Gets the position of a link.
+     * @param source the source handle
+     * @param target the target handle
+     * @return the position in insertion order, or -1 if the link is not part of the table
+     */
+    public int indexOf(int source, int target) {
+        long key = pack(source, target);
+        int slot = findSlot(keys, key);
+        return keys[slot] == key ? indices[slot] : -1;
+    }
+
+    /**
+     * Checks whether the table contains a link.
+     * @param source the source identifier
+     * @param target the target identifier
+     * @return true if the link is part of the table
+     */
+    public boolean contains(String source, String target) {
+        int sourceHandle = pool.handleOf(source);
+        int targetHandle = pool.handleOf(target);
+        return sourceHandle >= 0 && targetHandle >= 0 && contains(sourceHandle, targetHandle);
+    }
+
+    /**
+     * Gets the source handle of the link at the given position.
+     * @param index the position in insertion order
+     * @return the source handle
+     */
+    public int source(int index) {
+        return sources[index];
+    }
+
+    /**
+     * Gets the target handle of the link at the given position.
+     * @param index the position in insertion order
+     * @return the target handle
+     */
+    public int target(int index) {
+        return targets[index];
+    }
+
+    /**
+     * Gets the number of links.
+     * @return the number of links
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the pool the identifiers are interned in.
+     * @return the identifier pool
+     */
+    public IdentifierPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Gets the name of the source column.
+     * @return the source column
+     */
+    public String getSourceColumn() {
+        return sourceColumn;
+    }
+
+    /**
+     * Gets the name of the target column.
+     * @return the target column
+     */
+    public String getTargetColumn() {
+        return targetColumn;
+    }
+
+    private static long pack(int source, int target) {
+        return ((long) source << 32) | (target & 0xFFFFFFFFL);
+    }
+
+    private static int findSlot(long[] slots, long key) {
+        int mask = slots.length - 1;
+        int slot = IdentifierPool.mix(Long.hashCode(key)) & mask;
+        while (slots[slot] != EMPTY && slots[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash() {
+        long[] newKeys = new long[keys.length * 2];
+        int[] newIndices = new int[keys.length * 2];
+        Arrays.fill(newKeys, EMPTY);
+        for (int i = 0; i < size; i++) {
+            long key = pack(sources[i], targets[i]);
+            int slot = findSlot(newKeys, key);
+            newKeys[slot] = key;
+            newIndices[slot] = i;
+        }
+        keys = newKeys;
+        indices = newIndices;
+    }
+}
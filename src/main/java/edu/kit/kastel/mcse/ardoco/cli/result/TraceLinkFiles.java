@@ -0,0 +1,98 @@
+package edu.kit.kastel.mcse.ardoco.cli.result;
+
+/* Licensed under MIT 2023. */
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import edu.kit.kastel.mcse.ardoco.cli.io.MappedInput;
+import edu.kit.kastel.mcse.ardoco.cli.profiling.OutputWritingEvent;
+
+/**
+ * Reads and writes the two-column trace link CSV files (e.g. {@code sadSamTlr_<name>.csv}) produced by the runners.
+ */
+public final class TraceLinkFiles {
+    private static final char SEPARATOR = ',';
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private TraceLinkFiles() {
+        throw new IllegalAccessError();
+    }
+
+    /**
+     * Reads a trace link file into a new link table.
+     * @param file the CSV file with a header line
+     * @param pool the pool to intern the identifiers in
+     * @return the link table
+     * @throws IOException if the file cannot be read or is malformed
+     */
+    public static LinkTable read(File file, IdentifierPool pool) throws IOException {
+        Parser parser = new Parser(file, pool);
+        if (!MappedInput.forEachRecord(file, parser::header, parser::record)) {
+            throw new IOException("Empty trace link file: " + file);
+        }
+        return parser.links;
+    }
+
+    /**
+     * Writes a link table as CSV file, resolving the identifiers while writing.
+     * @param file the target file
+     * @param links the links to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(File file, LinkTable links) throws IOException {
+        IdentifierPool pool = links.getPool();
+        OutputWritingEvent event = OutputWritingEvent.begin(file);
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writer.write(links.getSourceColumn());
+            writer.write(SEPARATOR);
+            writer.write(links.getTargetColumn());
+            writer.newLine();
+            for (int i = 0; i < links.size(); i++) {
+                writer.write(pool.resolve(links.source(i)));
+                writer.write(SEPARATOR);
+                writer.write(pool.resolve(links.target(i)));
+                writer.newLine();
+            }
+        }
+        event.entries = links.size();
+        event.commit();
+    }
+
+    /**
+     * Parses the lines of a trace link file into a link table created from the header line.
+     */
+    private static final class Parser {
+        private final File file;
+        private final IdentifierPool pool;
+        private LinkTable links;
+
+        private Parser(File file, IdentifierPool pool) {
+            this.file = file;
+            this.pool = pool;
+        }
+
+        private void header(String line) throws IOException {
+            int separator = separator(line);
+            links = new LinkTable(pool, line.substring(0, separator), line.substring(separator + 1));
+        }
+
+        private void record(String line) throws IOException {
+            int separator = separator(line);
+            links.add(line.substring(0, separator), line.substring(separator + 1));
+        }
+
+        private int separator(String line) throws IOException {
+            int separator = line.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IOException("Malformed trace link line in " + file + ": " + line);
+            }
+            return separator;
+        }
+    }
+}
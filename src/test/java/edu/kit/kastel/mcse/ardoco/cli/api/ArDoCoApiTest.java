@@ -0,0 +1,66 @@
+package edu.kit.kastel.mcse.ardoco.cli.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import edu.kit.kastel.mcse.ardoco.core.tests.eval.CodeProject;
+import edu.kit.kastel.mcse.ardoco.core.tests.eval.Project;
+
+class ArDoCoApiTest {
+
+    private static final CodeProject CODE_PROJECT = CodeProject.MEDIASTORE;
+    private static final Project PROJECT = CODE_PROJECT.getCodeProject();
+
+    private static TraceLinkRequest sadSamRequest() {
+        return TraceLinkRequest.builder(TraceLinkTask.SAD_SAM, PROJECT.name())
+                .documentation(PROJECT.getTextFile())
+                .model(PROJECT.getModelFile())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Missing inputs")
+    void testMissingInputs() {
+        TraceLinkRequest.Builder builder = TraceLinkRequest.builder(TraceLinkTask.SAD_CODE, PROJECT.name())
+                .documentation(PROJECT.getTextFile())
+                .model(PROJECT.getModelFile());
+        assertThrows(IllegalArgumentException.class, builder::build);
+    }
+
+    @Test
+    @DisplayName("SAD-SAM in memory")
+    void testSadSam() throws IOException {
+        TraceLinkResult result = ArDoCoApi.recover(sadSamRequest());
+        assertFalse(result.getLinks().isEmpty());
+        assertEquals(List.of("modelElementID", "sentence"), result.getColumns());
+
+        List<TraceLink> streamed = new ArrayList<>();
+        ArDoCoApi.recover(sadSamRequest(), streamed::add);
+        assertEquals(result.getLinks(), streamed);
+    }
+
+    @Test
+    @DisplayName("Concurrent callers")
+    void testConcurrentCallers() {
+        List<CompletableFuture<List<TraceLink>>> calls = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            calls.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return ArDoCoApi.recover(sadSamRequest()).getLinks();
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+        }
+        assertEquals(calls.get(0).join(), calls.get(1).join());
+    }
+}
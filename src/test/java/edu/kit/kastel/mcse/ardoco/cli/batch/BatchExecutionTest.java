@@ -0,0 +1,230 @@
+package edu.kit.kastel.mcse.ardoco.cli.batch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.Option;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import edu.kit.kastel.mcse.ardoco.cli.plugin.core.PluginManager;
+import edu.kit.kastel.mcse.ardoco.cli.plugin.core.TaskPlugin;
+
+class BatchExecutionTest {
+
+    private static final AtomicInteger EXECUTIONS = new AtomicInteger();
+    private static final AtomicInteger REFUSALS = new AtomicInteger();
+    private static final List<String> PROJECTS = List.of("alpha", "beta", "gamma");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Coordinator with two workers")
+    void testCoordinatorWithWorkers() throws Exception {
+        EXECUTIONS.set(0);
+        File output = tempDir.resolve("out").toFile();
+        try (BatchCoordinator coordinator = new BatchCoordinator(0, output, echoUnits(), 2, 5_000)) {
+            List<Thread> workers = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                Thread worker = new Thread(() -> {
+                    try {
+                        new BatchWorker("localhost", coordinator.getPort(), BatchExecutionTest::createPluginManager, 100).run();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                worker.start();
+                workers.add(worker);
+            }
+
+            assertTrue(coordinator.run(1, TimeUnit.MINUTES));
+            for (Thread worker : workers) {
+                worker.join(TimeUnit.SECONDS.toMillis(10));
+            }
+            assertEquals(3, coordinator.getCompleted().size());
+        }
+
+        assertEchoOutput(output);
+        // three units plus one retry
+        assertEquals(4, EXECUTIONS.get());
+    }
+
+    @Test
+    @DisplayName("Coordinator with local worker JVMs")
+    void testLocalWorkers() throws Exception {
+        File output = tempDir.resolve("out").toFile();
+        List<Process> workers = new ArrayList<>();
+        try (BatchCoordinator coordinator = new BatchCoordinator(0, output, echoUnits(), 3, 10_000)) {
+            for (int i = 0; i < 2; i++) {
+                workers.add(BatchCommand.startLocalWorker(LocalWorker.class, coordinator.getPort(), 1));
+            }
+            assertTrue(coordinator.run(2, TimeUnit.MINUTES));
+            assertEquals(3, coordinator.getCompleted().size());
+            for (Process worker : workers) {
+                assertTrue(worker.waitFor(30, TimeUnit.SECONDS));
+                assertEquals(0, worker.exitValue());
+            }
+        } finally {
+            workers.forEach(Process::destroyForcibly);
+        }
+        // each worker JVM fails its first unit once
+        assertEchoOutput(output);
+    }
+
+    @Test
+    @DisplayName("Fail a unit whose task reports a failure without throwing")
+    void testTaskFailure() throws Exception {
+        REFUSALS.set(0);
+        File output = tempDir.resolve("out").toFile();
+        List<WorkUnit> units = List.of(new WorkUnit("alpha", "refuse", List.of("-t", "refuse", "-n", "alpha")));
+        try (BatchCoordinator coordinator = new BatchCoordinator(0, output, units, 2, 5_000)) {
+            Thread worker = new Thread(() -> {
+                try {
+                    new BatchWorker("localhost", coordinator.getPort(), BatchExecutionTest::createPluginManager, 100).run();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            worker.start();
+
+            assertFalse(coordinator.run(1, TimeUnit.MINUTES));
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+            assertEquals(List.of(), coordinator.getCompleted());
+            assertEquals(List.of(units.get(0).id()), coordinator.getFailed());
+        }
+        assertEquals(2, REFUSALS.get());
+    }
+
+    private static List<WorkUnit> echoUnits() {
+        List<WorkUnit> units = new ArrayList<>();
+        for (String project : PROJECTS) {
+            units.add(new WorkUnit(project, "echo", List.of("-t", "echo", "-n", project)));
+        }
+        return units;
+    }
+
+    private static void assertEchoOutput(File output) throws IOException {
+        for (String project : PROJECTS) {
+            Path unitDir = output.toPath().resolve(project).resolve("echo");
+            assertEquals(project, Files.readString(unitDir.resolve("echo_" + project + ".csv")));
+            // the partial output of a failed attempt is cleared before the retry
+            assertFalse(Files.exists(unitDir.resolve("partial_" + project + ".csv")));
+        }
+    }
+
+    private static PluginManager createPluginManager() {
+        PluginManager pluginManager = new PluginManager();
+        pluginManager.addPlugin(new EchoTaskPlugin());
+        pluginManager.addPlugin(new RefusingTaskPlugin());
+        return pluginManager;
+    }
+
+    /**
+     * Worker JVM started by the coordinator tests.
+     */
+    static final class LocalWorker {
+        private LocalWorker() {
+        }
+
+        public static void main(String[] args) {
+            if (!BatchCommand.execute(args, LocalWorker.class, BatchExecutionTest::createPluginManager)) {
+                System.exit(1);
+            }
+        }
+    }
+
+    /**
+     * Plugin that writes the project name; fails once, after writing partial output, to exercise the retry.
+     */
+    private static final class EchoTaskPlugin extends TaskPlugin {
+        @Override
+        public String getPrefix() {
+            return "echo";
+        }
+
+        @Override
+        public String getTaskName() {
+            return "echo";
+        }
+
+        @Override
+        public List<Option> getRequiredOptions() {
+            return new ArrayList<>();
+        }
+
+        @Override
+        public boolean execute(CommandLine cmd, File outputDir) {
+            String name = cmd.getOptionValue("n");
+            try {
+                if (EXECUTIONS.getAndIncrement() == 0) {
+                    Files.writeString(outputDir.toPath().resolve("partial_" + name + ".csv"), name);
+                    throw new IllegalStateException("flaky failure");
+                }
+                Files.writeString(outputDir.toPath().resolve("echo_" + name + ".csv"), name);
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public Map<String, String> getOptionPrefixDescriptions() {
+            return Map.of();
+        }
+    }
+
+    /**
+     * Plugin that writes partial output and reports a failure without throwing, like a task missing its inputs.
+     */
+    private static final class RefusingTaskPlugin extends TaskPlugin {
+        @Override
+        public String getPrefix() {
+            return "refuse";
+        }
+
+        @Override
+        public String getTaskName() {
+            return "refuse";
+        }
+
+        @Override
+        public List<Option> getRequiredOptions() {
+            return new ArrayList<>();
+        }
+
+        @Override
+        public boolean execute(CommandLine cmd, File outputDir) {
+            REFUSALS.incrementAndGet();
+            try {
+                Files.writeString(outputDir.toPath().resolve("partial_" + cmd.getOptionValue("n") + ".csv"), "");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return false;
+        }
+
+        @Override
+        public Map<String, String> getOptionPrefixDescriptions() {
+            return Map.of();
+        }
+    }
+}
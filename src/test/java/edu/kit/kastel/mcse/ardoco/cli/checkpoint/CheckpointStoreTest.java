@@ -0,0 +1,57 @@
+package edu.kit.kastel.mcse.ardoco.cli.checkpoint;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import edu.kit.kastel.mcse.ardoco.cli.io.Fingerprints;
+
+class CheckpointStoreTest {
+
+    private static final String TASK = "sad-code";
+    private static final String NAME = "mediastore";
+    private static final String STAGE = "link recovery";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Resume with unchanged inputs")
+    void testResume() throws IOException {
+        File input = Files.writeString(tempDir.resolve("input.txt"), "The MediaStore is a system.").toFile();
+        File result = Files.writeString(tempDir.resolve("sadCodeTlr_mediastore.csv"), "sentence,codeElementID\n1,a.java\n").toFile();
+        String fingerprint = Fingerprints.of(List.of(input));
+
+        CheckpointStore store = CheckpointStore.open(tempDir.toFile(), TASK, NAME, fingerprint, false);
+        assertFalse(store.isCompleted(STAGE));
+        store.complete(STAGE, List.of(result));
+        Files.delete(result.toPath());
+
+        CheckpointStore resumed = CheckpointStore.open(tempDir.toFile(), TASK, NAME, Fingerprints.of(List.of(input)), true);
+        assertEquals(List.of(STAGE), resumed.getCompletedStages());
+        assertTrue(resumed.restore(STAGE, tempDir.toFile()));
+        assertEquals("sentence,codeElementID\n1,a.java\n", Files.readString(result.toPath()));
+    }
+
+    @Test
+    @DisplayName("Discard checkpoint of changed inputs")
+    void testChangedInputs() throws IOException {
+        File input = Files.writeString(tempDir.resolve("input.txt"), "The MediaStore is a system.").toFile();
+        CheckpointStore store = CheckpointStore.open(tempDir.toFile(), TASK, NAME, Fingerprints.of(List.of(input)), false);
+        store.complete(STAGE, List.of());
+
+        Files.writeString(input.toPath(), "The MediaStore is a different system.");
+        CheckpointStore resumed = CheckpointStore.open(tempDir.toFile(), TASK, NAME, Fingerprints.of(List.of(input)), true);
+        assertFalse(resumed.isCompleted(STAGE));
+    }
+}
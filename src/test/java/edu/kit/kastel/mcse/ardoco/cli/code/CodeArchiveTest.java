@@ -0,0 +1,165 @@
+package edu.kit.kastel.mcse.ardoco.cli.code;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import edu.kit.kastel.mcse.ardoco.cli.plugin.core.ItemProgress;
+
+class CodeArchiveTest {
+
+    private static final long MODIFIED = 1_600_000_000_000L;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Prune a zip archive without extracting it")
+    void testZip() throws IOException {
+        File zip = tempDir.resolve("code.zip").toFile();
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zip.toPath()))) {
+            for (int i = 0; i < 100; i++) {
+                out.putNextEntry(new ZipEntry("src/other/Helper" + i + ".java"));
+                out.write(("class Helper" + i + " {}").getBytes(StandardCharsets.UTF_8));
+            }
+            out.putNextEntry(new ZipEntry("src/media/MediaStore.java"));
+            out.write("public class MediaStore {}".getBytes(StandardCharsets.UTF_8));
+        }
+        assertTrue(CodeArchive.isArchive(zip));
+
+        CodeArchive archive = CodeArchive.open(zip, 4);
+        assertFalse(archive.isExtracted());
+        IdentifierIndex index = IdentifierIndex.open(archive.getRoot(), tempDir.resolve("cache").toFile(), ItemProgress.NONE);
+        assertEquals(101, index.fileCount());
+        File directory;
+        try (PrunedCodeTree tree = PrunedCodeTree.create(archive.getRoot(), index, List.of("MediaStore"), 4, ItemProgress.NONE)
+                .closing(archive)) {
+            directory = tree.getDirectory();
+            assertEquals("public class MediaStore {}", Files.readString(directory.toPath().resolve("src/media/MediaStore.java")));
+            assertFalse(new File(directory, "src/other").exists());
+        }
+        assertFalse(directory.exists());
+        assertFalse(archive.getRoot().getFileSystem().isOpen());
+
+        // no match copies the complete tree, in parallel
+        AtomicLong copied = new AtomicLong();
+        try (CodeArchive reopened = CodeArchive.open(zip, 4);
+                PrunedCodeTree tree = PrunedCodeTree.create(reopened.getRoot(), index, List.of("Unknown"), 4,
+                        (processed, total) -> copied.accumulateAndGet(processed, Math::max))) {
+            assertEquals("class Helper42 {}", Files.readString(tree.getDirectory().toPath().resolve("src/other/Helper42.java")));
+        }
+        assertEquals(101, copied.get());
+    }
+
+    @Test
+    @DisplayName("Extract a gzip-compressed tar archive")
+    void testTar() throws IOException {
+        String longName = "src/" + "nested/".repeat(20) + "LongName.java";
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        writeEntry(tar, "src/", '5', new byte[0]);
+        writeEntry(tar, "././@LongLink", 'L', longName.getBytes(StandardCharsets.UTF_8));
+        writeEntry(tar, longName.substring(0, 99), '0', "class LongName {}".getBytes(StandardCharsets.UTF_8));
+        writeEntry(tar, "../Escape.java", '0', "class Escape {}".getBytes(StandardCharsets.UTF_8));
+        for (int i = 0; i < 50; i++) {
+            writeEntry(tar, "src/Store" + i + ".java", '0', ("class Store" + i + " {}").getBytes(StandardCharsets.UTF_8));
+        }
+        tar.write(new byte[1024]);
+        File archiveFile = tempDir.resolve("code.tar.gz").toFile();
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(archiveFile.toPath()))) {
+            tar.writeTo(out);
+        }
+
+        Path root;
+        try (CodeArchive archive = CodeArchive.open(archiveFile, 4)) {
+            assertTrue(archive.isExtracted());
+            root = archive.getRoot();
+            assertEquals("class LongName {}", Files.readString(root.resolve(longName)));
+            assertEquals("class Store7 {}", Files.readString(root.resolve("src/Store7.java")));
+            assertEquals(MODIFIED, Files.getLastModifiedTime(root.resolve("src/Store7.java")).toMillis());
+            assertEquals(51, IdentifierIndex.build(root).fileCount());
+            assertFalse(Files.exists(root.resolveSibling("Escape.java")));
+        }
+        assertFalse(Files.exists(root));
+    }
+
+    @Test
+    @DisplayName("Extract an archive once per content")
+    void testExtractCached() throws IOException {
+        File zip = tempDir.resolve("code.zip").toFile();
+        writeZip(zip, "class MediaStore {}");
+        File cacheDir = tempDir.resolve("cache").toFile();
+
+        File extracted = CodeArchive.extract(zip, cacheDir, 2, ItemProgress.NONE);
+        assertEquals("class MediaStore {}", Files.readString(extracted.toPath().resolve("src/MediaStore.java")));
+        // a marker only survives if the second run reuses the extracted tree
+        Files.writeString(extracted.toPath().resolve("marker"), "");
+        assertEquals(extracted, CodeArchive.extract(zip, cacheDir, 2, ItemProgress.NONE));
+        assertTrue(extracted.toPath().resolve("marker").toFile().isFile());
+
+        writeZip(zip, "class MediaStore { int size; }");
+        File changed = CodeArchive.extract(zip, cacheDir, 2, ItemProgress.NONE);
+        assertNotEquals(extracted, changed);
+        assertEquals("class MediaStore { int size; }", Files.readString(changed.toPath().resolve("src/MediaStore.java")));
+        assertEquals(2, cacheDir.list().length);
+    }
+
+    @Test
+    @DisplayName("Reject archive paths leaving the code tree")
+    void testResolve() {
+        assertEquals(tempDir.resolve("a/B.java"), CodeArchive.resolve(tempDir, "a/./B.java"));
+        assertNull(CodeArchive.resolve(tempDir, "/etc/passwd"));
+        assertNull(CodeArchive.resolve(tempDir, "a/../../B.java"));
+        assertNull(CodeArchive.resolve(tempDir, "./"));
+    }
+
+    private static void writeZip(File zip, String content) throws IOException {
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zip.toPath()))) {
+            out.putNextEntry(new ZipEntry("src/MediaStore.java"));
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void writeEntry(ByteArrayOutputStream tar, String name, char type, byte[] content) throws IOException {
+        byte[] header = new byte[512];
+        put(header, 0, name);
+        put(header, 100, "0000644");
+        put(header, 124, String.format("%011o", content.length));
+        put(header, 136, String.format("%011o", MODIFIED / 1000));
+        header[156] = (byte) type;
+        put(header, 257, "ustar");
+        put(header, 263, "00");
+        put(header, 148, "        ");
+        int checksum = 0;
+        for (byte b : header) {
+            checksum += b & 0xff;
+        }
+        put(header, 148, String.format("%06o", checksum));
+        tar.write(header);
+        tar.write(content);
+        tar.write(new byte[(512 - content.length % 512) % 512]);
+    }
+
+    private static void put(byte[] header, int offset, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(bytes, 0, header, offset, bytes.length);
+    }
+}
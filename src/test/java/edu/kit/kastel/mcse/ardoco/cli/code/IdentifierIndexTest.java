@@ -0,0 +1,134 @@
+package edu.kit.kastel.mcse.ardoco.cli.code;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class IdentifierIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    private File codeDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path code = tempDir.resolve("code");
+        write(code.resolve("src/main/java/mediastore/MediaAccess.java"), "public class MediaAccess {\n  static class AudioWatermarking {}\n}\n");
+        write(code.resolve("src/main/java/mediastore/user_db/UserDBAdapter.java"), "interface UserDBAdapter {}\n");
+        write(code.resolve("src/main/java/mediastore/util/StringHelper.java"), "final class StringHelper {}\n");
+        write(code.resolve("README.md"), "class Ignored in markdown\n");
+        codeDir = code.toFile();
+    }
+
+    @Test
+    @DisplayName("Split camel case and snake case identifiers")
+    void testTokens() {
+        assertEquals(List.of("media", "access", "http", "server"), IdentifierTokens.split("MediaAccessHTTPServer"));
+        assertEquals(List.of("user", "db", "adapter"), IdentifierTokens.split("user_db_adapter"));
+        assertEquals(List.of("mediastore", "user", "db", "adapter"), IdentifierTokens.split("src/main/java/mediastore/UserDBAdapter"));
+        assertEquals(List.of("reencoder"), IdentifierTokens.split("Reencoder2"));
+    }
+
+    @Test
+    @DisplayName("Index path tokens and declared types")
+    void testIndex() throws IOException {
+        IdentifierIndex index = IdentifierIndex.build(codeDir);
+        assertEquals(4, index.fileCount());
+        assertEquals(List.of("src/main/java/mediastore/MediaAccess.java"), paths(index, index.filesOf("watermarking")));
+        assertEquals(1, index.filesOf("db").length);
+        assertEquals(3, index.filesOf("mediastore").length);
+        assertEquals(0, index.filesOf("ignored").length);
+        assertEquals(0, index.filesOf("unknown").length);
+    }
+
+    @Test
+    @DisplayName("Reuse cached index")
+    void testCache() throws IOException {
+        File cacheDir = tempDir.resolve("cache").toFile();
+        IdentifierIndex built = IdentifierIndex.open(codeDir, cacheDir);
+        File[] cached = cacheDir.listFiles();
+        assertEquals(1, cached.length);
+
+        IdentifierIndex loaded = IdentifierIndex.load(cached[0]);
+        assertEquals(built.fileCount(), loaded.fileCount());
+        assertEquals(built.tokenCount(), loaded.tokenCount());
+        for (int i = 0; i < built.tokenCount(); i++) {
+            assertArrayEquals(built.filesOf(built.token(i)), loaded.filesOf(built.token(i)));
+        }
+    }
+
+    @Test
+    @DisplayName("Prune code tree to files sharing tokens with model elements")
+    void testPrune() throws IOException {
+        File model = write(tempDir.resolve("ms.repository"),
+                "<components__Repository entityName=\"MediaAccess\"/>\n<components__Repository entityName=\"UserDBAdapter\"/>\n").toFile();
+        List<String> names = ModelElementNames.read(model);
+        assertEquals(List.of("MediaAccess", "UserDBAdapter"), names);
+
+        IdentifierIndex index = IdentifierIndex.build(codeDir);
+        File root;
+        try (PrunedCodeTree tree = PrunedCodeTree.create(codeDir, index, names)) {
+            root = tree.getDirectory();
+            assertTrue(new File(root, "src/main/java/mediastore/MediaAccess.java").isFile());
+            assertTrue(new File(root, "src/main/java/mediastore/user_db/UserDBAdapter.java").isFile());
+            assertFalse(new File(root, "src/main/java/mediastore/util/StringHelper.java").exists());
+        }
+        assertFalse(root.exists());
+        assertTrue(new File(codeDir, "src/main/java/mediastore/MediaAccess.java").isFile());
+    }
+
+    @Test
+    @DisplayName("Fall back from hard links to symbolic links to copies")
+    void testLinkFallback() throws IOException {
+        Path source = codeDir.toPath().resolve("src/main/java/mediastore/MediaAccess.java").toAbsolutePath();
+        PrunedCodeTree.Linker unsupported = (target, existing) -> {
+            throw new UnsupportedOperationException("no links");
+        };
+        PrunedCodeTree.Linker failing = (target, existing) -> {
+            throw new IOException("no links");
+        };
+
+        Path hardLink = tempDir.resolve("pruned/hard/MediaAccess.java");
+        PrunedCodeTree.link(source, hardLink, PrunedCodeTree.LINKERS);
+        assertFalse(Files.isSymbolicLink(hardLink));
+        assertTrue(Files.isSameFile(source, hardLink));
+
+        Path symbolicLink = tempDir.resolve("pruned/symbolic/MediaAccess.java");
+        PrunedCodeTree.link(source, symbolicLink, List.of(unsupported, PrunedCodeTree.LINKERS.get(1), PrunedCodeTree.LINKERS.get(2)));
+        assertTrue(Files.isSymbolicLink(symbolicLink));
+        assertEquals(source, Files.readSymbolicLink(symbolicLink));
+
+        Path copy = tempDir.resolve("pruned/copy/MediaAccess.java");
+        PrunedCodeTree.link(source, copy, List.of(failing, unsupported, PrunedCodeTree.LINKERS.get(2)));
+        assertFalse(Files.isSymbolicLink(copy));
+        assertFalse(Files.isSameFile(source, copy));
+        assertEquals(Files.readString(source), Files.readString(copy));
+
+        Path none = tempDir.resolve("pruned/none/MediaAccess.java");
+        assertThrows(IOException.class, () -> PrunedCodeTree.link(source, none, List.of(failing)));
+    }
+
+    private static List<String> paths(IdentifierIndex index, int[] files) {
+        return Arrays.stream(files).mapToObj(index::file).toList();
+    }
+
+    private static Path write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        return Files.writeString(file, content);
+    }
+}
@@ -0,0 +1,63 @@
+package edu.kit.kastel.mcse.ardoco.cli.eval;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LinkSetComparatorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Hash join and sort-merge join")
+    void testJoins() throws IOException {
+        StringBuilder result = new StringBuilder("modelElementID,sentence\n");
+        StringBuilder goldStandard = new StringBuilder("modelElementID,sentence\n");
+        for (int i = 0; i < 3_000; i++) {
+            result.append("_element").append(i % 50).append(',').append(i).append('\n');
+            if (i % 3 != 0) {
+                goldStandard.append("_element").append(i % 50).append(',').append(i).append('\n');
+            }
+        }
+        goldStandard.append("_element1,99999\n").append("_element1,99999\n");
+        File resultFile = Files.writeString(tempDir.resolve("result.csv"), result).toFile();
+        File goldStandardFile = Files.writeString(tempDir.resolve("gold.csv"), goldStandard).toFile();
+
+        EvaluationResult inMemory = LinkSetComparator.compareInMemory(resultFile, goldStandardFile);
+        EvaluationResult external = LinkSetComparator.compareExternal(resultFile, goldStandardFile, Files.createTempDirectory(tempDir, "runs"));
+
+        assertEquals(new EvaluationResult(2_000, 1_000, 1), inMemory);
+        assertEquals(inMemory, external);
+        assertEquals(2.0 / 3, inMemory.precision(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Enrolled and cached gold standard")
+    void testEnrollment() throws IOException {
+        Path code = tempDir.resolve("code");
+        Files.createDirectories(code.resolve("store/impl"));
+        Files.writeString(code.resolve("store/Store.java"), "class Store {}");
+        Files.writeString(code.resolve("store/impl/StoreImpl.java"), "class StoreImpl {}");
+        Files.writeString(code.resolve("Main.java"), "class Main {}");
+        File goldStandard = Files.writeString(tempDir.resolve("gold.csv"), "ae_type,ae_id,ce_path\ncomponent,_store,store/\ncomponent,_main,Main.java\n")
+                .toFile();
+        File cache = tempDir.resolve("cache").toFile();
+
+        File prepared = GoldStandards.prepare(goldStandard, "ae_id", "ce_path", code.toFile(), cache);
+        assertEquals("ae_id,ce_path\n_store,store/Store.java\n_store,store/impl/StoreImpl.java\n_main,Main.java\n",
+                Files.readString(prepared.toPath()).replace(System.lineSeparator(), "\n"));
+        assertEquals(prepared, GoldStandards.prepare(goldStandard, "ae_id", "ce_path", code.toFile(), cache));
+
+        Files.writeString(code.resolve("store/Cache.java"), "class Cache {}");
+        File reenrolled = GoldStandards.prepare(goldStandard, "ae_id", "ce_path", code.toFile(), cache);
+        assertEquals(5, Files.readAllLines(reenrolled.toPath()).size());
+    }
+}
@@ -0,0 +1,117 @@
+package edu.kit.kastel.mcse.ardoco.cli.history;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import edu.kit.kastel.mcse.ardoco.cli.api.TraceLink;
+import edu.kit.kastel.mcse.ardoco.cli.result.IdentifierPool;
+import edu.kit.kastel.mcse.ardoco.cli.result.LinkTable;
+
+class HistoryStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Append runs")
+    void testAppend() throws IOException {
+        HistoryStore store = new HistoryStore(tempDir.toFile());
+        store.append("v1", "sad-sam", "mediastore", links("e1", "1", "e1", "2", "e2", "3"));
+        HistoryRun second = store.append("v2", "sad-sam", "mediastore", links("e1", "1", "e2", "3", "e2", "4"));
+
+        assertEquals(1, second.index());
+        assertEquals(3, second.linkCount());
+        assertEquals("modelElementID", second.sourceColumn());
+        assertEquals(List.of("v1", "v2"), store.getRuns().stream().map(HistoryRun::id).toList());
+        // links shared by both runs are stored once
+        assertEquals(4 * Integer.BYTES, tempDir.resolve("sources.col").toFile().length());
+        // and so are identifiers
+        assertEquals(6 * Long.BYTES, tempDir.resolve("identifiers.idx").toFile().length());
+        assertThrows(IOException.class, () -> store.append("v2", "sad-sam", "mediastore", links("e1", "1")));
+    }
+
+    @Test
+    @DisplayName("Diff of two runs")
+    void testDiff() throws IOException {
+        HistoryStore store = new HistoryStore(tempDir.toFile());
+        store.append("v1", "sad-sam", "mediastore", links("e1", "1", "e1", "2", "e2", "3"));
+        store.append("v1", "sad-sam", "teastore", links("e9", "9"));
+        store.append("v2", "sad-sam", "mediastore", links("e1", "1", "e2", "3", "e2", "4"));
+
+        HistoryDiff diff = store.diff("sad-sam", "mediastore", "v1", "v2");
+        assertEquals(List.of(new TraceLink("e2", "4")), diff.added());
+        assertEquals(List.of(new TraceLink("e1", "2")), diff.removed());
+        assertThrows(IOException.class, () -> store.diff("sad-sam", "mediastore", "v1", "v3"));
+    }
+
+    @Test
+    @DisplayName("History of an element")
+    void testElementHistory() throws IOException {
+        HistoryStore store = new HistoryStore(tempDir.toFile());
+        store.append("v1", "sad-sam", "mediastore", links("e1", "1", "e2", "3"));
+        store.append("v2", "sad-sam", "mediastore", links("e2", "3"));
+        store.append("v3", "sad-sam", "mediastore", links("e1", "5"));
+
+        Map<HistoryRun, List<TraceLink>> history = store.elementHistory("e1");
+        assertEquals(List.of("v1", "v3"), history.keySet().stream().map(HistoryRun::id).toList());
+        assertEquals(List.of(new TraceLink("e1", "5")), history.values().stream().toList().get(1));
+        assertTrue(store.elementHistory("unknown").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Ignore incomplete appends")
+    void testIncompleteAppend() throws IOException {
+        HistoryStore store = new HistoryStore(tempDir.toFile());
+        store.append("v1", "sad-sam", "mediastore", links("e1", "1"));
+        // simulate an append that stopped after writing part of the columns
+        File sources = tempDir.resolve("sources.col").toFile();
+        try (RandomAccessFile file = new RandomAccessFile(sources, "rw")) {
+            file.seek(file.length());
+            file.writeInt(42);
+        }
+        // and one that stopped after writing part of an identifier and its offset
+        long end = tempDir.resolve("identifiers.dat").toFile().length();
+        try (RandomAccessFile file = new RandomAccessFile(tempDir.resolve("identifiers.dat").toFile(), "rw")) {
+            file.seek(end);
+            file.writeShort(8);
+            file.writeBytes("e3");
+        }
+        try (RandomAccessFile file = new RandomAccessFile(tempDir.resolve("identifiers.idx").toFile(), "rw")) {
+            file.seek(file.length());
+            file.writeLong(end);
+        }
+        // and one that stopped while writing the run line
+        Files.writeString(tempDir.resolve("runs.tsv"), "1\tv", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        HistoryRun second = store.append("v2", "sad-sam", "mediastore", links("e1", "1", "e3", "7"));
+        assertEquals(1, second.index());
+        assertEquals(List.of(0, 1), store.getRuns().stream().map(HistoryRun::index).toList());
+        HistoryDiff diff = store.diff("sad-sam", "mediastore", "v1", "v2");
+        assertEquals(List.of(new TraceLink("e3", "7")), diff.added());
+        assertTrue(diff.removed().isEmpty());
+        assertEquals(List.of("v2"), store.elementHistory("e3").keySet().stream().map(HistoryRun::id).toList());
+    }
+
+    private static LinkTable links(String... sourcesAndTargets) {
+        LinkTable links = new LinkTable(new IdentifierPool(), "modelElementID", "sentence");
+        for (int i = 0; i < sourcesAndTargets.length; i += 2) {
+            links.add(sourcesAndTargets[i], sourcesAndTargets[i + 1]);
+        }
+        return links;
+    }
+}
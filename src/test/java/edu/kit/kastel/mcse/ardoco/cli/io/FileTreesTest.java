@@ -0,0 +1,34 @@
+package edu.kit.kastel.mcse.ardoco.cli.io;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FileTreesTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Delete a directory tree without following links")
+    void testDelete() throws IOException {
+        Path target = Files.writeString(tempDir.resolve("Target.java"), "class Target {}");
+        Path tree = Files.createDirectories(tempDir.resolve("tree/a/b"));
+        Files.writeString(tree.resolve("B.java"), "class B {}");
+        Files.createSymbolicLink(tree.resolve("Target.java"), target);
+
+        FileTrees.delete(tempDir.resolve("tree"));
+        assertFalse(Files.exists(tempDir.resolve("tree")));
+        assertTrue(Files.exists(target));
+
+        FileTrees.delete(tempDir.resolve("missing"));
+        assertTrue(FileTrees.deleteQuietly((Path) null));
+    }
+}
@@ -0,0 +1,118 @@
+package edu.kit.kastel.mcse.ardoco.cli.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import edu.kit.kastel.mcse.ardoco.core.tests.eval.CodeProject;
+
+class MappedInputBenchmarkTest {
+    private static final Logger logger = LoggerFactory.getLogger(MappedInputBenchmarkTest.class);
+
+    private static final File SAD_SAM_RESULT = new File("src/test/resources/testout/sadSamTlr_MEDIASTORE.csv");
+    private static final CodeProject[] CODE_PROJECTS = { CodeProject.MEDIASTORE, CodeProject.TEASTORE, CodeProject.TEAMMATES };
+    private static final int REPETITIONS = 10;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Mapped lines")
+    void testLines() throws IOException {
+        List<String> lines = new ArrayList<>();
+        MappedInput.forEachLine(SAD_SAM_RESULT, lines::add);
+        assertEquals(Files.readAllLines(SAD_SAM_RESULT.toPath(), StandardCharsets.UTF_8), lines);
+        assertEquals(Files.readString(SAD_SAM_RESULT.toPath(), StandardCharsets.UTF_8), MappedInput.readText(SAD_SAM_RESULT).toString());
+    }
+
+    @Test
+    @DisplayName("Mapped records after the header")
+    void testRecords() throws IOException {
+        List<String> lines = Files.readAllLines(SAD_SAM_RESULT.toPath(), StandardCharsets.UTF_8);
+        List<String> header = new ArrayList<>();
+        List<String> records = new ArrayList<>();
+        assertTrue(MappedInput.forEachRecord(SAD_SAM_RESULT, header::add, records::add));
+        assertEquals(List.of(lines.get(0)), header);
+        assertEquals(lines.subList(1, lines.size()).stream().filter(line -> !line.isBlank()).toList(), records);
+    }
+
+    @Test
+    @DisplayName("Reject lines that are not UTF-8")
+    void testMalformedLine() throws IOException {
+        File file = tempDir.resolve("links.csv").toFile();
+        Files.write(file.toPath(), new byte[] { 'a', ',', 'b', '\n', 'c', ',', (byte) 0xC3, (byte) 0x28, '\n' });
+        List<String> lines = new ArrayList<>();
+        IOException e = assertThrows(IOException.class, () -> MappedInput.forEachLine(file, lines::add));
+        assertTrue(e.getMessage().contains("line 2"));
+        assertEquals(List.of("a,b"), lines);
+        assertThrows(IOException.class, () -> MappedInput.readText(file));
+    }
+
+    @Test
+    @Disabled
+    @DisplayName("Benchmark stream vs. mapped input")
+    void benchmark() throws IOException {
+        for (CodeProject codeProject : CODE_PROJECTS) {
+            List<File> inputs = new ArrayList<>();
+            inputs.add(codeProject.getCodeProject().getTextFile());
+            try (Stream<Path> files = Files.walk(Path.of(codeProject.getCodeLocation()))) {
+                files.filter(Files::isRegularFile).map(Path::toFile).forEach(inputs::add);
+            }
+
+            long streamChars = 0;
+            long mappedChars = 0;
+            long streamNanos = 0;
+            long mappedNanos = 0;
+            for (int i = 0; i < REPETITIONS; i++) {
+                long start = System.nanoTime();
+                for (File input : inputs) {
+                    streamChars += readStream(input);
+                }
+                streamNanos += System.nanoTime() - start;
+
+                start = System.nanoTime();
+                for (File input : inputs) {
+                    mappedChars += readMapped(input);
+                }
+                mappedNanos += System.nanoTime() - start;
+            }
+
+            assertEquals(streamChars, mappedChars);
+            logger.info("{}: {} files, stream {} ms, mapped {} ms", codeProject.name(), inputs.size(),
+                    streamNanos / 1_000_000 / REPETITIONS, mappedNanos / 1_000_000 / REPETITIONS);
+        }
+    }
+
+    private static long readStream(File input) {
+        try {
+            return Files.readString(input.toPath(), StandardCharsets.UTF_8).length();
+        } catch (IOException e) {
+            // binary files are skipped by both readers
+            return 0;
+        }
+    }
+
+    private static long readMapped(File input) {
+        try {
+            return MappedInput.readText(input).length();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
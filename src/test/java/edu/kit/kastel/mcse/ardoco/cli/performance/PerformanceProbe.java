@@ -0,0 +1,103 @@
+package edu.kit.kastel.mcse.ardoco.cli.performance;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Measures wall time, allocated bytes and peak heap of a piece of work.
+ * Allocations are counted for all threads of the JVM, including threads that are started and terminate during the measurement (e.g. the
+ * task thread of the plugin manager and worker pools of the runners), so work running beside the measured work is counted as well.
+ */
+final class PerformanceProbe {
+
+    private PerformanceProbe() {
+        throw new IllegalAccessError();
+    }
+
+    /**
+     * Result of a measurement.
+     * @param wallMillis the wall time in milliseconds
+     * @param allocatedBytes the bytes allocated on the heap
+     * @param peakHeapBytes the peak heap usage
+     */
+    record Measurement(long wallMillis, long allocatedBytes, long peakHeapBytes) {
+        long get(Metric metric) {
+            return switch (metric) {
+            case WALL_MILLIS -> wallMillis;
+            case ALLOCATED_BYTES -> allocatedBytes;
+            case PEAK_HEAP_BYTES -> peakHeapBytes;
+            };
+        }
+    }
+
+    /**
+     * Measured metrics with their key in the baseline file.
+     */
+    enum Metric {
+        WALL_MILLIS("wallMillis"), ALLOCATED_BYTES("allocatedBytes"), PEAK_HEAP_BYTES("peakHeapBytes");
+
+        private final String key;
+
+        Metric(String key) {
+            this.key = key;
+        }
+
+        String getKey() {
+            return key;
+        }
+    }
+
+    static Measurement measure(Runnable work) {
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+        long allocatedBefore = totalAllocatedBytes();
+        long start = System.nanoTime();
+
+        work.run();
+
+        long wallMillis = (System.nanoTime() - start) / 1_000_000;
+        long allocated = totalAllocatedBytes() - allocatedBefore;
+        long peakHeap = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peakHeap += pool.getPeakUsage().getUsed();
+            }
+        }
+        return new Measurement(wallMillis, allocated, peakHeap);
+    }
+
+    /**
+     * Appends a measurement to a trend file, creating the file with a header if it does not exist.
+     */
+    static void appendTrend(Path trendFile, String key, Measurement measurement) throws IOException {
+        Files.createDirectories(trendFile.toAbsolutePath().getParent());
+        if (!Files.exists(trendFile)) {
+            Files.writeString(trendFile, "timestamp,run,wallMillis,allocatedBytes,peakHeapBytes\n", StandardCharsets.UTF_8);
+        }
+        String line = String.format("%d,%s,%d,%d,%d%n", System.currentTimeMillis(), key, measurement.wallMillis(),
+                measurement.allocatedBytes(), measurement.peakHeapBytes());
+        Files.writeString(trendFile, line, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+    }
+
+    private static long totalAllocatedBytes() {
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemoryEnabled()) {
+            threads.setThreadAllocatedMemoryEnabled(true);
+        }
+        long allocated = threads.getTotalThreadAllocatedBytes();
+        if (allocated < 0) {
+            throw new IllegalStateException("Allocated bytes are not supported by this JVM");
+        }
+        return allocated;
+    }
+}
@@ -0,0 +1,99 @@
+package edu.kit.kastel.mcse.ardoco.cli.performance;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import edu.kit.kastel.mcse.ardoco.cli.batch.WorkUnit;
+import edu.kit.kastel.mcse.ardoco.cli.performance.PerformanceProbe.Measurement;
+import edu.kit.kastel.mcse.ardoco.cli.performance.PerformanceProbe.Metric;
+import edu.kit.kastel.mcse.ardoco.cli.plugin.core.PluginManager;
+import edu.kit.kastel.mcse.ardoco.cli.plugin.task.SadCodeTaskPlugin;
+import edu.kit.kastel.mcse.ardoco.cli.plugin.task.SadSamTaskPlugin;
+import edu.kit.kastel.mcse.ardoco.cli.plugin.task.SamCodeTaskPlugin;
+import edu.kit.kastel.mcse.ardoco.core.tests.eval.CodeProject;
+
+/**
+ * Runs each task plugin on several code projects and compares wall time, allocated bytes and peak heap with the checked-in baseline.
+ * Enabled with {@code -Dardoco.performance=true}. Every measurement is appended to the trend file, and the measured values are written as
+ * baseline candidate that can be copied over {@value #BASELINE}. A run without baseline fails, so the check cannot pass unnoticed.
+ */
+@EnabledIfSystemProperty(named = "ardoco.performance", matches = "true")
+class PerformanceRegressionTest {
+
+    private static final String BASELINE = "src/test/resources/performance/baseline.properties";
+    private static final Path RESULT_DIR = Path.of("target", "performance");
+    private static final Path TREND_FILE = Path.of(System.getProperty("ardoco.performance.trend", RESULT_DIR.resolve("trend.csv").toString()));
+    private static final String OUT = "target/performance/out";
+    private static final CodeProject[] CODE_PROJECTS = { CodeProject.MEDIASTORE, CodeProject.TEASTORE, CodeProject.TEAMMATES };
+    private static final String[] TASKS = { "sad-sam", "sam-code", "sad-code" };
+
+    @Test
+    @DisplayName("Performance regressions")
+    void testPerformance() throws IOException {
+        Properties baseline = new Properties();
+        try (InputStream in = Files.newInputStream(Path.of(BASELINE))) {
+            baseline.load(in);
+        }
+        Properties candidate = new Properties();
+        List<String> regressions = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        Files.createDirectories(RESULT_DIR);
+
+        for (CodeProject codeProject : CODE_PROJECTS) {
+            for (String task : TASKS) {
+                String[] args = WorkUnit.of(codeProject, task).arguments(new File(OUT, codeProject.name()));
+                Measurement measurement = PerformanceProbe.measure(() -> newPluginManager().executePlugins(args));
+                String key = codeProject.name() + "." + task;
+                PerformanceProbe.appendTrend(TREND_FILE, key, measurement);
+
+                for (Metric metric : Metric.values()) {
+                    long value = measurement.get(metric);
+                    candidate.setProperty(key + "." + metric.getKey(), Long.toString(value));
+                    String expected = baseline.getProperty(key + "." + metric.getKey());
+                    if (expected == null) {
+                        missing.add(key + "." + metric.getKey());
+                        continue;
+                    }
+                    double tolerance = Double.parseDouble(baseline.getProperty("tolerance." + metric.getKey()));
+                    long limit = (long) (Long.parseLong(expected) * (1 + tolerance));
+                    if (value > limit) {
+                        regressions.add(String.format("%s.%s: %d > %d (baseline %s + %.0f%%)", key, metric.getKey(), value, limit, expected,
+                                tolerance * 100));
+                    }
+                }
+            }
+        }
+
+        try (OutputStream out = Files.newOutputStream(RESULT_DIR.resolve("baseline-candidate.properties"))) {
+            candidate.store(out, "Measured values, copy to " + BASELINE + " to update the baseline");
+        }
+        if (!regressions.isEmpty()) {
+            fail("Performance regressions:\n" + String.join("\n", regressions));
+        }
+        if (!missing.isEmpty()) {
+            fail("No baseline for " + String.join(", ", missing) + ". Copy the measured values from " + RESULT_DIR.resolve(
+                    "baseline-candidate.properties") + " to " + BASELINE + ".");
+        }
+    }
+
+    private static PluginManager newPluginManager() {
+        PluginManager pluginManager = new PluginManager();
+        pluginManager.addPlugin(new SadSamTaskPlugin());
+        pluginManager.addPlugin(new SamCodeTaskPlugin());
+        pluginManager.addPlugin(new SadCodeTaskPlugin());
+        return pluginManager;
+    }
+}
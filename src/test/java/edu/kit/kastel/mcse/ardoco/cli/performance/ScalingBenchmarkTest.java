@@ -0,0 +1,95 @@
+package edu.kit.kastel.mcse.ardoco.cli.performance;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import edu.kit.kastel.mcse.ardoco.cli.batch.WorkUnit;
+import edu.kit.kastel.mcse.ardoco.cli.performance.PerformanceProbe.Measurement;
+import edu.kit.kastel.mcse.ardoco.cli.performance.PerformanceProbe.Metric;
+import edu.kit.kastel.mcse.ardoco.cli.plugin.core.PluginManager;
+import edu.kit.kastel.mcse.ardoco.cli.plugin.task.SadCodeTaskPlugin;
+import edu.kit.kastel.mcse.ardoco.cli.plugin.task.SadSamTaskPlugin;
+import edu.kit.kastel.mcse.ardoco.cli.plugin.task.SamCodeTaskPlugin;
+import edu.kit.kastel.mcse.ardoco.cli.synthetic.SyntheticProjectGenerator;
+import edu.kit.kastel.mcse.ardoco.cli.synthetic.SyntheticProjectGenerator.SyntheticProject;
+
+/**
+ * Runs each task plugin on synthetic projects of growing scale and records time and memory per scale. Enabled with
+ * {@code -Dardoco.scaling=true}; the scales can be set with {@code -Dardoco.scaling.scales=1,10,100}. The measurements are appended to
+ * the trend file of the {@link PerformanceRegressionTest} and written to {@code scaling.csv} together with the growth exponent between
+ * consecutive scales: an exponent of about 1 means linear growth, clearly above 1 points to a superlinear part of the task.
+ */
+@EnabledIfSystemProperty(named = "ardoco.scaling", matches = "true")
+class ScalingBenchmarkTest {
+
+    private static final Path RESULT_DIR = Path.of("target", "performance");
+    private static final Path TREND_FILE = Path.of(System.getProperty("ardoco.performance.trend", RESULT_DIR.resolve("trend.csv")
+            .toString()));
+    private static final File INPUT_DIR = new File("target/performance/synthetic");
+    private static final String OUT = "target/performance/out";
+    private static final String[] TASKS = { "sad-sam", "sam-code", "sad-code" };
+    private static final long SEED = 42;
+
+    @Test
+    @DisplayName("Scaling of the task plugins")
+    void testScaling() throws IOException {
+        int[] scales = Arrays.stream(System.getProperty("ardoco.scaling.scales", "1,10,100").split(",")).map(String::trim).mapToInt(
+                Integer::parseInt).sorted().toArray();
+        Files.createDirectories(RESULT_DIR);
+        Map<String, Measurement> previous = new HashMap<>();
+
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(RESULT_DIR.resolve("scaling.csv"), StandardCharsets.UTF_8))) {
+            writer.println("task,scale,components,sentences,codeFiles,wallMillis,allocatedBytes,peakHeapBytes,wallExponent,"
+                    + "allocationExponent");
+            int previousScale = 0;
+            for (int scale : scales) {
+                SyntheticProject project = SyntheticProjectGenerator.generate(new File(INPUT_DIR, "scale" + scale), scale, SEED);
+                for (String task : TASKS) {
+                    WorkUnit unit = new WorkUnit(project.name(), task, project.taskArguments(task));
+                    String[] args = unit.arguments(new File(OUT, project.name()));
+                    Measurement measurement = PerformanceProbe.measure(() -> newPluginManager().executePlugins(args));
+                    PerformanceProbe.appendTrend(TREND_FILE, "SYNTHETIC-" + scale + "x." + task, measurement);
+
+                    Measurement before = previous.put(task, measurement);
+                    writer.printf(Locale.ROOT, "%s,%d,%d,%d,%d,%d,%d,%d,%s,%s%n", task, scale, project.components(), project.sentences(),
+                            project.codeFiles(), measurement.wallMillis(), measurement.allocatedBytes(), measurement.peakHeapBytes(),
+                            exponent(before, measurement, Metric.WALL_MILLIS, previousScale, scale),
+                            exponent(before, measurement, Metric.ALLOCATED_BYTES, previousScale, scale));
+                    writer.flush();
+                }
+                previousScale = scale;
+            }
+        }
+    }
+
+    /**
+     * Estimates the exponent k of {@code metric ~ scale^k} between two scales.
+     */
+    private static String exponent(Measurement before, Measurement after, Metric metric, int scaleBefore, int scaleAfter) {
+        if (before == null || before.get(metric) <= 0 || after.get(metric) <= 0) {
+            return "";
+        }
+        double exponent = Math.log((double) after.get(metric) / before.get(metric)) / Math.log((double) scaleAfter / scaleBefore);
+        return String.format(Locale.ROOT, "%.2f", exponent);
+    }
+
+    private static PluginManager newPluginManager() {
+        PluginManager pluginManager = new PluginManager();
+        pluginManager.addPlugin(new SadSamTaskPlugin());
+        pluginManager.addPlugin(new SamCodeTaskPlugin());
+        pluginManager.addPlugin(new SadCodeTaskPlugin());
+        return pluginManager;
+    }
+}
@@ -0,0 +1,32 @@
+package edu.kit.kastel.mcse.ardoco.cli.plugin.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ConsoleProgressBarTest {
+
+    @Test
+    @DisplayName("Format a progress line with throughput and ETA")
+    void testFormatLine() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ConsoleProgressBar progressBar = new ConsoleProgressBar(new PrintStream(out, true, StandardCharsets.UTF_8))) {
+            progressBar.stageStarted("sad-sam", "link recovery");
+            progressBar.itemsProcessed("sad-sam", 5, 10);
+            assertEquals("[###############---------------] 5/10 sad-sam: link recovery | 0.50 items/s | elapsed 00:00:10 | ETA 00:00:10",
+                    progressBar.formatLine(TimeUnit.SECONDS.toNanos(10)));
+
+            progressBar.itemsProcessed("sad-sam", 3, -1);
+            assertEquals("[------------------------------] 3 sad-sam: link recovery | 1.00 items/s | elapsed 00:00:03",
+                    progressBar.formatLine(TimeUnit.SECONDS.toNanos(3)));
+        }
+        assertTrue(out.toString(StandardCharsets.UTF_8).startsWith("\r["));
+    }
+}
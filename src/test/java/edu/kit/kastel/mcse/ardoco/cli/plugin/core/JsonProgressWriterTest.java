@@ -0,0 +1,41 @@
+package edu.kit.kastel.mcse.ardoco.cli.plugin.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class JsonProgressWriterTest {
+
+    @Test
+    @DisplayName("Quote JSON strings")
+    void testQuote() {
+        assertEquals("\"link recovery\"", JsonProgressWriter.quote("link recovery"));
+        assertEquals("\"a\\\"b\\\\c\\nd\\te\\u0001\"", JsonProgressWriter.quote("a\"b\\c\nd\te\u0001"));
+    }
+
+    @Test
+    @DisplayName("Write one event per line and throttle item updates")
+    void testEvents() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonProgressWriter writer = new JsonProgressWriter(new PrintStream(out, true, StandardCharsets.UTF_8), false)) {
+            writer.stageStarted("sad-sam", "link recovery");
+            writer.itemsProcessed("sad-sam", 1, 3);
+            writer.itemsProcessed("sad-sam", 2, 3);
+            writer.itemsProcessed("sad-sam", 3, 3);
+            writer.stageFinished("sad-sam", "link recovery");
+        }
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\\R");
+        // the second update follows the first one immediately and is dropped, the final one is always written
+        assertEquals(4, lines.length);
+        assertTrue(lines[0].endsWith(",\"event\":\"stage-started\",\"task\":\"sad-sam\",\"stage\":\"link recovery\"}"));
+        assertTrue(lines[1].endsWith(",\"event\":\"items-processed\",\"task\":\"sad-sam\",\"processed\":1,\"total\":3}"));
+        assertTrue(lines[2].endsWith(",\"processed\":3,\"total\":3}"));
+        assertTrue(lines[3].contains("\"event\":\"stage-finished\""));
+    }
+}
@@ -0,0 +1,216 @@
+package edu.kit.kastel.mcse.ardoco.cli.plugin.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.Option;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PluginManagerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Fail a task that exceeds the task timeout")
+    void testTaskTimeout() throws InterruptedException {
+        SleepingTaskPlugin sleeping = new SleepingTaskPlugin("sleeping", false);
+        PluginManager pluginManager = new PluginManager();
+        pluginManager.addPlugin(sleeping);
+
+        long start = System.nanoTime();
+        assertFalse(pluginManager.executePlugins(new String[] { "-t", "sleeping", "-o", tempDir.toString(), "-to", "1" }));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10));
+        assertTrue(sleeping.stopped.await(1, TimeUnit.SECONDS));
+        assertEquals(1, sleeping.executions.get());
+    }
+
+    @Test
+    @DisplayName("Skip the remaining tasks after the global timeout")
+    void testGlobalTimeout() {
+        SleepingTaskPlugin first = new SleepingTaskPlugin("first", false);
+        SleepingTaskPlugin second = new SleepingTaskPlugin("second", false);
+        PluginManager pluginManager = new PluginManager();
+        pluginManager.addPlugin(first);
+        pluginManager.addPlugin(second);
+
+        assertFalse(pluginManager.executePlugins(new String[] { "-t", "all", "-o", tempDir.toString(), "-gto", "1" }));
+        assertEquals(1, first.executions.get());
+        assertEquals(0, second.executions.get());
+    }
+
+    @Test
+    @DisplayName("Cancel the running task and clean up when the caller is interrupted")
+    void testCancellation() throws IOException, InterruptedException {
+        File leftover = Files.createFile(tempDir.resolve("traceLinks_leftover.txt")).toFile();
+        SleepingTaskPlugin sleeping = new SleepingTaskPlugin("sleeping", false);
+        PluginManager pluginManager = new PluginManager();
+        pluginManager.addPlugin(sleeping);
+
+        AtomicReference<Boolean> result = new AtomicReference<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread caller = new Thread(() -> {
+            try {
+                result.set(pluginManager.executePlugins(new String[] { "-t", "sleeping", "-o", tempDir.toString() }));
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        caller.start();
+        assertTrue(sleeping.started.await(10, TimeUnit.SECONDS));
+        caller.interrupt();
+        caller.join(TimeUnit.SECONDS.toMillis(10));
+
+        assertFalse(caller.isAlive());
+        assertNull(failure.get());
+        assertEquals(Boolean.FALSE, result.get());
+        assertTrue(sleeping.stopped.await(1, TimeUnit.SECONDS));
+        assertFalse(leftover.exists());
+    }
+
+    @Test
+    @DisplayName("Do not reuse a task or its output directory while a cancelled worker is still running")
+    void testTaskIgnoringCancellation() throws IOException, InterruptedException {
+        File leftover = Files.createFile(tempDir.resolve("traceLinks_leftover.txt")).toFile();
+        SleepingTaskPlugin stubborn = new SleepingTaskPlugin("stubborn", true);
+        SleepingTaskPlugin next = new SleepingTaskPlugin("next", false);
+        PluginManager pluginManager = new PluginManager();
+        pluginManager.addPlugin(stubborn);
+        pluginManager.addPlugin(next);
+
+        try {
+            assertFalse(pluginManager.executePlugins(new String[] { "-t", "all", "-o", tempDir.toString(), "-to", "1" }));
+            assertEquals(0, next.executions.get());
+            assertTrue(leftover.exists());
+            assertEquals(1, stubborn.stopped.getCount());
+            // the cancellation requested by the timeout is not reset by a new execution of the running plugin
+            assertFalse(pluginManager.executePlugins(new String[] { "-t", "stubborn", "-o", tempDir.toString() }));
+            assertEquals(1, stubborn.executions.get());
+            assertTrue(stubborn.isCancelled());
+        } finally {
+            stubborn.release.countDown();
+        }
+        assertTrue(stubborn.stopped.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Finish the stages of a task that throws")
+    void testFailingTask() throws IOException {
+        PluginManager pluginManager = new PluginManager();
+        pluginManager.addPlugin(new FailingTaskPlugin());
+        File events = tempDir.resolve("events.jsonl").toFile();
+
+        assertFalse(pluginManager.executePlugins(new String[] { "-t", "failing", "-o", tempDir.toString(), "-pj", events.getPath() }));
+        List<String> finished = Files.readAllLines(events.toPath()).stream().filter(line -> line.contains("\"stage-finished\"")).toList();
+        assertEquals(2, finished.size());
+        assertTrue(finished.get(0).contains("\"stage\":\"loading inputs\""));
+        assertTrue(finished.get(1).contains("\"stage\":\"" + PluginManager.RUN_TASK + "\""));
+    }
+
+    /**
+     * Task that throws while loading its inputs.
+     */
+    private static final class FailingTaskPlugin extends TaskPlugin {
+        @Override
+        public String getPrefix() {
+            return "failing";
+        }
+
+        @Override
+        public String getTaskName() {
+            return "failing";
+        }
+
+        @Override
+        public List<Option> getRequiredOptions() {
+            return new ArrayList<>();
+        }
+
+        @Override
+        public boolean execute(CommandLine cmd, File outputDir) {
+            startStage(STAGE_LOADING_INPUTS);
+            throw new IllegalStateException("broken input");
+        }
+
+        @Override
+        public Map<String, String> getOptionPrefixDescriptions() {
+            return Map.of();
+        }
+    }
+
+    /**
+     * Task that sleeps until it is interrupted or, if it ignores cancellation, until it is released.
+     */
+    private static final class SleepingTaskPlugin extends TaskPlugin {
+        private final String name;
+        private final boolean ignoresCancellation;
+        private final AtomicInteger executions = new AtomicInteger();
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch stopped = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        private SleepingTaskPlugin(String name, boolean ignoresCancellation) {
+            this.name = name;
+            this.ignoresCancellation = ignoresCancellation;
+        }
+
+        @Override
+        public String getPrefix() {
+            return name;
+        }
+
+        @Override
+        public String getTaskName() {
+            return name;
+        }
+
+        @Override
+        public List<Option> getRequiredOptions() {
+            return new ArrayList<>();
+        }
+
+        @Override
+        public boolean execute(CommandLine cmd, File outputDir) {
+            executions.incrementAndGet();
+            started.countDown();
+            try {
+                while (true) {
+                    try {
+                        if (release.await(30, TimeUnit.SECONDS)) {
+                            return true;
+                        }
+                    } catch (InterruptedException e) {
+                        if (!ignoresCancellation) {
+                            Thread.currentThread().interrupt();
+                            return false;
+                        }
+                    }
+                }
+            } finally {
+                stopped.countDown();
+            }
+        }
+
+        @Override
+        public Map<String, String> getOptionPrefixDescriptions() {
+            return Map.of();
+        }
+    }
+}
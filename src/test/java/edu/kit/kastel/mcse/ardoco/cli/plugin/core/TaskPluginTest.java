@@ -0,0 +1,181 @@
+package edu.kit.kastel.mcse.ardoco.cli.plugin.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import edu.kit.kastel.mcse.ardoco.cli.checkpoint.CheckpointStore;
+import edu.kit.kastel.mcse.ardoco.cli.code.PrunedCodeTree;
+
+class TaskPluginTest {
+
+    private static final String STAGE = "link recovery";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Checkpoint a stage that wrote its products")
+    void testFreshProducts() throws IOException {
+        StageTaskPlugin plugin = new StageTaskPlugin();
+        CheckpointStore checkpoint = CheckpointStore.open(tempDir.toFile(), plugin.getTaskName(), "test", "fingerprint", false);
+        File result = tempDir.resolve("result.csv").toFile();
+
+        assertTrue(plugin.runStage(checkpoint, STAGE, tempDir.toFile(), List.of(result), () -> {
+            Files.writeString(result.toPath(), "a,b\n");
+        }));
+        assertTrue(checkpoint.isCompleted(STAGE));
+    }
+
+    @Test
+    @DisplayName("Do not checkpoint a stage that left a stale product or failed")
+    void testStaleProducts() throws IOException {
+        StageTaskPlugin plugin = new StageTaskPlugin();
+        CheckpointStore checkpoint = CheckpointStore.open(tempDir.toFile(), plugin.getTaskName(), "test", "fingerprint", false);
+        File result = Files.writeString(tempDir.resolve("result.csv"), "a,b\n").toFile();
+        assertTrue(result.setLastModified(System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(1)));
+
+        // the body logs and swallows its error, leaving the result of an earlier run
+        assertFalse(plugin.runStage(checkpoint, STAGE, tempDir.toFile(), List.of(result), () -> {
+        }));
+        assertFalse(checkpoint.isCompleted(STAGE));
+
+        assertFalse(plugin.runStage(checkpoint, STAGE, tempDir.toFile(), List.of(tempDir.resolve("missing.csv").toFile()), () -> {
+        }));
+        assertFalse(checkpoint.isCompleted(STAGE));
+
+        assertFalse(plugin.runStage(checkpoint, STAGE, tempDir.toFile(), List.of(result), () -> {
+            Files.writeString(result.toPath(), "a,b\n");
+            throw new IOException("failed after writing");
+        }));
+        assertFalse(checkpoint.isCompleted(STAGE));
+    }
+
+    @Test
+    @DisplayName("Prune the code handed to the runners and delete the pruned tree on close")
+    void testPruneCode() throws IOException, ParseException {
+        Path code = tempDir.resolve("code");
+        Files.createDirectories(code.resolve("mediastore/util"));
+        Files.writeString(code.resolve("mediastore/MediaAccess.java"), "class MediaAccess {}\n");
+        Files.writeString(code.resolve("mediastore/util/StringHelper.java"), "class StringHelper {}\n");
+        File model = Files.writeString(tempDir.resolve("ms.repository"), "<components__Repository entityName=\"MediaAccess\"/>\n").toFile();
+        File outputDir = Files.createDirectories(tempDir.resolve("out")).toFile();
+
+        File root;
+        try (PrunedCodeTree tree = new StageTaskPlugin().pruneCode(parse("-pc"), code.toFile(), model, outputDir)) {
+            root = tree.getDirectory();
+            assertNotEquals(code.toFile(), root);
+            assertTrue(new File(root, "mediastore/MediaAccess.java").isFile());
+            assertFalse(new File(root, "mediastore/util/StringHelper.java").exists());
+        }
+        assertFalse(root.exists());
+        assertTrue(code.resolve("mediastore/MediaAccess.java").toFile().isFile());
+
+        try (PrunedCodeTree tree = new StageTaskPlugin().pruneCode(parse(), code.toFile(), model, outputDir)) {
+            assertEquals(code.toFile(), tree.getDirectory());
+        }
+        assertTrue(code.toFile().isDirectory());
+    }
+
+    @Test
+    @DisplayName("Do not resume a stage that saw differently pruned code")
+    void testCheckpointOptions() throws IOException, ParseException {
+        StageTaskPlugin plugin = new StageTaskPlugin();
+        File input = Files.writeString(tempDir.resolve("input.txt"), "The MediaStore is a system.").toFile();
+        File outputDir = Files.createDirectories(tempDir.resolve("out")).toFile();
+        plugin.openCheckpoint(parse("-cp"), outputDir, "test", List.of(input)).complete(STAGE, List.of());
+
+        assertTrue(plugin.openCheckpoint(parse("-r"), outputDir, "test", List.of(input)).isCompleted(STAGE));
+        assertFalse(plugin.openCheckpoint(parse("-r", "-pc"), outputDir, "test", List.of(input)).isCompleted(STAGE));
+    }
+
+    @Test
+    @DisplayName("Finish the stages an execution left open")
+    void testOpenStages() throws ParseException {
+        StageTaskPlugin plugin = new StageTaskPlugin();
+        List<String> events = new ArrayList<>();
+        plugin.setProgressListener(new ProgressListener() {
+            @Override
+            public void stageStarted(String task, String stage) {
+                events.add("start " + stage);
+            }
+
+            @Override
+            public void stageFinished(String task, String stage) {
+                events.add("finish " + stage);
+            }
+
+            @Override
+            public void itemsProcessed(String task, long processed, long total) {
+                // not recorded
+            }
+        });
+
+        assertFalse(plugin.run(parse(), tempDir.toFile()));
+        assertEquals(List.of("start loading inputs", "start " + STAGE, "finish " + STAGE, "finish loading inputs"), events);
+
+        // finishing a stage that is no longer open reports nothing
+        plugin.finishStage(STAGE);
+        assertEquals(4, events.size());
+    }
+
+    private static CommandLine parse(String... arguments) throws ParseException {
+        Options options = new Options();
+        options.addOption("cp", "checkpoint", false, "checkpoint");
+        options.addOption("r", "resume", false, "resume");
+        options.addOption("pc", "prune-code", false, "prune code");
+        return new DefaultParser().parse(options, arguments);
+    }
+
+    /**
+     * Task that only exposes the stage and code handling.
+     */
+    private static final class StageTaskPlugin extends TaskPlugin {
+        @Override
+        public String getPrefix() {
+            return "stage";
+        }
+
+        @Override
+        public String getTaskName() {
+            return "stage";
+        }
+
+        @Override
+        public List<Option> getRequiredOptions() {
+            return new ArrayList<>();
+        }
+
+        @Override
+        public boolean execute(CommandLine cmd, File outputDir) {
+            // returns early like a task failing on its inputs, the other tests run stages directly
+            startStage(STAGE_LOADING_INPUTS);
+            startStage(STAGE);
+            return false;
+        }
+
+        @Override
+        public Map<String, String> getOptionPrefixDescriptions() {
+            return Map.of();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package edu.kit.kastel.mcse.ardoco.cli.plugin.task;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import edu.kit.kastel.mcse.ardoco.cli.batch.WorkUnit;
+import edu.kit.kastel.mcse.ardoco.cli.plugin.core.PluginManager;
+
+class SadCodeTaskPluginTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Reject existing links outside of transitive mode")
+    void testLinksWithoutTransitive() {
+        assertFalse(execute("-sdc-ss", tempDir.resolve("sadSamTlr_test.csv").toString()));
+        assertFalse(execute("-sdc-sc", tempDir.resolve("samCodeTlr_test.csv").toString()));
+    }
+
+    @Test
+    @DisplayName("Reject a preview of a transitive or pruned run")
+    void testPreviewOptions() {
+        assertFalse(execute("-sdc-pv", "0.1", "-sdc-tr"));
+        assertFalse(execute("-sdc-pv", "0.1", "-pc"));
+    }
+
+    private boolean execute(String... options) {
+        List<String> arguments = new ArrayList<>(WorkUnit.taskArguments("sad-code", "test", tempDir.resolve("test.txt").toFile(),
+                tempDir.resolve("test.repository").toFile(), tempDir.resolve("code").toString()));
+        arguments.addAll(List.of("-o", tempDir.resolve("out").toString()));
+        arguments.addAll(List.of(options));
+        PluginManager pluginManager = new PluginManager();
+        pluginManager.addPlugin(new SadCodeTaskPlugin());
+        return pluginManager.executePlugins(arguments.toArray(String[]::new));
+    }
+}
@@ -0,0 +1,118 @@
+package edu.kit.kastel.mcse.ardoco.cli.preview;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import edu.kit.kastel.mcse.ardoco.cli.preview.PreviewEstimate.SampleRun;
+import edu.kit.kastel.mcse.ardoco.cli.preview.PreviewSample.Share;
+
+class PreviewSampleTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Evenly spaced samples")
+    void testIsSampled() {
+        int sampled = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (PreviewSample.isSampled(i, 0.1)) {
+                sampled++;
+            }
+        }
+        assertEquals(100, sampled);
+        assertTrue(PreviewSample.isSampled(0, 1));
+        assertFalse(PreviewSample.isSampled(0, 0.5));
+        assertTrue(PreviewSample.isSampled(1, 0.5));
+    }
+
+    @Test
+    @DisplayName("Sample sentences, components and code packages")
+    void testSample() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            text.append("Component").append(i).append(" handles request ").append(i).append(".").append(i % 5 == 4 ? "\n\n" : " ");
+        }
+        File sad = write(tempDir.resolve("doc.txt"), text.toString()).toFile();
+        StringBuilder model = new StringBuilder("<repository:Repository xmlns:repository=\"");
+        model.append("http://palladiosimulator.org/PalladioComponentModel/Repository/5.2\">\n");
+        for (int i = 0; i < 10; i++) {
+            model.append("  <components__Repository id=\"c").append(i).append("\" entityName=\"Component").append(i).append("\"/>\n");
+        }
+        model.append("  <interfaces__Repository id=\"i0\" entityName=\"IStore\"/>\n</repository:Repository>\n");
+        File sam = write(tempDir.resolve("model.repository"), model.toString()).toFile();
+        Path code = tempDir.resolve("code");
+        for (int i = 0; i < 8; i++) {
+            write(code.resolve("pkg" + i + "/A.java"), "class A {}");
+            write(code.resolve("pkg" + i + "/B.java"), "class B {}");
+        }
+
+        File root;
+        try (PreviewSample sample = PreviewSample.create(sad, sam, code, 0.5)) {
+            assertEquals(new Share(10, 20), sample.getSentences());
+            assertEquals(new Share(5, 10), sample.getModelElements());
+            assertEquals(new Share(8, 16), sample.getCodeFiles());
+
+            String sampledText = Files.readString(sample.getText().toPath());
+            assertTrue(sampledText.contains("Component1 handles request 1."));
+            assertFalse(sampledText.contains("Component0 handles"));
+            String sampledModel = Files.readString(sample.getModel().toPath());
+            assertTrue(sampledModel.contains("entityName=\"Component1\""));
+            assertFalse(sampledModel.contains("entityName=\"Component0\""));
+            assertTrue(sampledModel.contains("IStore"));
+            root = sample.getCode();
+            assertTrue(new File(root, "pkg1/A.java").isFile());
+            assertFalse(new File(root, "pkg0").exists());
+        }
+        assertFalse(root.exists());
+        assertTrue(Files.isRegularFile(code.resolve("pkg0/A.java")));
+        assertThrows(IllegalArgumentException.class, () -> PreviewSample.create(sad, sam, null, 0));
+
+        // the direct SAD-CODE recovery uses no model
+        try (PreviewSample sample = PreviewSample.create(sad, null, code, 0.5)) {
+            assertNull(sample.getModel());
+            assertEquals(new Share(0, 0), sample.getModelElements());
+            assertEquals(new Share(8, 16), sample.getCodeFiles());
+        }
+    }
+
+    @Test
+    @DisplayName("Project the full run")
+    void testEstimate() {
+        Share sentences = new Share(100, 1000);
+        Share modelElements = new Share(50, 100);
+        Share codeFiles = new Share(400, 4000);
+        SampleRun run = new SampleRun(500, 2_000, 12_000, 1_000, 2_000, 3_000);
+
+        PreviewEstimate estimate = PreviewEstimate.of(sentences, modelElements, codeFiles, 40, run);
+        // each link survives with 0.1 * 0.5 * 0.1
+        assertEquals(8_000, estimate.estimatedLinks());
+        // 20 ms and 2 bytes per item on top of a setup of 2 s and 1,000 bytes
+        assertEquals(2_000, estimate.setupMillis());
+        assertEquals(102_000, estimate.projectedMillis());
+        assertEquals(12_000, estimate.projectedPeakBytes());
+
+        // without a separate setup, the whole run is scaled
+        SampleRun unsplitRun = new SampleRun(500, 0, 12_000, 1_000, 1_000, 3_000);
+        PreviewEstimate scaled = PreviewEstimate.of(sentences, modelElements, codeFiles, 40, unsplitRun);
+        assertEquals(0, scaled.setupMillis());
+        assertEquals(120_000, scaled.projectedMillis());
+    }
+
+    private static Path write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        return Files.writeString(file, content);
+    }
+}
@@ -0,0 +1,41 @@
+package edu.kit.kastel.mcse.ardoco.cli.profiling;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ProfilerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Write recording and summary")
+    void testProfile() throws IOException {
+        Profiler profiler = Profiler.start();
+
+        StageEvent stage = new StageEvent();
+        stage.task = "sad-sam";
+        stage.stage = "link recovery";
+        stage.begin();
+        long checksum = 0;
+        for (int i = 0; i < 200_000; i++) {
+            checksum += Integer.toString(i).hashCode();
+        }
+        stage.commit();
+
+        File recording = profiler.stop(tempDir.toFile());
+        assertTrue(recording.length() > 0, "checksum " + checksum);
+        String summary = Files.readString(tempDir.resolve("ardoco-profile-summary.txt"));
+        assertTrue(summary.contains("Hot methods"));
+        assertTrue(summary.contains("Allocation sites"));
+        assertTrue(summary.contains("Stage task=sad-sam stage=link recovery"));
+    }
+}
@@ -0,0 +1,96 @@
+package edu.kit.kastel.mcse.ardoco.cli.result;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LinkTableTest {
+
+    private static final File SAD_SAM_RESULT = new File("src/test/resources/testout/sadSamTlr_MEDIASTORE.csv");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Interning")
+    void testInterning() {
+        IdentifierPool pool = new IdentifierPool();
+        int first = pool.intern("_tBjC0HDpEeSqnN80MQ2uGw");
+        int second = pool.intern(new String("_tBjC0HDpEeSqnN80MQ2uGw"));
+
+        assertEquals(first, second);
+        assertEquals(1, pool.size());
+        assertEquals(-1, pool.handleOf("_unknown"));
+        assertEquals("_tBjC0HDpEeSqnN80MQ2uGw", pool.resolve(first));
+    }
+
+    @Test
+    @DisplayName("Duplicate links")
+    void testDuplicateLinks() {
+        LinkTable links = new LinkTable(new IdentifierPool(), "modelElementID", "sentence");
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(links.add("element" + (i % 100), Integer.toString(i)));
+        }
+        assertFalse(links.add("element0", "0"));
+
+        assertEquals(10_000, links.size());
+        assertEquals(10_100, links.getPool().size());
+        assertTrue(links.contains("element42", "142"));
+        assertFalse(links.contains("element42", "143"));
+    }
+
+    @Test
+    @DisplayName("Read and write")
+    void testReadWrite() throws IOException {
+        IdentifierPool pool = new IdentifierPool();
+        LinkTable links = TraceLinkFiles.read(SAD_SAM_RESULT, pool);
+        assertEquals("modelElementID", links.getSourceColumn());
+        assertEquals("sentence", links.getTargetColumn());
+        assertTrue(links.contains("_tBjC0HDpEeSqnN80MQ2uGw", "29"));
+        assertTrue(pool.size() < links.size() * 2);
+
+        File copy = tempDir.resolve("copy.csv").toFile();
+        TraceLinkFiles.write(copy, links);
+        LinkTable reread = TraceLinkFiles.read(copy, pool);
+        assertEquals(links.size(), reread.size());
+        for (int i = 0; i < links.size(); i++) {
+            assertEquals(links.source(i), reread.source(i));
+            assertEquals(links.target(i), reread.target(i));
+        }
+    }
+
+    @Test
+    @DisplayName("Compose links through a shared column")
+    void testCompose() {
+        IdentifierPool pool = new IdentifierPool();
+        LinkTable sadSam = new LinkTable(pool, "modelElementID", "sentence");
+        sadSam.add("facade", "1");
+        sadSam.add("facade", "4");
+        sadSam.add("db", "2");
+        sadSam.add("cache", "3");
+        LinkTable samCode = new LinkTable(pool, "modelElementID", "codeElementID");
+        samCode.add("facade", "Facade.java");
+        samCode.add("db", "UserDB.java");
+        samCode.add("db", "UserDBAdapter.java");
+        samCode.add("unused", "Unused.java");
+
+        LinkTable sadCode = LinkJoin.compose(sadSam, LinkJoin.columnOf(sadSam, "modelElementID"), samCode,
+                LinkJoin.columnOf(samCode, "modelElementID"));
+        assertEquals("sentence", sadCode.getSourceColumn());
+        assertEquals("codeElementID", sadCode.getTargetColumn());
+        assertEquals(4, sadCode.size());
+        assertTrue(sadCode.contains("1", "Facade.java"));
+        assertTrue(sadCode.contains("4", "Facade.java"));
+        assertTrue(sadCode.contains("2", "UserDB.java"));
+        assertTrue(sadCode.contains("2", "UserDBAdapter.java"));
+        assertFalse(sadCode.contains("3", "Unused.java"));
+    }
+}
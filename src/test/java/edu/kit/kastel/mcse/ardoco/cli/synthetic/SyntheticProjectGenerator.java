@@ -0,0 +1,311 @@
+package edu.kit.kastel.mcse.ardoco.cli.synthetic;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import edu.kit.kastel.mcse.ardoco.cli.batch.WorkUnit;
+
+/**
+ * Generates synthetic projects of configurable size: an architecture documentation (SAD), a PCM repository model (SAM), a Java code
+ * tree and a SAD-SAM gold standard. The projects are built from the same vocabulary and templates at every scale, so the inputs grow
+ * linearly with the scale and a growing run time per component points to superlinear parts of the recovery.
+ * <p>
+ * Each component has a provided interface and requires the interfaces of up to three other components. It is described by a paragraph
+ * that also mentions the components it uses, and implemented by a Java package with its interface, an implementation and two helper
+ * classes. The documentation also contains sentences that mention no component. The generation is deterministic for a seed.
+ */
+public final class SyntheticProjectGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(SyntheticProjectGenerator.class);
+
+    /**
+     * Number of components at scale 1, roughly the size of the MediaStore model.
+     */
+    public static final int COMPONENTS_PER_SCALE = 10;
+
+    private static final String[] DOMAINS = { "Media", "User", "Order", "Payment", "Catalog", "Audio", "Video", "File", "Cache", "Report",
+            "Search", "Auth", "Session", "Storage", "Notification", "Billing", "Inventory", "Shipping", "Review", "Recommendation" };
+    private static final String[] ROLES = { "Manager", "Service", "Store", "Adapter", "Controller", "Gateway", "Processor", "Registry",
+            "Handler", "Scheduler" };
+    private static final String[] VERBS = { "store", "load", "validate", "transform", "index", "encode", "forward", "cache", "publish",
+            "archive" };
+    // arguments: component, domain noun, verb
+    private static final String[] DESCRIPTIONS = { "The %1$s component is responsible for the %2$s data of the system.",
+            "%1$s offers operations to %3$s %2$s entries." };
+    private static final String[] DETAILS = { "Internally, %1$s keeps its state in a dedicated database schema.",
+            "%1$s is deployed on its own server to scale with the number of requests." };
+    // arguments: component, used component, verb
+    private static final String[] USAGES = { "%1$s uses the %2$s to %3$s the incoming requests.",
+            "Requests of %1$s are forwarded to the %2$s.", "Before it can %3$s a request, %1$s queries the %2$s." };
+    private static final String[] FILLERS = { "The system is developed as a distributed web application.",
+            "All components communicate via well-defined interfaces.", "Performance is a major concern of the architecture.",
+            "The following section describes the remaining parts of the system." };
+    private static final int MAX_REQUIRED = 3;
+    private static final int FILES_PER_COMPONENT = 4;
+
+    private static final String MODEL_HEADER = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <repository:Repository xmi:version="2.0" xmlns:xmi="http://www.omg.org/XMI" \
+            xmlns:xsi="http://www.w3.org/2001/XMLSchema-instance" \
+            xmlns:repository="http://palladiosimulator.org/PalladioComponentModel/Repository/5.2" id="_repository" entityName="%s">
+            """;
+    private static final String MODEL_COMPONENT = """
+              <components__Repository xsi:type="repository:BasicComponent" id="_c%1$d" entityName="%2$s">
+                <providedRoles_InterfaceProvidingEntity xsi:type="repository:OperationProvidedRole" id="_p%1$d" \
+            entityName="Provided_I%2$s" providedInterface__OperationProvidedRole="_i%1$d"/>
+            """;
+    private static final String MODEL_REQUIRED_ROLE = """
+                <requiredRoles_InterfaceRequiringEntity xsi:type="repository:OperationRequiredRole" id="_r%1$d_%2$d" \
+            entityName="Required_I%3$s" requiredInterface__OperationRequiredRole="_i%2$d"/>
+            """;
+    private static final String MODEL_INTERFACE = """
+              <interfaces__Repository xsi:type="repository:OperationInterface" id="_i%1$d" entityName="I%2$s">
+                <signatures__OperationInterface id="_s%1$d" entityName="%3$s"/>
+              </interfaces__Repository>
+            """;
+    // arguments: package, component, operation
+    private static final String CODE_INTERFACE = """
+            package %1$s;
+
+            public interface I%2$s {
+                String %3$s(String request);
+            }
+            """;
+    // arguments: package, component, limit
+    private static final String CODE_CONFIG = """
+            package %1$s;
+
+            class %2$sConfig {
+                private final int limit = %3$d;
+
+                boolean isEnabled() {
+                    return limit > 0;
+                }
+            }
+            """;
+    // arguments: package, component
+    private static final String CODE_UTIL = """
+            package %1$s;
+
+            final class %2$sUtil {
+                private %2$sUtil() {
+                }
+
+                static String normalize(String value) {
+                    return value == null ? "" : value.trim();
+                }
+            }
+            """;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private SyntheticProjectGenerator() {
+        throw new IllegalAccessError();
+    }
+
+    /**
+     * Files of a generated project.
+     * @param name the project name
+     * @param text the architecture documentation
+     * @param model the PCM repository model
+     * @param code the code directory
+     * @param goldStandard the SAD-SAM gold standard with the columns {@code modelElementID} and {@code sentence}
+     * @param components the number of components
+     * @param sentences the number of sentences of the documentation
+     * @param codeFiles the number of code files
+     */
+    public record SyntheticProject(String name, File text, File model, File code, File goldStandard, int components, int sentences,
+            int codeFiles) {
+        /**
+         * Builds the plugin manager arguments that run a task on this project.
+         * @param task the task name, one of sad-sam, sam-code and sad-code
+         * @return the arguments without the output directory
+         * @see WorkUnit#taskArguments(String, String, File, File, String)
+         */
+        public List<String> taskArguments(String task) {
+            return WorkUnit.taskArguments(task, name, text, model, code.getAbsolutePath());
+        }
+    }
+
+    /**
+     * A sentence of the documentation with the components it mentions.
+     */
+    private record Sentence(String text, int... components) {
+    }
+
+    /**
+     * Generates a project with {@value #COMPONENTS_PER_SCALE} components per scale unit.
+     * @param directory the directory to generate the project in
+     * @param scale the scale, e.g. 1, 10 or 100
+     * @param seed the seed of the generation
+     * @return the generated project
+     * @throws IOException if the project cannot be written
+     * @throws IllegalArgumentException if the scale is not positive
+     */
+    public static SyntheticProject generate(File directory, int scale, long seed) throws IOException {
+        if (scale <= 0) {
+            throw new IllegalArgumentException("Scale must be positive: " + scale);
+        }
+        String name = "synthetic" + scale + "x";
+        Random random = new Random(seed);
+        int componentCount = COMPONENTS_PER_SCALE * scale;
+        List<String> components = new ArrayList<>(componentCount);
+        List<int[]> required = new ArrayList<>(componentCount);
+        for (int i = 0; i < componentCount; i++) {
+            components.add(componentName(i));
+            int self = i;
+            int requiredCount = Math.min(random.nextInt(MAX_REQUIRED + 1), componentCount - 1);
+            required.add(random.ints(0, componentCount).filter(other -> other != self).distinct().limit(requiredCount).toArray());
+        }
+
+        Path root = directory.toPath();
+        Files.createDirectories(root);
+        File model = root.resolve(name + ".repository").toFile();
+        writeModel(model, name, components, required);
+        File text = root.resolve(name + ".txt").toFile();
+        File goldStandard = root.resolve("goldstandard_" + name + ".csv").toFile();
+        int sentences = writeText(text, goldStandard, random, components, required);
+        File code = root.resolve("code").toFile();
+        writeCode(code.toPath(), random, components, required);
+
+        SyntheticProject project = new SyntheticProject(name, text, model, code, goldStandard, componentCount, sentences,
+                componentCount * FILES_PER_COMPONENT);
+        logger.info("Generated {} with {} components, {} sentences and {} code files in {}", name, componentCount, sentences,
+                project.codeFiles(), directory);
+        return project;
+    }
+
+    /**
+     * Names a component by combining a domain and a role; names repeat with a number once all combinations are used.
+     */
+    private static String componentName(int component) {
+        int combinations = DOMAINS.length * ROLES.length;
+        int combination = component % combinations;
+        String name = DOMAINS[combination % DOMAINS.length] + ROLES[combination / DOMAINS.length];
+        return component < combinations ? name : name + (component / combinations + 1);
+    }
+
+    private static String domain(int component) {
+        return DOMAINS[component % (DOMAINS.length * ROLES.length) % DOMAINS.length].toLowerCase(Locale.ROOT);
+    }
+
+    private static String operation(int component) {
+        return VERBS[component % VERBS.length] + "Request";
+    }
+
+    private static void writeModel(File model, String name, List<String> components, List<int[]> required) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(model.toPath(), StandardCharsets.UTF_8)) {
+            writer.write(MODEL_HEADER.formatted(name));
+            for (int i = 0; i < components.size(); i++) {
+                writer.write(MODEL_COMPONENT.formatted(i, components.get(i)));
+                for (int other : required.get(i)) {
+                    writer.write(MODEL_REQUIRED_ROLE.formatted(i, other, components.get(other)));
+                }
+                writer.write("  </components__Repository>\n");
+            }
+            for (int i = 0; i < components.size(); i++) {
+                writer.write(MODEL_INTERFACE.formatted(i, components.get(i), operation(i)));
+            }
+            writer.write("</repository:Repository>\n");
+        }
+    }
+
+    private static int writeText(File text, File goldStandard, Random random, List<String> components, List<int[]> required)
+            throws IOException {
+        int sentenceNumber = 0;
+        try (BufferedWriter textWriter = Files.newBufferedWriter(text.toPath(), StandardCharsets.UTF_8);
+                BufferedWriter goldWriter = Files.newBufferedWriter(goldStandard.toPath(), StandardCharsets.UTF_8)) {
+            goldWriter.write("modelElementID,sentence\n");
+            for (int i = 0; i < components.size(); i++) {
+                List<Sentence> paragraph = describe(random, i, components, required.get(i));
+                for (int s = 0; s < paragraph.size(); s++) {
+                    Sentence sentence = paragraph.get(s);
+                    sentenceNumber++;
+                    textWriter.write(sentence.text());
+                    textWriter.write(s == paragraph.size() - 1 ? "\n\n" : " ");
+                    for (int component : sentence.components()) {
+                        goldWriter.write("_c" + component + "," + sentenceNumber + "\n");
+                    }
+                }
+            }
+        }
+        return sentenceNumber;
+    }
+
+    private static List<Sentence> describe(Random random, int component, List<String> components, int[] required) {
+        String name = components.get(component);
+        String verb = VERBS[component % VERBS.length];
+        List<Sentence> paragraph = new ArrayList<>();
+        for (String description : DESCRIPTIONS) {
+            paragraph.add(new Sentence(description.formatted(name, domain(component), verb), component));
+        }
+        for (int other : required) {
+            String usage = USAGES[random.nextInt(USAGES.length)];
+            String usageVerb = VERBS[random.nextInt(VERBS.length)];
+            paragraph.add(new Sentence(usage.formatted(name, components.get(other), usageVerb), component, other));
+        }
+        paragraph.add(new Sentence(DETAILS[random.nextInt(DETAILS.length)].formatted(name), component));
+        if (random.nextInt(3) == 0) {
+            paragraph.add(new Sentence(FILLERS[random.nextInt(FILLERS.length)]));
+        }
+        return paragraph;
+    }
+
+    private static void writeCode(Path code, Random random, List<String> components, List<int[]> required) throws IOException {
+        for (int i = 0; i < components.size(); i++) {
+            String component = components.get(i);
+            String packageName = "synthetic." + component.toLowerCase(Locale.ROOT);
+            Path packageDir = code.resolve("src/main/java/synthetic").resolve(component.toLowerCase(Locale.ROOT));
+            Files.createDirectories(packageDir);
+
+            write(packageDir.resolve("I" + component + ".java"), CODE_INTERFACE.formatted(packageName, component, operation(i)));
+            write(packageDir.resolve(component + "Impl.java"), implementation(packageName, i, components, required.get(i)));
+            write(packageDir.resolve(component + "Config.java"), CODE_CONFIG.formatted(packageName, component, 1 + random.nextInt(1000)));
+            write(packageDir.resolve(component + "Util.java"), CODE_UTIL.formatted(packageName, component));
+        }
+    }
+
+    /**
+     * Implements the interface of a component by calling the interfaces of the components it requires.
+     */
+    private static String implementation(String packageName, int component, List<String> components, int[] required) {
+        String name = components.get(component);
+        StringBuilder code = new StringBuilder("package ").append(packageName).append(";\n\n");
+        for (int other : required) {
+            String otherName = components.get(other);
+            code.append("import synthetic.").append(otherName.toLowerCase(Locale.ROOT)).append(".I").append(otherName).append(";\n");
+        }
+        code.append("\npublic class ").append(name).append("Impl implements I").append(name).append(" {\n");
+        for (int other : required) {
+            code.append("    private I").append(components.get(other)).append(' ').append(field(components.get(other))).append(";\n");
+        }
+        code.append("    private final ").append(name).append("Config config = new ").append(name).append("Config();\n\n");
+        code.append("    @Override\n    public String ").append(operation(component)).append("(String request) {\n");
+        code.append("        String result = ").append(name).append("Util.normalize(request);\n");
+        for (int other : required) {
+            code.append("        result = ").append(field(components.get(other))).append('.').append(operation(other))
+                    .append("(result);\n");
+        }
+        code.append("        return config.isEnabled() ? result : request;\n    }\n}\n");
+        return code.toString();
+    }
+
+    private static String field(String component) {
+        return Character.toLowerCase(component.charAt(0)) + component.substring(1);
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,71 @@
+package edu.kit.kastel.mcse.ardoco.cli.synthetic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import edu.kit.kastel.mcse.ardoco.cli.code.IdentifierIndex;
+import edu.kit.kastel.mcse.ardoco.cli.code.ModelElementNames;
+import edu.kit.kastel.mcse.ardoco.cli.synthetic.SyntheticProjectGenerator.SyntheticProject;
+
+class SyntheticProjectGeneratorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Generate a project of the requested size")
+    void testGenerate() throws IOException {
+        SyntheticProject project = SyntheticProjectGenerator.generate(tempDir.toFile(), 3, 42);
+        assertEquals("synthetic3x", project.name());
+        assertEquals(30, project.components());
+
+        List<String> names = ModelElementNames.read(project.model());
+        assertTrue(names.contains("MediaManager"));
+        assertTrue(names.contains("IMediaManager"));
+        assertTrue(names.contains("MediaService"));
+
+        try (Stream<Path> files = Files.walk(project.code().toPath())) {
+            assertEquals(project.codeFiles(), files.filter(Files::isRegularFile).count());
+        }
+        IdentifierIndex index = IdentifierIndex.build(project.code());
+        assertEquals(project.codeFiles(), index.fileCount());
+        assertTrue(index.filesOf("user").length >= 4);
+
+        String text = Files.readString(project.text().toPath());
+        assertTrue(text.contains("The MediaManager component is responsible for the media data of the system."));
+        List<String> goldStandard = Files.readAllLines(project.goldStandard().toPath());
+        assertEquals("modelElementID,sentence", goldStandard.get(0));
+        assertTrue(goldStandard.contains("_c0,1"));
+        int lastSentence = goldStandard.stream().skip(1).mapToInt(line -> Integer.parseInt(line.substring(line.indexOf(',') + 1))).max()
+                .orElseThrow();
+        assertTrue(lastSentence <= project.sentences());
+    }
+
+    @Test
+    @DisplayName("Same seed, same project")
+    void testDeterministic() throws IOException {
+        SyntheticProject first = SyntheticProjectGenerator.generate(tempDir.resolve("a").toFile(), 2, 7);
+        SyntheticProject second = SyntheticProjectGenerator.generate(tempDir.resolve("b").toFile(), 2, 7);
+        assertEquals(Files.readString(first.text().toPath()), Files.readString(second.text().toPath()));
+        assertEquals(Files.readString(first.model().toPath()), Files.readString(second.model().toPath()));
+        assertEquals(Files.readString(first.goldStandard().toPath()), Files.readString(second.goldStandard().toPath()));
+        assertEquals(first.sentences(), second.sentences());
+    }
+
+    @Test
+    @DisplayName("Reject a non-positive scale")
+    void testInvalidScale() {
+        assertThrows(IllegalArgumentException.class, () -> SyntheticProjectGenerator.generate(tempDir.toFile(), 0, 1));
+    }
+}